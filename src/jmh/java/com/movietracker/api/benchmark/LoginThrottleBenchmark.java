@@ -0,0 +1,73 @@
+package com.movietracker.api.benchmark;
+
+import com.movietracker.api.config.AuthConfig;
+import com.movietracker.api.security.LoginThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the login throttle on the happy path, i.e. when the attempt is allowed.
+ * 
+ * <p>Limits are raised far above the offered load so no attempt is rejected; the
+ * {@code baseline} benchmark performs the same key selection without the throttle. Runs
+ * single-threaded and with 8 threads to expose stripe contention. Compare with the cost
+ * of one BCrypt verification (tens of milliseconds) that the throttle guards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoginThrottleBenchmark {
+    
+    private static final int CLIENTS = 10_000;
+    
+    private LoginThrottle throttle;
+    private String[] ips;
+    private String[] emails;
+    
+    @Setup
+    public void setUp() {
+        AuthConfig authConfig = new AuthConfig();
+        AuthConfig.Throttling throttling = authConfig.getThrottling();
+        throttling.setIpBurst(Integer.MAX_VALUE / 2);
+        throttling.setIpPerMinute(60_000_000);
+        throttling.setEmailBurst(Integer.MAX_VALUE / 2);
+        throttling.setEmailPerMinute(60_000_000);
+        throttle = new LoginThrottle(authConfig, new SimpleMeterRegistry());
+        
+        ips = new String[CLIENTS];
+        emails = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            ips[i] = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+            emails[i] = "user" + i + "@example.com";
+        }
+    }
+    
+    @Benchmark
+    public int baseline() {
+        int i = ThreadLocalRandom.current().nextInt(CLIENTS);
+        return ips[i].hashCode() ^ emails[i].hashCode();
+    }
+    
+    @Benchmark
+    public void acquire() {
+        int i = ThreadLocalRandom.current().nextInt(CLIENTS);
+        throttle.acquire(ips[i], emails[i]);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public void acquireContended() {
+        int i = ThreadLocalRandom.current().nextInt(CLIENTS);
+        throttle.acquire(ips[i], emails[i]);
+    }
+}
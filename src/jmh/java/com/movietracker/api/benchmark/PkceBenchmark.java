@@ -0,0 +1,88 @@
+package com.movietracker.api.benchmark;
+
+import com.movietracker.api.service.PKCEService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of generating the PKCE verifier, challenge and state for one login.
+ * 
+ * <p>{@code previous} is the implementation {@link PKCEService} replaced: one shared
+ * {@link SecureRandom}, a new {@link MessageDigest} per challenge and {@link Base64}
+ * encoders. {@code current} uses per-thread entropy buffers and digests. Each variant runs
+ * single-threaded and with 16 threads; the gap at 16 threads is the contention on the
+ * shared {@link SecureRandom}. Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PkceBenchmark {
+    
+    private final PKCEService current = new PKCEService();
+    private final PreviousPkce previous = new PreviousPkce();
+    
+    @Benchmark
+    public PKCEService.PKCEParams current() {
+        return current.generatePKCEParams();
+    }
+    
+    @Benchmark
+    public PKCEService.PKCEParams previous() {
+        return previous.generatePKCEParams();
+    }
+    
+    @Benchmark
+    @Threads(16)
+    public PKCEService.PKCEParams currentContended() {
+        return current.generatePKCEParams();
+    }
+    
+    @Benchmark
+    @Threads(16)
+    public PKCEService.PKCEParams previousContended() {
+        return previous.generatePKCEParams();
+    }
+    
+    /**
+     * PKCEService as it was before per-thread generators
+     */
+    static final class PreviousPkce {
+        
+        private final SecureRandom secureRandom = new SecureRandom();
+        
+        PKCEService.PKCEParams generatePKCEParams() {
+            String codeVerifier = random(32);
+            String codeChallenge = challenge(codeVerifier);
+            String state = random(16);
+            return new PKCEService.PKCEParams(codeVerifier, codeChallenge, state);
+        }
+        
+        private String random(int length) {
+            byte[] randomBytes = new byte[length];
+            secureRandom.nextBytes(randomBytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+        }
+        
+        private String challenge(String codeVerifier) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] hash = digest.digest(codeVerifier.getBytes(StandardCharsets.UTF_8));
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("SHA-256 algorithm not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.movietracker.api.benchmark;
+
+import com.movietracker.api.config.AuthConfig;
+import com.movietracker.api.service.UniquenessPrefilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures how many {@code existsByEmail} probes the uniqueness pre-filter saves during
+ * registration on a large users table.
+ * 
+ * <p>The users table is simulated in memory: a {@link HashSet} stands in for the unique
+ * index and each probe burns a fixed amount of CPU via {@link Blackhole#consumeCPU(long)}
+ * to approximate a database round trip. Registrations use fresh emails with a configurable
+ * share of collisions with existing users, matching the "most probes return false" case.
+ * 
+ * <p>Compare {@code probes} and {@code skipped} in the secondary results between the
+ * {@code withPrefilter} and {@code withoutPrefilter} runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UniquenessPrefilterBenchmark {
+    
+    @Param({"1000000", "5000000"})
+    private int users;
+    
+    /** Percentage of registration attempts that reuse an existing email */
+    @Param({"5"})
+    private int collisionPercent;
+    
+    /** Simulated cost of one database probe */
+    @Param({"20000"})
+    private long probeCost;
+    
+    private Set<String> table;
+    private UniquenessPrefilter prefilter;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = new HashSet<>(users * 2);
+        for (int i = 0; i < users; i++) {
+            table.add(email(i));
+        }
+        
+        AuthConfig authConfig = new AuthConfig();
+        authConfig.getUniquenessFilter().setExpectedUsers(users);
+        // Repository and transaction manager are only used by the background warm-up
+        prefilter = new UniquenessPrefilter(null, null, authConfig, new SimpleMeterRegistry());
+        prefilter.loadExisting(IntStream.range(0, users)
+            .mapToObj(i -> new Object[] {email(i), "user" + i}));
+    }
+    
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Probes {
+        public long probes;
+        public long skipped;
+    }
+    
+    @Benchmark
+    public boolean withoutPrefilter(Probes counters) {
+        String candidate = nextCandidate();
+        counters.probes++;
+        return probe(candidate);
+    }
+    
+    @Benchmark
+    public boolean withPrefilter(Probes counters) {
+        String candidate = nextCandidate();
+        if (!prefilter.mightContainEmail(candidate)) {
+            counters.skipped++;
+            return false;
+        }
+        counters.probes++;
+        return probe(candidate);
+    }
+    
+    private String nextCandidate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < collisionPercent) {
+            return email(random.nextInt(users));
+        }
+        return "new-" + random.nextLong() + "@example.com";
+    }
+    
+    private boolean probe(String email) {
+        Blackhole.consumeCPU(probeCost);
+        return table.contains(email);
+    }
+    
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+}
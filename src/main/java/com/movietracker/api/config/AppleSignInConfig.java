@@ -0,0 +1,47 @@
+package com.movietracker.api.config;
+
+import com.movietracker.api.security.AppleClientRegistrationRepository;
+import com.movietracker.api.security.AppleClientSecretProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientProperties;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientPropertiesMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+/**
+ * Signs the Sign in with Apple client secret from the team's private key when
+ * {@code app.oauth2.apple.private-key} is set, instead of using a static
+ * {@code APPLE_CLIENT_SECRET} that stops working once it expires.
+ * 
+ * <p>Replaces Spring Boot's client registration repository with one whose {@code apple}
+ * registration always carries a valid secret from {@link AppleClientSecretProvider}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.oauth2.apple.private-key")
+public class AppleSignInConfig {
+    
+    @Bean
+    public AppleClientSecretProvider appleClientSecretProvider(
+            @Value("${app.oauth2.apple.team-id}") String teamId,
+            @Value("${app.oauth2.apple.key-id}") String keyId,
+            @Value("${app.oauth2.apple.private-key}") String privateKey,
+            @Value("${spring.security.oauth2.client.registration.apple.client-id}") String clientId,
+            @Value("${app.oauth2.apple.client-secret-lifetime-hours:24}") long lifetimeHours,
+            @Value("${app.oauth2.apple.client-secret-refresh-minutes:60}") long refreshBeforeMinutes) {
+        return new AppleClientSecretProvider(teamId, keyId, clientId,
+            AppleClientSecretProvider.parsePrivateKey(privateKey),
+            Duration.ofHours(lifetimeHours), Duration.ofMinutes(refreshBeforeMinutes));
+    }
+    
+    @Bean
+    public AppleClientRegistrationRepository clientRegistrationRepository(OAuth2ClientProperties properties,
+                                                                          AppleClientSecretProvider clientSecretProvider) {
+        return new AppleClientRegistrationRepository(
+            new ArrayList<>(new OAuth2ClientPropertiesMapper(properties).asClientRegistrations().values()),
+            clientSecretProvider);
+    }
+}
@@ -13,6 +13,21 @@ public class AuthConfig {
     // JWT Configuration
     private Jwt jwt = new Jwt();
     
+    // Password hashing configuration
+    private PasswordHashing passwordHashing = new PasswordHashing();
+    
+    // Email/username uniqueness pre-filter configuration
+    private UniquenessFilter uniquenessFilter = new UniquenessFilter();
+    
+    // Login/register throttling configuration
+    private Throttling throttling = new Throttling();
+    
+    // Local id_token verification for OIDC providers
+    private IdToken idToken = new IdToken();
+    
+    // Outbound calls to OAuth2 providers
+    private ProviderClient providerClient = new ProviderClient();
+    
     public boolean isLocalAuthEnabled() {
         return localAuthEnabled;
     }
@@ -37,9 +52,55 @@ public class AuthConfig {
         this.jwt = jwt;
     }
     
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+    
+    public void setPasswordHashing(PasswordHashing passwordHashing) {
+        this.passwordHashing = passwordHashing;
+    }
+    
+    public UniquenessFilter getUniquenessFilter() {
+        return uniquenessFilter;
+    }
+    
+    public void setUniquenessFilter(UniquenessFilter uniquenessFilter) {
+        this.uniquenessFilter = uniquenessFilter;
+    }
+    
+    public Throttling getThrottling() {
+        return throttling;
+    }
+    
+    public void setThrottling(Throttling throttling) {
+        this.throttling = throttling;
+    }
+    
+    public IdToken getIdToken() {
+        return idToken;
+    }
+    
+    public void setIdToken(IdToken idToken) {
+        this.idToken = idToken;
+    }
+    
+    public ProviderClient getProviderClient() {
+        return providerClient;
+    }
+    
+    public void setProviderClient(ProviderClient providerClient) {
+        this.providerClient = providerClient;
+    }
+    
     public static class Jwt {
         private String secret = "movieTracker2024SecretKeyThatIsLongEnoughForHS256Algorithm";
+        // Lifetime of refresh tokens, i.e. how long a sign-in lasts without re-entering credentials
         private int expirationHours = 1;
+        private int accessTokenMinutes = 15;
+        private long claimsCacheMaxSize = 10_000;
+        // Expected revocations per revocation-list time bucket
+        private long revocationCapacity = 50_000;
+        private double revocationFalsePositiveRate = 0.0001;
         
         public String getSecret() {
             return secret;
@@ -56,5 +117,312 @@ public class AuthConfig {
         public void setExpirationHours(int expirationHours) {
             this.expirationHours = expirationHours;
         }
+        
+        public int getAccessTokenMinutes() {
+            return accessTokenMinutes;
+        }
+        
+        public void setAccessTokenMinutes(int accessTokenMinutes) {
+            this.accessTokenMinutes = accessTokenMinutes;
+        }
+        
+        public long getClaimsCacheMaxSize() {
+            return claimsCacheMaxSize;
+        }
+        
+        public void setClaimsCacheMaxSize(long claimsCacheMaxSize) {
+            this.claimsCacheMaxSize = claimsCacheMaxSize;
+        }
+        
+        public long getRevocationCapacity() {
+            return revocationCapacity;
+        }
+        
+        public void setRevocationCapacity(long revocationCapacity) {
+            this.revocationCapacity = revocationCapacity;
+        }
+        
+        public double getRevocationFalsePositiveRate() {
+            return revocationFalsePositiveRate;
+        }
+        
+        public void setRevocationFalsePositiveRate(double revocationFalsePositiveRate) {
+            this.revocationFalsePositiveRate = revocationFalsePositiveRate;
+        }
+    }
+    
+    public static class PasswordHashing {
+        // 0 means one hashing thread per available processor
+        private int threads = 0;
+        private int queueCapacity = 64;
+        private long retryAfterSeconds = 1;
+        // Fixed BCrypt strength; 0 calibrates it at startup against targetHashMillis
+        private int strength = 0;
+        private long targetHashMillis = 75;
+        private int minStrength = 10;
+        private int maxStrength = 16;
+        
+        public int getThreads() {
+            return threads;
+        }
+        
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+        
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+        
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+        
+        public void setRetryAfterSeconds(long retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+        
+        public int getStrength() {
+            return strength;
+        }
+        
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+        
+        public long getTargetHashMillis() {
+            return targetHashMillis;
+        }
+        
+        public void setTargetHashMillis(long targetHashMillis) {
+            this.targetHashMillis = targetHashMillis;
+        }
+        
+        public int getMinStrength() {
+            return minStrength;
+        }
+        
+        public void setMinStrength(int minStrength) {
+            this.minStrength = minStrength;
+        }
+        
+        public int getMaxStrength() {
+            return maxStrength;
+        }
+        
+        public void setMaxStrength(int maxStrength) {
+            this.maxStrength = maxStrength;
+        }
+        
+        /**
+         * Effective number of hashing threads
+         */
+        public int resolveThreads() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+    }
+    
+    public static class UniquenessFilter {
+        private boolean enabled = true;
+        private long expectedUsers = 1_000_000;
+        private double falsePositiveRate = 0.01;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public long getExpectedUsers() {
+            return expectedUsers;
+        }
+        
+        public void setExpectedUsers(long expectedUsers) {
+            this.expectedUsers = expectedUsers;
+        }
+        
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+        
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+    
+    public static class Throttling {
+        private boolean enabled = true;
+        // Buckets per key type; distinct keys beyond this share buckets
+        private int slots = 65_536;
+        private int stripes = 64;
+        private int ipBurst = 20;
+        private int ipPerMinute = 10;
+        private int emailBurst = 5;
+        private int emailPerMinute = 2;
+        // OAuth2 sign-ins started per client IP (GET /oauth2/authorize/{provider})
+        private int signInBurst = 10;
+        private int signInPerMinute = 5;
+        // How long an email that matched no account is answered without a lookup. The cache
+        // is per instance, so an account registered through another instance may fail to log
+        // in here for up to this long
+        private long unknownEmailTtlSeconds = 60;
+        private long unknownEmailCacheSize = 100_000;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getSlots() {
+            return slots;
+        }
+        
+        public void setSlots(int slots) {
+            this.slots = slots;
+        }
+        
+        public int getStripes() {
+            return stripes;
+        }
+        
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+        
+        public int getIpBurst() {
+            return ipBurst;
+        }
+        
+        public void setIpBurst(int ipBurst) {
+            this.ipBurst = ipBurst;
+        }
+        
+        public int getIpPerMinute() {
+            return ipPerMinute;
+        }
+        
+        public void setIpPerMinute(int ipPerMinute) {
+            this.ipPerMinute = ipPerMinute;
+        }
+        
+        public int getEmailBurst() {
+            return emailBurst;
+        }
+        
+        public void setEmailBurst(int emailBurst) {
+            this.emailBurst = emailBurst;
+        }
+        
+        public int getEmailPerMinute() {
+            return emailPerMinute;
+        }
+        
+        public void setEmailPerMinute(int emailPerMinute) {
+            this.emailPerMinute = emailPerMinute;
+        }
+        
+        public int getSignInBurst() {
+            return signInBurst;
+        }
+        
+        public void setSignInBurst(int signInBurst) {
+            this.signInBurst = signInBurst;
+        }
+        
+        public int getSignInPerMinute() {
+            return signInPerMinute;
+        }
+        
+        public void setSignInPerMinute(int signInPerMinute) {
+            this.signInPerMinute = signInPerMinute;
+        }
+        
+        public long getUnknownEmailTtlSeconds() {
+            return unknownEmailTtlSeconds;
+        }
+        
+        public void setUnknownEmailTtlSeconds(long unknownEmailTtlSeconds) {
+            this.unknownEmailTtlSeconds = unknownEmailTtlSeconds;
+        }
+        
+        public long getUnknownEmailCacheSize() {
+            return unknownEmailCacheSize;
+        }
+        
+        public void setUnknownEmailCacheSize(long unknownEmailCacheSize) {
+            this.unknownEmailCacheSize = unknownEmailCacheSize;
+        }
+    }
+    
+    public static class IdToken {
+        // Background refresh period of cached provider key sets
+        private long jwksRefreshMinutes = 60;
+        
+        public long getJwksRefreshMinutes() {
+            return jwksRefreshMinutes;
+        }
+        
+        public void setJwksRefreshMinutes(long jwksRefreshMinutes) {
+            this.jwksRefreshMinutes = jwksRefreshMinutes;
+        }
+    }
+    
+    public static class ProviderClient {
+        private long connectTimeoutMillis = 2_000;
+        private long readTimeoutMillis = 5_000;
+        // In-flight calls per provider; further calls fail fast
+        private int maxConcurrentRequests = 50;
+        // Consecutive failures that open a provider's circuit, and how long it stays open
+        private int failureThreshold = 5;
+        private long openSeconds = 30;
+        
+        public long getConnectTimeoutMillis() {
+            return connectTimeoutMillis;
+        }
+        
+        public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+        
+        public long getReadTimeoutMillis() {
+            return readTimeoutMillis;
+        }
+        
+        public void setReadTimeoutMillis(long readTimeoutMillis) {
+            this.readTimeoutMillis = readTimeoutMillis;
+        }
+        
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+        
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+        
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+        
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+        
+        public long getOpenSeconds() {
+            return openSeconds;
+        }
+        
+        public void setOpenSeconds(long openSeconds) {
+            this.openSeconds = openSeconds;
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.movietracker.api.config;
+
+import com.netflix.graphql.dgs.DgsScalar;
+import graphql.GraphQLContext;
+import graphql.execution.CoercedVariables;
+import graphql.language.Value;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * The schema's {@code DateTime} scalar: RFC 3339 date-times, as in the extended scalars.
+ *
+ * <p>The entities store {@link LocalDateTime} timestamps and {@link LocalDate} watch dates,
+ * which the extended scalar refuses to serialize. Those are placed in the server's zone
+ * (the one they were recorded in) before being handed to the standard coercing; everything
+ * else, including input parsing, is delegated unchanged.
+ */
+@DgsScalar(name = "DateTime")
+public class DateTimeScalar implements Coercing<Object, Object> {
+    
+    @SuppressWarnings("unchecked")
+    private static final Coercing<Object, Object> DELEGATE =
+        (Coercing<Object, Object>) ExtendedScalars.DateTime.getCoercing();
+    
+    @Override
+    public Object serialize(Object dataFetcherResult, GraphQLContext graphQLContext, Locale locale)
+            throws CoercingSerializeException {
+        ZoneId zone = ZoneId.systemDefault();
+        if (dataFetcherResult instanceof LocalDateTime dateTime) {
+            return DELEGATE.serialize(dateTime.atZone(zone).toOffsetDateTime(), graphQLContext, locale);
+        }
+        if (dataFetcherResult instanceof LocalDate date) {
+            return DELEGATE.serialize(date.atStartOfDay(zone).toOffsetDateTime(), graphQLContext, locale);
+        }
+        return DELEGATE.serialize(dataFetcherResult, graphQLContext, locale);
+    }
+    
+    @Override
+    public Object parseValue(Object input, GraphQLContext graphQLContext, Locale locale)
+            throws CoercingParseValueException {
+        return DELEGATE.parseValue(input, graphQLContext, locale);
+    }
+    
+    @Override
+    public Object parseLiteral(Value<?> input, CoercedVariables variables, GraphQLContext graphQLContext,
+                               Locale locale) throws CoercingParseLiteralException {
+        return DELEGATE.parseLiteral(input, variables, graphQLContext, locale);
+    }
+    
+    @Override
+    public Value<?> valueToLiteral(Object input, GraphQLContext graphQLContext, Locale locale) {
+        return DELEGATE.valueToLiteral(input, graphQLContext, locale);
+    }
+}
@@ -0,0 +1,149 @@
+package com.movietracker.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movietracker.api.graphql.CacheControlInstrumentation;
+import com.movietracker.api.graphql.ListSizeComplexityCalculator;
+import com.movietracker.api.graphql.OperationBudgetInstrumentation;
+import com.movietracker.api.graphql.PersistedDocumentCache;
+import com.movietracker.api.graphql.PersistedQueryDocumentProvider;
+import com.movietracker.api.graphql.PersistedQueryManifest;
+import com.movietracker.api.graphql.QueryCostLimitInstrumentation;
+import com.movietracker.api.graphql.QueryDepthLimitInstrumentation;
+import com.movietracker.api.graphql.RateLimitHeaderInterceptor;
+import com.movietracker.api.graphql.ResolverMetricsInstrumentation;
+import com.movietracker.api.graphql.SqlStatementCounter;
+import com.movietracker.api.security.SecurityContextHelper;
+import com.movietracker.api.util.StripedTokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * GraphQL execution beans beyond what DGS configures itself; settings come from
+ * {@link GraphQLProperties} ({@code app.graphql.*}).
+ * 
+ * <p>DGS picks up the {@code PreparsedDocumentProvider} and every {@code Instrumentation} bean;
+ * Spring for GraphQL picks up the {@code WebGraphQlInterceptor}s.
+ */
+@Configuration
+public class GraphQLConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GraphQLConfig.class);
+    
+    @Bean
+    public PersistedQueryManifest persistedQueryManifest(
+            GraphQLProperties properties,
+            ResourceLoader resourceLoader,
+            ObjectMapper objectMapper) throws IOException {
+        GraphQLProperties.PersistedQueries settings = properties.getPersistedQueries();
+        PersistedQueryManifest manifest = PersistedQueryManifest.empty();
+        if (!settings.getManifest().isBlank()) {
+            Resource resource = resourceLoader.getResource(settings.getManifest());
+            try (InputStream json = resource.getInputStream()) {
+                manifest = PersistedQueryManifest.read(json, objectMapper);
+            }
+            logger.info("Loaded {} persisted queries from {}", manifest.size(), settings.getManifest());
+        }
+        if (settings.isAllowlistOnly() && manifest.size() == 0) {
+            throw new IllegalStateException(
+                "app.graphql.persisted-queries.allowlist-only requires a non-empty manifest");
+        }
+        return manifest;
+    }
+    
+    @Bean
+    public PersistedQueryDocumentProvider persistedQueryDocumentProvider(
+            GraphQLProperties properties,
+            PersistedQueryManifest manifest,
+            MeterRegistry meterRegistry) {
+        GraphQLProperties.PersistedQueries settings = properties.getPersistedQueries();
+        PersistedDocumentCache cache = new PersistedDocumentCache(
+            settings.getCacheSize(), manifest, settings.isAllowlistOnly(), meterRegistry);
+        return new PersistedQueryDocumentProvider(cache, settings.isAllowlistOnly(), meterRegistry);
+    }
+    
+    @Bean
+    public QueryDepthLimitInstrumentation queryDepthLimitInstrumentation(
+            GraphQLProperties properties, MeterRegistry meterRegistry) {
+        return new QueryDepthLimitInstrumentation(properties.getLimits().getMaxDepth(), meterRegistry);
+    }
+    
+    @Bean
+    public ListSizeComplexityCalculator listSizeComplexityCalculator(GraphQLProperties properties) {
+        GraphQLProperties.Limits limits = properties.getLimits();
+        return new ListSizeComplexityCalculator(limits.getListSizeHints(), limits.getDefaultListSize());
+    }
+    
+    @Bean
+    public QueryCostLimitInstrumentation queryCostLimitInstrumentation(
+            GraphQLProperties properties, ListSizeComplexityCalculator calculator, MeterRegistry meterRegistry) {
+        return new QueryCostLimitInstrumentation(properties.getLimits().getMaxCost(), calculator, meterRegistry);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "app.graphql.budgets.enabled", havingValue = "true", matchIfMissing = true)
+    public OperationBudgetInstrumentation operationBudgetInstrumentation(
+            GraphQLProperties properties,
+            SecurityContextHelper securityContextHelper,
+            ListSizeComplexityCalculator calculator,
+            MeterRegistry meterRegistry) {
+        GraphQLProperties.Budgets budgets = properties.getBudgets();
+        StripedTokenBucket userBuckets = new StripedTokenBucket(
+            budgets.getSlots(), budgets.getStripes(),
+            budgets.getUserCapacity(), Duration.ofMinutes(1).dividedBy(budgets.getUserPerMinute())
+        );
+        StripedTokenBucket tokenBuckets = new StripedTokenBucket(
+            budgets.getSlots(), budgets.getStripes(),
+            budgets.getTokenCapacity(), Duration.ofMinutes(1).dividedBy(budgets.getTokenPerMinute())
+        );
+        return new OperationBudgetInstrumentation(
+            securityContextHelper, calculator, userBuckets, tokenBuckets, meterRegistry);
+    }
+    
+    @Bean
+    public CacheControlInstrumentation cacheControlInstrumentation() {
+        return new CacheControlInstrumentation();
+    }
+    
+    @Bean
+    public RateLimitHeaderInterceptor rateLimitHeaderInterceptor() {
+        return new RateLimitHeaderInterceptor();
+    }
+    
+    @Bean
+    public ResolverMetricsInstrumentation resolverMetricsInstrumentation(
+            GraphQLProperties properties, MeterRegistry meterRegistry) {
+        GraphQLProperties.Metrics metrics = properties.getMetrics();
+        return new ResolverMetricsInstrumentation(
+            meterRegistry, metrics.getSlowOperationThreshold(), metrics.getSlowOperationSampleRate());
+    }
+    
+    /**
+     * Operation names come from clients; only those in the manifest or configured keep their own tag value
+     */
+    @Bean
+    public MeterFilter graphQLOperationNameFilter(GraphQLProperties properties, PersistedQueryManifest manifest) {
+        Set<String> knownNames = new HashSet<>(manifest.operationNames());
+        knownNames.addAll(properties.getMetrics().getOperationNames());
+        return ResolverMetricsInstrumentation.operationNameFilter(knownNames);
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
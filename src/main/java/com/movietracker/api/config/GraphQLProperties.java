@@ -0,0 +1,236 @@
+package com.movietracker.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.graphql")
+public class GraphQLProperties {
+    
+    // Automatic persisted queries
+    private PersistedQueries persistedQueries = new PersistedQueries();
+    
+    // Static depth and cost ceilings, checked before execution
+    private Limits limits = new Limits();
+    
+    // Operation and resolver timing
+    private Metrics metrics = new Metrics();
+    
+    // Per-user and per-token budgets in query cost units
+    private Budgets budgets = new Budgets();
+    
+    public PersistedQueries getPersistedQueries() {
+        return persistedQueries;
+    }
+    
+    public void setPersistedQueries(PersistedQueries persistedQueries) {
+        this.persistedQueries = persistedQueries;
+    }
+    
+    public Limits getLimits() {
+        return limits;
+    }
+    
+    public void setLimits(Limits limits) {
+        this.limits = limits;
+    }
+    
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    public Budgets getBudgets() {
+        return budgets;
+    }
+    
+    public void setBudgets(Budgets budgets) {
+        this.budgets = budgets;
+    }
+    
+    public static class PersistedQueries {
+        // Parsed and validated documents kept, by hash
+        private long cacheSize = 1000;
+        // Optional Apollo persisted query manifest, e.g. classpath:persisted-query-manifest.json
+        private String manifest = "";
+        // Reject requests without a hash and hashes not in the manifest
+        private boolean allowlistOnly = false;
+        
+        public long getCacheSize() {
+            return cacheSize;
+        }
+        
+        public void setCacheSize(long cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+        
+        public String getManifest() {
+            return manifest;
+        }
+        
+        public void setManifest(String manifest) {
+            this.manifest = manifest;
+        }
+        
+        public boolean isAllowlistOnly() {
+            return allowlistOnly;
+        }
+        
+        public void setAllowlistOnly(boolean allowlistOnly) {
+            this.allowlistOnly = allowlistOnly;
+        }
+    }
+    
+    public static class Limits {
+        private int maxDepth = 15;
+        private int maxCost = 5000;
+        // Assumed size of list fields without a size argument or hint
+        private int defaultListSize = 50;
+        // Expected list sizes by "Type.field", e.g. [Query.myMovies]: 200
+        private Map<String, Integer> listSizeHints = new HashMap<>();
+        
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+        
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+        
+        public int getMaxCost() {
+            return maxCost;
+        }
+        
+        public void setMaxCost(int maxCost) {
+            this.maxCost = maxCost;
+        }
+        
+        public int getDefaultListSize() {
+            return defaultListSize;
+        }
+        
+        public void setDefaultListSize(int defaultListSize) {
+            this.defaultListSize = defaultListSize;
+        }
+        
+        public Map<String, Integer> getListSizeHints() {
+            return listSizeHints;
+        }
+        
+        public void setListSizeHints(Map<String, Integer> listSizeHints) {
+            this.listSizeHints = listSizeHints;
+        }
+    }
+    
+    public static class Metrics {
+        // Operations at least this slow are logged
+        private Duration slowOperationThreshold = Duration.ofMillis(500);
+        // Fraction of slow operations logged, 0.0 - 1.0
+        private double slowOperationSampleRate = 1.0;
+        // Operation names tagged as sent, besides those in the persisted query manifest;
+        // any other name is tagged "other"
+        private Set<String> operationNames = new HashSet<>();
+        
+        public Duration getSlowOperationThreshold() {
+            return slowOperationThreshold;
+        }
+        
+        public void setSlowOperationThreshold(Duration slowOperationThreshold) {
+            this.slowOperationThreshold = slowOperationThreshold;
+        }
+        
+        public double getSlowOperationSampleRate() {
+            return slowOperationSampleRate;
+        }
+        
+        public void setSlowOperationSampleRate(double slowOperationSampleRate) {
+            this.slowOperationSampleRate = slowOperationSampleRate;
+        }
+        
+        public Set<String> getOperationNames() {
+            return operationNames;
+        }
+        
+        public void setOperationNames(Set<String> operationNames) {
+            this.operationNames = operationNames;
+        }
+    }
+    
+    public static class Budgets {
+        private boolean enabled = true;
+        // Buckets per budget; distinct users or tokens beyond this share buckets
+        private int slots = 65_536;
+        private int stripes = 64;
+        // Cost units a user can spend in a burst, across all of their tokens
+        private long userCapacity = 50_000;
+        private long userPerMinute = 30_000;
+        // Cost units a single access token can spend in a burst
+        private long tokenCapacity = 25_000;
+        private long tokenPerMinute = 15_000;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getSlots() {
+            return slots;
+        }
+        
+        public void setSlots(int slots) {
+            this.slots = slots;
+        }
+        
+        public int getStripes() {
+            return stripes;
+        }
+        
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+        
+        public long getUserCapacity() {
+            return userCapacity;
+        }
+        
+        public void setUserCapacity(long userCapacity) {
+            this.userCapacity = userCapacity;
+        }
+        
+        public long getUserPerMinute() {
+            return userPerMinute;
+        }
+        
+        public void setUserPerMinute(long userPerMinute) {
+            this.userPerMinute = userPerMinute;
+        }
+        
+        public long getTokenCapacity() {
+            return tokenCapacity;
+        }
+        
+        public void setTokenCapacity(long tokenCapacity) {
+            this.tokenCapacity = tokenCapacity;
+        }
+        
+        public long getTokenPerMinute() {
+            return tokenPerMinute;
+        }
+        
+        public void setTokenPerMinute(long tokenPerMinute) {
+            this.tokenPerMinute = tokenPerMinute;
+        }
+    }
+}
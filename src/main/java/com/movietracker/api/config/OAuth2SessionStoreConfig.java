@@ -0,0 +1,51 @@
+package com.movietracker.api.config;
+
+import com.movietracker.api.service.InMemoryOAuth2SessionStore;
+import com.movietracker.api.service.JdbcOAuth2SessionStore;
+import com.movietracker.api.service.NearCachingOAuth2SessionStore;
+import com.movietracker.api.service.OAuth2SessionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/**
+ * Selects the {@link OAuth2SessionStore} via {@code app.oauth2.session-store.type}:
+ * <ul>
+ *   <li>{@code memory} (default) - per-instance map bounded by
+ *       {@code app.oauth2.session-store.max-sessions}, single-instance deployments only</li>
+ *   <li>{@code jdbc} - shared {@code oauth2_sessions} table (tokens encrypted under a key
+ *       derived from the JWT secret), required when running more than one instance; optionally fronted by a write-through near-cache
+ *       ({@code app.oauth2.session-store.near-cache.enabled})</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.auth.oauth2-enabled", havingValue = "true")
+public class OAuth2SessionStoreConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "app.oauth2.session-store.type", havingValue = "memory", matchIfMissing = true)
+    public InMemoryOAuth2SessionStore inMemoryOAuth2SessionStore(
+            @Value("${app.oauth2.session-store.max-sessions:" + InMemoryOAuth2SessionStore.DEFAULT_MAX_SESSIONS + "}") int maxSessions) {
+        return new InMemoryOAuth2SessionStore(maxSessions);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "app.oauth2.session-store.type", havingValue = "jdbc")
+    public OAuth2SessionStore jdbcOAuth2SessionStore(
+            JdbcTemplate jdbcTemplate,
+            AuthConfig authConfig,
+            @Value("${app.oauth2.session-store.near-cache.enabled:false}") boolean nearCacheEnabled,
+            @Value("${app.oauth2.session-store.near-cache.maximum-size:10000}") long nearCacheMaximumSize,
+            @Value("${app.oauth2.session-store.near-cache.ttl-seconds:30}") long nearCacheTtlSeconds) {
+        OAuth2SessionStore store = new JdbcOAuth2SessionStore(jdbcTemplate, authConfig.getJwt().getSecret());
+        if (!nearCacheEnabled) {
+            return store;
+        }
+        return new NearCachingOAuth2SessionStore(
+            store, nearCacheMaximumSize, Duration.ofSeconds(nearCacheTtlSeconds));
+    }
+}
@@ -1,69 +1,102 @@
 package com.movietracker.api.config;
 
+import com.movietracker.api.security.AdaptivePasswordEncoder;
+import com.movietracker.api.security.BCryptWorkFactorCalibrator;
+import com.movietracker.api.security.BoundedPasswordEncoder;
+import com.movietracker.api.security.EncryptedCookieAuthorizationRequestRepository;
+import com.movietracker.api.security.JwksIdTokenDecoderFactory;
 import com.movietracker.api.security.JwtAuthenticationFilter;
 import com.movietracker.api.security.OAuth2AuthenticationFailureHandler;
 import com.movietracker.api.security.OAuth2AuthenticationSuccessHandler;
 import com.movietracker.api.security.OAuth2AuthenticationSuccessHandlerV2;
+import com.movietracker.api.security.OAuth2ProviderClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.client.endpoint.RestClientAuthorizationCodeTokenResponseClient;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+    
+    private static final Duration AUTHORIZATION_REQUEST_TTL = Duration.ofMinutes(5);
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
     private final OAuth2AuthenticationFailureHandler oAuth2AuthenticationFailureHandler;
     private final OAuth2AuthenticationSuccessHandlerV2 oAuth2AuthenticationSuccessHandlerV2;
+    private final AuthConfig authConfig;
     
     @Value("${app.auth.oauth2-enabled:false}")
     private boolean oauth2Enabled;
+    
+    // Separate, non-public port for actuator endpoints other than health; -1 when not configured
+    @Value("${management.server.port:-1}")
+    private int managementPort;
 
     @Autowired
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
                          @Autowired(required = false) @Lazy OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler,
                          @Autowired(required = false) @Lazy OAuth2AuthenticationFailureHandler oAuth2AuthenticationFailureHandler,
-                         @Autowired(required = false) @Lazy OAuth2AuthenticationSuccessHandlerV2 oAuth2AuthenticationSuccessHandlerV2) {
+                         @Autowired(required = false) @Lazy OAuth2AuthenticationSuccessHandlerV2 oAuth2AuthenticationSuccessHandlerV2,
+                         AuthConfig authConfig) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.oAuth2AuthenticationSuccessHandler = oAuth2AuthenticationSuccessHandler;
         this.oAuth2AuthenticationFailureHandler = oAuth2AuthenticationFailureHandler;
         this.oAuth2AuthenticationSuccessHandlerV2 = oAuth2AuthenticationSuccessHandlerV2;
+        this.authConfig = authConfig;
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, OAuth2ProviderClients providerClients) throws Exception {
         HttpSecurity httpSecurity = http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable()) // Disable for API development
-            .sessionManagement(session -> {
-                if (oauth2Enabled) {
-                    // OAuth2 needs sessions for authorization requests
-                    session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED);
-                } else {
-                    session.sessionCreationPolicy(SessionCreationPolicy.STATELESS);
-                }
-            })
+            // OAuth2 authorization requests live in an encrypted cookie, so no session is needed
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> {
                 authz
                     // Public endpoints
                     .requestMatchers("/").permitAll()
                     .requestMatchers("/health").permitAll()
-                    .requestMatchers("/actuator/health").permitAll()
+                    .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                    // Metrics and other actuator endpoints only on the internal management port
+                    .requestMatchers(EndpointRequest.toAnyEndpoint()).access((authentication, context) ->
+                        new AuthorizationDecision(managementPort > 0 && context.getRequest().getLocalPort() == managementPort))
                     .requestMatchers("/graphql").permitAll()
                     .requestMatchers("/graphiql").permitAll()
                     .requestMatchers("/h2-console/**").permitAll(); // For H2 console in testing
@@ -95,8 +128,15 @@ public class SecurityConfig {
                 httpSecurity.oauth2Login(oauth2 -> oauth2
                     .successHandler(successHandler)
                     .failureHandler(oAuth2AuthenticationFailureHandler)
-                    .authorizationEndpoint(authorization -> 
-                        authorization.baseUri("/oauth2/authorization"))
+                    .authorizationEndpoint(authorization -> authorization
+                        .baseUri("/oauth2/authorization")
+                        .authorizationRequestRepository(authorizationRequestRepository()))
+                    .tokenEndpoint(token -> token
+                        .accessTokenResponseClient(tokenResponseClient(providerClients)))
+                    // Identity comes from the locally verified id_token, not a userinfo request
+                    .userInfoEndpoint(userInfo -> userInfo
+                        .userService(userService(providerClients))
+                        .oidcUserService(idTokenOnlyUserService()))
                     .redirectionEndpoint(redirection -> 
                         redirection.baseUri("/login/oauth2/code/*"))
                 );
@@ -107,8 +147,105 @@ public class SecurityConfig {
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public EncryptedCookieAuthorizationRequestRepository authorizationRequestRepository() {
+        // Long enough to complete a provider login, short enough to limit replay
+        return new EncryptedCookieAuthorizationRequestRepository(
+            authConfig.getJwt().getSecret(), AUTHORIZATION_REQUEST_TTL);
+    }
+    
+    @Bean
+    public OAuth2ProviderClients oAuth2ProviderClients(ObjectProvider<ClientRegistrationRepository> clientRegistrations,
+                                                       MeterRegistry meterRegistry) {
+        // One pool, deadline, bulkhead and circuit breaker per provider so a slow one stays contained
+        Map<String, String> providerHosts = Map.of();
+        if (clientRegistrations.getIfAvailable() instanceof Iterable<?> registrations) {
+            @SuppressWarnings("unchecked")
+            Iterable<ClientRegistration> iterable = (Iterable<ClientRegistration>) registrations;
+            providerHosts = OAuth2ProviderClients.providerHosts(iterable);
+        }
+        
+        AuthConfig.ProviderClient client = authConfig.getProviderClient();
+        return new OAuth2ProviderClients(providerHosts, new OAuth2ProviderClients.Settings(
+            Duration.ofMillis(client.getConnectTimeoutMillis()),
+            Duration.ofMillis(client.getReadTimeoutMillis()),
+            client.getMaxConcurrentRequests(),
+            client.getFailureThreshold(),
+            Duration.ofSeconds(client.getOpenSeconds())
+        ), meterRegistry);
+    }
+    
+    @Bean
+    public JwksIdTokenDecoderFactory idTokenDecoderFactory(OAuth2ProviderClients providerClients) {
+        // Picked up by the OIDC login provider in place of Spring's per-registration decoders
+        RestClient restClient = RestClient.builder()
+            .requestFactory(providerClients)
+            .requestInterceptor(providerClients)
+            .build();
+        return new JwksIdTokenDecoderFactory(restClient,
+            Duration.ofMinutes(authConfig.getIdToken().getJwksRefreshMinutes()));
+    }
+    
+    @Bean
+    public OidcUserService idTokenOnlyUserService() {
+        OidcUserService userService = new OidcUserService();
+        userService.setRetrieveUserInfo(userRequest -> false);
+        return userService;
+    }
+    
+    private static RestClientAuthorizationCodeTokenResponseClient tokenResponseClient(OAuth2ProviderClients providerClients) {
+        // Same converters and error handling as Spring's default client, on the shared provider client
+        RestClient restClient = RestClient.builder()
+            .requestFactory(providerClients)
+            .requestInterceptor(providerClients)
+            .messageConverters(converters -> {
+                converters.clear();
+                converters.add(new FormHttpMessageConverter());
+                converters.add(new OAuth2AccessTokenResponseHttpMessageConverter());
+            })
+            .defaultStatusHandler(new OAuth2ErrorResponseErrorHandler())
+            .build();
+        RestClientAuthorizationCodeTokenResponseClient tokenResponseClient = new RestClientAuthorizationCodeTokenResponseClient();
+        tokenResponseClient.setRestClient(restClient);
+        return tokenResponseClient;
+    }
+    
+    private static DefaultOAuth2UserService userService(OAuth2ProviderClients providerClients) {
+        // Userinfo is still fetched for non-OIDC providers such as Facebook
+        RestTemplate restTemplate = new RestTemplate(providerClients);
+        restTemplate.setInterceptors(List.of(providerClients));
+        restTemplate.setErrorHandler(new OAuth2ErrorResponseErrorHandler());
+        DefaultOAuth2UserService userService = new DefaultOAuth2UserService();
+        userService.setRestOperations(restTemplate);
+        return userService;
+    }
+    
+    @Bean
+    public PasswordEncoder passwordEncoder(AuthConfig authConfig, MeterRegistry meterRegistry) {
+        // Hash on a dedicated bounded pool so credential bursts cannot starve request threads
+        AuthConfig.PasswordHashing hashing = authConfig.getPasswordHashing();
+        
+        int strength = hashing.getStrength();
+        if (strength <= 0) {
+            strength = BCryptWorkFactorCalibrator.calibrate(
+                Duration.ofMillis(hashing.getTargetHashMillis()),
+                hashing.getMinStrength(),
+                hashing.getMaxStrength()
+            );
+            logger.info("Calibrated BCrypt strength {} for a {} ms target", strength, hashing.getTargetHashMillis());
+        }
+        // Never hash below the floor, whether calibrated on slow hardware or configured
+        if (strength < hashing.getMinStrength()) {
+            logger.warn("BCrypt strength {} is below the minimum {}, using the minimum", strength, hashing.getMinStrength());
+            strength = hashing.getMinStrength();
+        }
+        
+        return new BoundedPasswordEncoder(
+            new AdaptivePasswordEncoder(strength),
+            hashing.resolveThreads(),
+            hashing.getQueueCapacity(),
+            hashing.getRetryAfterSeconds(),
+            meterRegistry
+        );
     }
     
     @Bean
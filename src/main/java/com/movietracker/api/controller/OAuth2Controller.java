@@ -1,13 +1,18 @@
 package com.movietracker.api.controller;
 
+import com.movietracker.api.exception.ServiceUnavailableException;
+import com.movietracker.api.security.LoginThrottle;
 import com.movietracker.api.service.OAuth2SessionService;
 import com.movietracker.api.service.PKCEService;
+import com.netflix.graphql.types.errors.ErrorDetail;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -23,6 +28,7 @@ public class OAuth2Controller {
 
     private final OAuth2SessionService sessionService;
     private final PKCEService pkceService;
+    private final LoginThrottle loginThrottle;
 
     @Value("${spring.security.oauth2.client.registration.google.client-id:}")
     private String googleClientId;
@@ -31,9 +37,11 @@ public class OAuth2Controller {
     private String apiBaseUrl;
 
     @Autowired
-    public OAuth2Controller(OAuth2SessionService sessionService, PKCEService pkceService) {
+    public OAuth2Controller(OAuth2SessionService sessionService, PKCEService pkceService,
+                            LoginThrottle loginThrottle) {
         this.sessionService = sessionService;
         this.pkceService = pkceService;
+        this.loginThrottle = loginThrottle;
     }
 
     /**
@@ -52,6 +60,9 @@ public class OAuth2Controller {
         System.out.println("PKCE service available: " + (pkceService != null));
         
         try {
+            // Limit sign-ins per client before a session takes a slot in the store
+            loginThrottle.acquireSignIn(request.getRemoteAddr());
+            
             // Generate PKCE parameters
             PKCEService.PKCEParams pkceParams = pkceService.generatePKCEParams();
             
@@ -80,6 +91,17 @@ public class OAuth2Controller {
             
             return ResponseEntity.ok(result);
 
+        } catch (ServiceUnavailableException e) {
+            // This client started too many sign-ins, or the session store is at capacity
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("provider", provider);
+            HttpStatus status = e.getErrorDetail() == ErrorDetail.Common.TOO_MANY_REQUESTS
+                    ? HttpStatus.TOO_MANY_REQUESTS
+                    : HttpStatus.SERVICE_UNAVAILABLE;
+            return ResponseEntity.status(status)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(error);
         } catch (Exception e) {
             System.err.println("=== RAILWAY OAUTH2 ERROR ===");
             System.err.println("Error: " + e.getMessage());
@@ -154,6 +176,10 @@ public class OAuth2Controller {
         Map<String, Object> result = new HashMap<>();
         result.put("success", true);
         result.put("user", sessionData.getUserData());
+        if (sessionData.getRefreshToken() != null) {
+            // Access tokens are short-lived; the client renews them with the refreshToken mutation
+            result.put("refreshToken", sessionData.getRefreshToken());
+        }
         
         return ResponseEntity.ok(result);
     }
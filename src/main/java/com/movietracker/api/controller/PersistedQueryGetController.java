@@ -0,0 +1,147 @@
+package com.movietracker.api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movietracker.api.graphql.CacheControlInstrumentation;
+import com.movietracker.api.graphql.CachePolicy;
+import com.movietracker.api.graphql.PersistedQueryManifest;
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import graphql.ExecutionResult;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.parser.Parser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP-cacheable execution of persisted queries over GET, using the Apollo GET form:
+ * {@code /graphql?operationName=...&variables={...}&extensions={"persistedQuery":{"version":1,"sha256Hash":"..."}}}.
+ *
+ * <p>Only operations in the persisted query manifest can be executed this way, and only
+ * queries, since GET requests must be safe to replay. The URL identifies the operation and
+ * its variables, so browsers and CDNs can cache the response: {@code Cache-Control} comes from
+ * the {@code @cacheControl} hints of the fields resolved (see
+ * {@link CacheControlInstrumentation}) and the {@code ETag} from the movies returned, so a
+ * revalidation after a movie changes gets a fresh body and otherwise a {@code 304}. Responses
+ * with a validator but no max-age (such as {@code myMoviesIfChanged}) are sent as
+ * {@code no-cache}, so every use is revalidated.
+ *
+ * <p>Everything else, including persisted queries registered at runtime, goes through the
+ * regular POST endpoint.
+ */
+@RestController
+public class PersistedQueryGetController {
+    
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+    
+    private final DgsQueryExecutor queryExecutor;
+    private final PersistedQueryManifest manifest;
+    private final ObjectMapper objectMapper;
+    
+    // Manifest hash -> whether the document contains only queries; bounded by the manifest
+    private final Map<String, Boolean> queryOnly = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public PersistedQueryGetController(DgsQueryExecutor queryExecutor, PersistedQueryManifest manifest,
+                                       ObjectMapper objectMapper) {
+        this.queryExecutor = queryExecutor;
+        this.manifest = manifest;
+        this.objectMapper = objectMapper;
+    }
+    
+    @GetMapping(path = "${dgs.graphql.path:/graphql}", params = "extensions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> execute(
+            @RequestParam(required = false) String operationName,
+            @RequestParam(required = false) String variables,
+            @RequestParam String extensions,
+            @RequestHeader HttpHeaders headers,
+            ServletWebRequest webRequest) {
+        Map<String, Object> extensionsMap;
+        Map<String, Object> variablesMap;
+        try {
+            extensionsMap = objectMapper.readValue(extensions, JSON_OBJECT);
+            variablesMap = variables == null || variables.isBlank()
+                ? Map.of() : objectMapper.readValue(variables, JSON_OBJECT);
+        } catch (JsonProcessingException e) {
+            return error(HttpStatus.BAD_REQUEST, "variables and extensions must be JSON objects");
+        }
+        
+        String hash = extensionsMap != null && extensionsMap.get("persistedQuery") instanceof Map<?, ?> persistedQuery
+            && persistedQuery.get("sha256Hash") instanceof String value ? value : null;
+        if (hash == null) {
+            return error(HttpStatus.BAD_REQUEST, "PersistedQueryRequired");
+        }
+        String query = manifest.get(hash);
+        if (query == null) {
+            return error(HttpStatus.NOT_FOUND, "PersistedQueryNotFound");
+        }
+        if (!queryOnly.computeIfAbsent(hash.toLowerCase(), key -> isQueryOnly(query))) {
+            return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED)
+                .allow(HttpMethod.POST)
+                .cacheControl(CacheControl.noStore())
+                .body(errors("Only queries can be executed with GET"));
+        }
+        
+        Map<String, Object> executionExtensions = new HashMap<>(extensionsMap);
+        executionExtensions.put(CacheControlInstrumentation.EXTENSION, true);
+        ExecutionResult result = queryExecutor.execute(
+            query, variablesMap, executionExtensions, headers, operationName, webRequest);
+        
+        Map<String, Object> body = new LinkedHashMap<>(result.toSpecification());
+        CachePolicy policy = takeCachePolicy(body);
+        if (!policy.cacheable() && !policy.revalidatable()) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+        }
+        CacheControl cacheControl = policy.cacheable()
+            ? CacheControl.maxAge(policy.maxAge(), TimeUnit.SECONDS) : CacheControl.noCache();
+        cacheControl = CachePolicy.PRIVATE.equals(policy.scope()) ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+        // A matching If-None-Match turns this into a 304 without a body
+        return ResponseEntity.ok().cacheControl(cacheControl).eTag(policy.etag()).body(body);
+    }
+    
+    private static CachePolicy takeCachePolicy(Map<String, Object> body) {
+        if (!(body.get("extensions") instanceof Map<?, ?> extensions)) {
+            return CachePolicy.NO_STORE;
+        }
+        Map<Object, Object> remaining = new LinkedHashMap<>(extensions);
+        Object policy = remaining.remove(CacheControlInstrumentation.EXTENSION);
+        if (remaining.isEmpty()) {
+            body.remove("extensions");
+        } else {
+            body.put("extensions", remaining);
+        }
+        return policy instanceof Map<?, ?> map ? CachePolicy.fromMap(map) : CachePolicy.NO_STORE;
+    }
+    
+    private static boolean isQueryOnly(String query) {
+        Document document = Parser.parse(query);
+        return document.getDefinitionsOfType(OperationDefinition.class).stream()
+            .allMatch(operation -> operation.getOperation() == OperationDefinition.Operation.QUERY);
+    }
+    
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).cacheControl(CacheControl.noStore()).body(errors(message));
+    }
+    
+    private static Map<String, Object> errors(String message) {
+        return Map.of("errors", List.of(Map.of("message", message)));
+    }
+}
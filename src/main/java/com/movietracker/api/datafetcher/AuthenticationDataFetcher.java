@@ -5,6 +5,8 @@ import com.movietracker.api.dto.AuthPayload;
 import com.movietracker.api.dto.LoginInput;
 import com.movietracker.api.dto.RegisterInput;
 import com.movietracker.api.exception.AuthenticationException;
+import com.movietracker.api.security.LoginThrottle;
+import com.movietracker.api.security.SecurityContextHelper;
 import com.movietracker.api.service.AuthenticationService;
 import com.netflix.graphql.dgs.DgsComponent;
 import com.netflix.graphql.dgs.DgsMutation;
@@ -12,18 +14,26 @@ import com.netflix.graphql.dgs.InputArgument;
 import com.netflix.graphql.types.errors.ErrorType;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 @DgsComponent
 public class AuthenticationDataFetcher {
     
     private final AuthenticationService authenticationService;
     private final AuthConfig authConfig;
+    private final SecurityContextHelper securityContextHelper;
+    private final LoginThrottle loginThrottle;
     
     @Autowired
     public AuthenticationDataFetcher(AuthenticationService authenticationService,
-                                   AuthConfig authConfig) {
+                                   AuthConfig authConfig,
+                                   SecurityContextHelper securityContextHelper,
+                                   LoginThrottle loginThrottle) {
         this.authenticationService = authenticationService;
         this.authConfig = authConfig;
+        this.securityContextHelper = securityContextHelper;
+        this.loginThrottle = loginThrottle;
     }
     
     @DgsMutation
@@ -36,6 +46,9 @@ public class AuthenticationDataFetcher {
             );
         }
         
+        // Throttle before any password hashing happens
+        loginThrottle.acquire(clientIp(), input.getEmail());
+        
         return authenticationService.register(input);
     }
     
@@ -49,6 +62,32 @@ public class AuthenticationDataFetcher {
             );
         }
         
+        // Throttle before any password hashing happens
+        loginThrottle.acquire(clientIp(), input.getEmail());
+        
         return authenticationService.login(input);
     }
+    
+    @DgsMutation
+    public AuthPayload refreshToken(@InputArgument String refreshToken) {
+        // Available to local and OAuth2 accounts alike
+        return authenticationService.refreshToken(refreshToken);
+    }
+    
+    @DgsMutation
+    public Boolean logout(@InputArgument String refreshToken) {
+        return authenticationService.logout(securityContextHelper.getCurrentPrincipal(), refreshToken);
+    }
+    
+    /**
+     * Remote address of the current HTTP request. Behind a proxy this is the address Tomcat
+     * resolved from {@code X-Forwarded-For}, trusting only hops from
+     * {@code server.tomcat.remoteip.internal-proxies}
+     */
+    private static String clientIp() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,215 @@
+package com.movietracker.api.datafetcher;
+
+import com.movietracker.api.dataloader.MovieDataLoader;
+import com.movietracker.api.dataloader.MovieSummaryDataLoader;
+import com.movietracker.api.dataloader.UserDataLoader;
+import com.movietracker.api.dto.UserMovieFilter;
+import com.movietracker.api.dto.UserMovieSort;
+import com.movietracker.api.dto.WatchHistoryCursor;
+import com.movietracker.api.dto.WatchHistorySnapshot;
+import com.movietracker.api.entity.Movie;
+import com.movietracker.api.entity.User;
+import com.movietracker.api.entity.UserMovie;
+import com.movietracker.api.exception.AuthenticationException;
+import com.movietracker.api.exception.InvalidInputException;
+import com.movietracker.api.graphql.CacheControlInstrumentation;
+import com.movietracker.api.repository.MovieRepository;
+import com.movietracker.api.security.SecurityContextHelper;
+import com.movietracker.api.service.WatchHistoryService;
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsData;
+import com.netflix.graphql.dgs.DgsDataFetchingEnvironment;
+import com.netflix.graphql.dgs.DgsQuery;
+import com.netflix.graphql.dgs.InputArgument;
+import com.netflix.graphql.types.errors.ErrorType;
+import graphql.relay.Connection;
+import graphql.relay.DefaultConnection;
+import graphql.relay.DefaultConnectionCursor;
+import graphql.relay.DefaultEdge;
+import graphql.relay.DefaultPageInfo;
+import graphql.relay.Edge;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolvers for movies and the current user's movie log.
+ *
+ * <p>{@code UserMovie.movie} and {@code UserMovie.user} go through the {@link MovieDataLoader}
+ * and {@link UserDataLoader} using the rows' foreign keys, so the lazy associations are never
+ * initialized one row at a time: {@code myMovies} costs one query for the log plus one per
+ * association, however many movies the user has logged.
+ *
+ * <p>{@code myMoviesConnection} pages the same history by keyset on
+ * {@code (dateWatched DESC, id DESC)}: each page is an index range scan starting right after
+ * the cursor, so its cost does not depend on how deep into the history it is.
+ *
+ * <p>{@code myMoviesIfChanged} is for pollers: a client presenting the current validator gets
+ * {@code unchanged} for the cost of one primary key lookup, without the rows being read.
+ *
+ * <p>Reads are driven by the selection set: watch-history rows only select the columns the
+ * query asks for, and movies are loaded without the plot summary unless it is selected.
+ */
+@DgsComponent
+public class MovieDataFetcher {
+    
+    static final int MAX_PAGE_SIZE = 100;
+    
+    private final WatchHistoryService watchHistoryService;
+    private final MovieRepository movieRepository;
+    private final SecurityContextHelper securityContextHelper;
+    
+    @Autowired
+    public MovieDataFetcher(WatchHistoryService watchHistoryService, MovieRepository movieRepository,
+                            SecurityContextHelper securityContextHelper) {
+        this.watchHistoryService = watchHistoryService;
+        this.movieRepository = movieRepository;
+        this.securityContextHelper = securityContextHelper;
+    }
+    
+    @DgsQuery
+    public List<UserMovie> myMovies(@InputArgument UserMovieFilter filter, @InputArgument UserMovieSort sort,
+                                    DgsDataFetchingEnvironment dfe) {
+        String userId = securityContextHelper.getCurrentUserId()
+            .orElseThrow(() -> new AuthenticationException(
+                "Authentication required",
+                ErrorType.UNAUTHENTICATED
+            ));
+        return watchHistoryService.find(userId, filter, sort, selectedFields(dfe.getSelectionSet(), "*"));
+    }
+    
+    @DgsQuery
+    public WatchHistorySnapshot myMoviesIfChanged(@InputArgument String ifNoneMatch,
+                                                  @InputArgument UserMovieFilter filter,
+                                                  @InputArgument UserMovieSort sort,
+                                                  @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                  String ifNoneMatchHeader,
+                                                  DgsDataFetchingEnvironment dfe) {
+        String userId = securityContextHelper.getCurrentUserId()
+            .orElseThrow(() -> new AuthenticationException(
+                "Authentication required",
+                ErrorType.UNAUTHENTICATED
+            ));
+        Map<String, Object> arguments = new HashMap<>(dfe.getArguments());
+        arguments.remove("ifNoneMatch");
+        String etag = watchHistoryService.validator(userId, arguments);
+        CacheControlInstrumentation.setValidator(dfe.getGraphQlContext(), etag);
+        
+        String condition = ifNoneMatch != null ? ifNoneMatch : ifNoneMatchHeader;
+        if (matches(condition, etag)) {
+            return WatchHistorySnapshot.unchanged(etag);
+        }
+        return WatchHistorySnapshot.changed(etag,
+            watchHistoryService.find(userId, filter, sort, selectedFields(dfe.getSelectionSet(), "movies/*")));
+    }
+    
+    @DgsQuery
+    public Connection<UserMovie> myMoviesConnection(@InputArgument Integer first, @InputArgument String after,
+                                                    DgsDataFetchingEnvironment dfe) {
+        String userId = securityContextHelper.getCurrentUserId()
+            .orElseThrow(() -> new AuthenticationException(
+                "Authentication required",
+                ErrorType.UNAUTHENTICATED
+            ));
+        int pageSize = first == null ? 20 : first;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("first must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        // One extra row tells whether another page follows
+        WatchHistoryCursor cursor = after == null ? null : WatchHistoryCursor.decode(after);
+        List<UserMovie> rows = watchHistoryService.page(
+            userId, cursor, pageSize + 1, selectedFields(dfe.getSelectionSet(), "edges/node/*"));
+        boolean hasNextPage = rows.size() > pageSize;
+        if (hasNextPage) {
+            rows = rows.subList(0, pageSize);
+        }
+        
+        List<Edge<UserMovie>> edges = new ArrayList<>(rows.size());
+        for (UserMovie row : rows) {
+            edges.add(new DefaultEdge<>(row, new DefaultConnectionCursor(WatchHistoryCursor.of(row).encode())));
+        }
+        DefaultPageInfo pageInfo = new DefaultPageInfo(
+            edges.isEmpty() ? null : edges.get(0).getCursor(),
+            edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor(),
+            after != null,
+            hasNextPage
+        );
+        return new DefaultConnection<>(edges, pageInfo);
+    }
+    
+    @DgsQuery
+    public CompletableFuture<Movie> movie(@InputArgument String id, DgsDataFetchingEnvironment dfe) {
+        return movieLoader(dfe).load(id);
+    }
+    
+    @DgsQuery
+    public CompletableFuture<List<Movie>> movies(@InputArgument List<String> ids, DgsDataFetchingEnvironment dfe) {
+        return movieLoader(dfe).loadMany(ids);
+    }
+    
+    @DgsQuery
+    public List<Movie> searchMovies(@InputArgument String query) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidInputException("query must not be blank");
+        }
+        return movieRepository.searchByTitleOrDirector(query.trim());
+    }
+    
+    @DgsData(parentType = "UserMovie", field = "movie")
+    public CompletableFuture<Movie> userMovieMovie(DgsDataFetchingEnvironment dfe) {
+        UserMovie userMovie = dfe.getSource();
+        return movieLoader(dfe).load(userMovie.getMovieId());
+    }
+    
+    @DgsData(parentType = "UserMovie", field = "user")
+    public CompletableFuture<User> userMovieUser(DgsDataFetchingEnvironment dfe) {
+        UserMovie userMovie = dfe.getSource();
+        DataLoader<String, User> users = dfe.getDataLoader(UserDataLoader.NAME);
+        return users.load(userMovie.getUserId());
+    }
+    
+    /**
+     * If-None-Match comparison: any listed tag equal to the current one, ignoring a weak
+     * prefix, or {@code *}
+     */
+    static boolean matches(String condition, String etag) {
+        if (condition == null || condition.isBlank()) {
+            return false;
+        }
+        for (String candidate : condition.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static DataLoader<String, Movie> movieLoader(DgsDataFetchingEnvironment dfe) {
+        boolean needsPlot = dfe.getSelectionSet().contains("plotSummary");
+        return dfe.getDataLoader(needsPlot ? MovieDataLoader.NAME : MovieSummaryDataLoader.NAME);
+    }
+    
+    private static Set<String> selectedFields(DataFetchingFieldSelectionSet selectionSet, String glob) {
+        Set<String> fields = new HashSet<>();
+        for (SelectedField field : selectionSet.getFields(glob)) {
+            fields.add(field.getName());
+        }
+        return fields;
+    }
+}
@@ -2,12 +2,17 @@ package com.movietracker.api.datafetcher;
 
 import com.movietracker.api.entity.User;
 import com.movietracker.api.exception.AuthenticationException;
+import com.movietracker.api.security.AuthenticatedUser;
 import com.movietracker.api.security.SecurityContextHelper;
 import com.netflix.graphql.dgs.DgsComponent;
 import com.netflix.graphql.dgs.DgsQuery;
 import com.netflix.graphql.types.errors.ErrorType;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.SelectedField;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Optional;
+
 @DgsComponent
 public class UserDataFetcher {
     
@@ -19,11 +24,26 @@ public class UserDataFetcher {
     }
     
     @DgsQuery
-    public User me() {
+    public User me(DataFetchingEnvironment dfe) {
+        // Serve id/email/username straight from the token claims when nothing else is selected
+        Optional<AuthenticatedUser> principal = securityContextHelper.getCurrentPrincipal();
+        if (principal.isPresent() && principal.get().hasCompleteClaims() && selectsOnlyTokenFields(dfe)) {
+            return principal.get().toUser();
+        }
+        
         return securityContextHelper.getCurrentUser()
             .orElseThrow(() -> new AuthenticationException(
                 "Authentication required", 
                 ErrorType.UNAUTHENTICATED
             ));
     }
+    
+    private boolean selectsOnlyTokenFields(DataFetchingEnvironment dfe) {
+        for (SelectedField field : dfe.getSelectionSet().getImmediateFields()) {
+            if (!field.getName().startsWith("__") && !AuthenticatedUser.TOKEN_FIELDS.contains(field.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,25 @@
+package com.movietracker.api.dataloader;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Meters shared by the batch loaders
+ */
+final class DataLoaderMetrics {
+    
+    private DataLoaderMetrics() {
+    }
+    
+    /**
+     * Keys per batch, as {@code graphql.dataloader.batch.size} tagged with the loader name.
+     * Batches of one under load mean the loader is being dispatched per row.
+     */
+    static DistributionSummary batchSize(MeterRegistry meterRegistry, String loader) {
+        return DistributionSummary.builder("graphql.dataloader.batch.size")
+            .tag("loader", loader)
+            .baseUnit("keys")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.movietracker.api.dataloader;
+
+import com.movietracker.api.entity.Movie;
+import com.movietracker.api.repository.MovieRepository;
+import com.netflix.graphql.dgs.DgsDataLoader;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.dataloader.MappedBatchLoader;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Batches {@link Movie} lookups by ID into a single {@code IN} query per request.
+ *
+ * <p>IDs with no matching movie are simply absent from the result, so the loader
+ * resolves them to {@code null}.
+ */
+@DgsDataLoader(name = MovieDataLoader.NAME)
+public class MovieDataLoader implements MappedBatchLoader<String, Movie> {
+    
+    public static final String NAME = "movies";
+    
+    private final MovieRepository movieRepository;
+    private final DistributionSummary batchSize;
+    
+    public MovieDataLoader(MovieRepository movieRepository, MeterRegistry meterRegistry) {
+        this.movieRepository = movieRepository;
+        this.batchSize = DataLoaderMetrics.batchSize(meterRegistry, NAME);
+    }
+    
+    @Override
+    public CompletionStage<Map<String, Movie>> load(Set<String> ids) {
+        batchSize.record(ids.size());
+        Map<String, Movie> moviesById = new HashMap<>();
+        for (Movie movie : movieRepository.findAllById(ids)) {
+            moviesById.put(movie.getId(), movie);
+        }
+        return CompletableFuture.completedFuture(moviesById);
+    }
+}
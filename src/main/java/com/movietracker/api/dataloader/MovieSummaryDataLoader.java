@@ -0,0 +1,45 @@
+package com.movietracker.api.dataloader;
+
+import com.movietracker.api.entity.Movie;
+import com.movietracker.api.repository.MovieRepository;
+import com.netflix.graphql.dgs.DgsDataLoader;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.dataloader.MappedBatchLoader;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Like {@link MovieDataLoader}, but without reading {@code plot_summary}.
+ *
+ * <p>Resolvers use this loader when the plot summary isn't selected. It is a separate loader
+ * rather than a flag on the key so that a summary never sits in the per-request cache where a
+ * full movie is expected.
+ */
+@DgsDataLoader(name = MovieSummaryDataLoader.NAME)
+public class MovieSummaryDataLoader implements MappedBatchLoader<String, Movie> {
+    
+    public static final String NAME = "movieSummaries";
+    
+    private final MovieRepository movieRepository;
+    private final DistributionSummary batchSize;
+    
+    public MovieSummaryDataLoader(MovieRepository movieRepository, MeterRegistry meterRegistry) {
+        this.movieRepository = movieRepository;
+        this.batchSize = DataLoaderMetrics.batchSize(meterRegistry, NAME);
+    }
+    
+    @Override
+    public CompletionStage<Map<String, Movie>> load(Set<String> ids) {
+        batchSize.record(ids.size());
+        Map<String, Movie> moviesById = new HashMap<>();
+        for (Movie movie : movieRepository.findSummariesByIdIn(ids)) {
+            moviesById.put(movie.getId(), movie);
+        }
+        return CompletableFuture.completedFuture(moviesById);
+    }
+}
@@ -0,0 +1,41 @@
+package com.movietracker.api.dataloader;
+
+import com.movietracker.api.entity.User;
+import com.movietracker.api.repository.UserRepository;
+import com.netflix.graphql.dgs.DgsDataLoader;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.dataloader.MappedBatchLoader;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Batches {@link User} lookups by ID into a single {@code IN} query per request
+ */
+@DgsDataLoader(name = UserDataLoader.NAME)
+public class UserDataLoader implements MappedBatchLoader<String, User> {
+    
+    public static final String NAME = "users";
+    
+    private final UserRepository userRepository;
+    private final DistributionSummary batchSize;
+    
+    public UserDataLoader(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.batchSize = DataLoaderMetrics.batchSize(meterRegistry, NAME);
+    }
+    
+    @Override
+    public CompletionStage<Map<String, User>> load(Set<String> ids) {
+        batchSize.record(ids.size());
+        Map<String, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            usersById.put(user.getId(), user);
+        }
+        return CompletableFuture.completedFuture(usersById);
+    }
+}
@@ -0,0 +1,6 @@
+package com.movietracker.api.dto;
+
+public enum SortDirection {
+    ASC,
+    DESC
+}
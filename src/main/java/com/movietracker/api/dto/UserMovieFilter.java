@@ -0,0 +1,86 @@
+package com.movietracker.api.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Watch-history filter; unset fields don't constrain the result and bounds are inclusive
+ */
+public class UserMovieFilter {
+    
+    private OffsetDateTime watchedFrom;
+    private OffsetDateTime watchedTo;
+    private String genre;
+    private Integer minRating;
+    private Integer maxRating;
+    private String theater;
+    private Double minPrice;
+    private Double maxPrice;
+    
+    // Constructors
+    public UserMovieFilter() {}
+    
+    // Getters and Setters
+    public OffsetDateTime getWatchedFrom() {
+        return watchedFrom;
+    }
+    
+    public void setWatchedFrom(OffsetDateTime watchedFrom) {
+        this.watchedFrom = watchedFrom;
+    }
+    
+    public OffsetDateTime getWatchedTo() {
+        return watchedTo;
+    }
+    
+    public void setWatchedTo(OffsetDateTime watchedTo) {
+        this.watchedTo = watchedTo;
+    }
+    
+    public String getGenre() {
+        return genre;
+    }
+    
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+    
+    public Integer getMinRating() {
+        return minRating;
+    }
+    
+    public void setMinRating(Integer minRating) {
+        this.minRating = minRating;
+    }
+    
+    public Integer getMaxRating() {
+        return maxRating;
+    }
+    
+    public void setMaxRating(Integer maxRating) {
+        this.maxRating = maxRating;
+    }
+    
+    public String getTheater() {
+        return theater;
+    }
+    
+    public void setTheater(String theater) {
+        this.theater = theater;
+    }
+    
+    public Double getMinPrice() {
+        return minPrice;
+    }
+    
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+    
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+}
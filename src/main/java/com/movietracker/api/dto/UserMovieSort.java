@@ -0,0 +1,32 @@
+package com.movietracker.api.dto;
+
+public class UserMovieSort {
+    
+    private UserMovieSortField field = UserMovieSortField.DATE_WATCHED;
+    private SortDirection direction = SortDirection.DESC;
+    
+    // Constructors
+    public UserMovieSort() {}
+    
+    public UserMovieSort(UserMovieSortField field, SortDirection direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+    
+    // Getters and Setters
+    public UserMovieSortField getField() {
+        return field;
+    }
+    
+    public void setField(UserMovieSortField field) {
+        this.field = field;
+    }
+    
+    public SortDirection getDirection() {
+        return direction;
+    }
+    
+    public void setDirection(SortDirection direction) {
+        this.direction = direction;
+    }
+}
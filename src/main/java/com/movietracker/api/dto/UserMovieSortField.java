@@ -0,0 +1,8 @@
+package com.movietracker.api.dto;
+
+public enum UserMovieSortField {
+    DATE_WATCHED,
+    PERSONAL_RATING,
+    TICKET_PRICE,
+    TITLE
+}
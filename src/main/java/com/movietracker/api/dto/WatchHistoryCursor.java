@@ -0,0 +1,44 @@
+package com.movietracker.api.dto;
+
+import com.movietracker.api.entity.UserMovie;
+import com.movietracker.api.exception.InvalidInputException;
+import com.movietracker.api.util.Base64Url;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Position in a user's watch history: the {@code (dateWatched, id)} sort key of the last
+ * row a client has seen.
+ *
+ * <p>Clients only ever see the opaque base64url form, so the key layout can change without
+ * breaking them; a cursor that doesn't decode is rejected as invalid input.
+ */
+public record WatchHistoryCursor(LocalDate dateWatched, String id) {
+    
+    private static final String VERSION = "v1";
+    
+    public static WatchHistoryCursor of(UserMovie userMovie) {
+        return new WatchHistoryCursor(userMovie.getDateWatched(), userMovie.getId());
+    }
+    
+    public String encode() {
+        String key = VERSION + ":" + dateWatched.toEpochDay() + ":" + id;
+        return Base64Url.encode(key.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static WatchHistoryCursor decode(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(":", 3);
+            if (parts.length != 3 || !VERSION.equals(parts[0]) || parts[2].isEmpty()) {
+                throw new InvalidInputException("Invalid cursor");
+            }
+            return new WatchHistoryCursor(LocalDate.ofEpochDay(Long.parseLong(parts[1])), parts[2]);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidInputException("Invalid cursor", e);
+        }
+    }
+}
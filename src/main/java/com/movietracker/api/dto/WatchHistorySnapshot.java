@@ -0,0 +1,20 @@
+package com.movietracker.api.dto;
+
+import com.movietracker.api.entity.UserMovie;
+
+import java.util.List;
+
+/**
+ * Conditional watch-history read: the rows and their validator, or just the validator and
+ * {@code unchanged} when the client already holds the current rows.
+ */
+public record WatchHistorySnapshot(String etag, boolean unchanged, List<UserMovie> movies) {
+    
+    public static WatchHistorySnapshot changed(String etag, List<UserMovie> movies) {
+        return new WatchHistorySnapshot(etag, false, movies);
+    }
+    
+    public static WatchHistorySnapshot unchanged(String etag) {
+        return new WatchHistorySnapshot(etag, true, null);
+    }
+}
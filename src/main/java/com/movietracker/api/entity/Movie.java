@@ -44,6 +44,24 @@ public class Movie {
         this.title = title;
     }
     
+    /**
+     * Detached, read-only copy without the plot summary, for reads that don't select it
+     */
+    public Movie(String id, String title, Integer releaseYear, String genre, String rating,
+                 Integer runtimeMinutes, String director, String posterUrl,
+                 LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.releaseYear = releaseYear;
+        this.genre = genre;
+        this.rating = rating;
+        this.runtimeMinutes = runtimeMinutes;
+        this.director = director;
+        this.posterUrl = posterUrl;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
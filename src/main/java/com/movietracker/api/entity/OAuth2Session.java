@@ -0,0 +1,96 @@
+package com.movietracker.api.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Schema of the {@code oauth2_sessions} table used when
+ * {@code app.oauth2.session-store.type=jdbc}. Rows are read and written with plain SQL by
+ * {@link com.movietracker.api.service.JdbcOAuth2SessionStore}, which relies on
+ * delete-returning statements and an optimistic update of {@code version}.
+ */
+@Entity
+@Table(name = "oauth2_sessions", indexes = {
+    @Index(name = "idx_oauth2_sessions_expires_at", columnList = "expires_at")
+})
+public class OAuth2Session {
+    
+    @Id
+    @Column(length = 64)
+    private String sessionId;
+    
+    @Column(nullable = false, length = 512)
+    private String state;
+    
+    @Column(length = 256)
+    private String codeVerifier;
+    
+    @Column(length = 32)
+    private String provider;
+    
+    // Epoch millis
+    @Column(nullable = false)
+    private long createdAt;
+    
+    @Column(nullable = false)
+    private long expiresAt;
+    
+    // Compared and bumped by the store itself, not by JPA optimistic locking. The default
+    // lets ddl-auto add the column to tables created before versioning existed
+    @Column(nullable = false, columnDefinition = "integer default 0 not null")
+    private int version;
+    
+    @Column(length = 64)
+    private String userId;
+    
+    @Column(length = 4096)
+    private String token;
+    
+    @Column(length = 4096)
+    private String refreshToken;
+    
+    @Column(length = 2048)
+    private String userData;
+    
+    @Column(nullable = false)
+    private boolean authenticated;
+    
+    // Constructors
+    public OAuth2Session() {}
+    
+    // Getters and Setters
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+    
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    
+    public String getCodeVerifier() { return codeVerifier; }
+    public void setCodeVerifier(String codeVerifier) { this.codeVerifier = codeVerifier; }
+    
+    public String getProvider() { return provider; }
+    public void setProvider(String provider) { this.provider = provider; }
+    
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+    
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+    
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    
+    public String getUserData() { return userData; }
+    public void setUserData(String userData) { this.userData = userData; }
+    
+    public boolean isAuthenticated() { return authenticated; }
+    public void setAuthenticated(boolean authenticated) { this.authenticated = authenticated; }
+}
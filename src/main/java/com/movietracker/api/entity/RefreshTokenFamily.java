@@ -0,0 +1,52 @@
+package com.movietracker.api.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Schema of the {@code refresh_token_families} table. Rows are read and written with plain
+ * SQL by {@link com.movietracker.api.service.RefreshTokenFamilyStore}, whose single-statement
+ * updates are what make a refresh token usable only once.
+ */
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+    @Index(name = "idx_refresh_token_families_expires_at", columnList = "expires_at")
+})
+public class RefreshTokenFamily {
+    
+    @Id
+    @Column(length = 64)
+    private String familyId;
+    
+    @Column(nullable = false, length = 64)
+    private String userId;
+    
+    // The one token ID that may still be exchanged; null while a rotation is in flight
+    @Column(length = 64)
+    private String currentTokenId;
+    
+    // Epoch millis
+    @Column(nullable = false)
+    private long expiresAt;
+    
+    @Column(nullable = false)
+    private boolean revoked;
+    
+    // Constructors
+    public RefreshTokenFamily() {}
+    
+    // Getters and Setters
+    public String getFamilyId() { return familyId; }
+    public void setFamilyId(String familyId) { this.familyId = familyId; }
+    
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    
+    public String getCurrentTokenId() { return currentTokenId; }
+    public void setCurrentTokenId(String currentTokenId) { this.currentTokenId = currentTokenId; }
+    
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+    
+    public boolean isRevoked() { return revoked; }
+    public void setRevoked(boolean revoked) { this.revoked = revoked; }
+}
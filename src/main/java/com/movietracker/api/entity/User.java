@@ -9,7 +9,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_provider_identity", columnList = "provider, provider_id")
+})
 public class User {
     
     @Id
@@ -45,6 +47,12 @@ public class User {
     private String provider; // google, github, etc.
     private String providerId; // OAuth2 provider user ID
     
+    // Bumped in the database by every write to the user's user_movies rows (see
+    // WatchHistoryVersionListener); never written from this entity
+    @Column(name = "watch_history_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0 not null")
+    private Long watchHistoryVersion;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<UserMovie> userMovies = new ArrayList<>();
     
@@ -99,6 +107,8 @@ public class User {
     public LocalDateTime getLastLogin() { return lastLogin; }
     public void setLastLogin(LocalDateTime lastLogin) { this.lastLogin = lastLogin; }
     
+    public Long getWatchHistoryVersion() { return watchHistoryVersion; }
+    
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
     
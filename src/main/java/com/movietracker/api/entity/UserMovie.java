@@ -9,7 +9,12 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "user_movies")
+@Table(name = "user_movies", indexes = {
+    @Index(name = "idx_user_movies_user_watched", columnList = "user_id, date_watched DESC, id DESC"),
+    @Index(name = "idx_user_movies_user_theater", columnList = "user_id, theater"),
+    @Index(name = "idx_user_movies_user_rating", columnList = "user_id, personal_rating"),
+    @Index(name = "idx_user_movies_user_price", columnList = "user_id, ticket_price")
+})
 public class UserMovie {
     
     @Id
@@ -24,6 +29,13 @@ public class UserMovie {
     @JoinColumn(name = "movie_id", nullable = false)
     private Movie movie;
     
+    // Read-only foreign keys, so resolvers can batch-load the associations without initializing the proxies
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private String userId;
+    
+    @Column(name = "movie_id", insertable = false, updatable = false)
+    private String movieId;
+    
     // Ticket information
     private String theater;
     private String seatAssignment;
@@ -64,8 +76,19 @@ public class UserMovie {
     
     public UserMovie(User user, Movie movie, LocalDate dateWatched) {
         this();
-        this.user = user;
-        this.movie = movie;
+        setUser(user);
+        setMovie(movie);
+        this.dateWatched = dateWatched;
+    }
+    
+    /**
+     * Detached, read-only row for column projections: only the keys are set here, and the
+     * caller fills in whichever other columns it selected
+     */
+    public UserMovie(String id, String userId, String movieId, LocalDate dateWatched) {
+        this.id = id;
+        this.userId = userId;
+        this.movieId = movieId;
         this.dateWatched = dateWatched;
     }
     
@@ -74,10 +97,27 @@ public class UserMovie {
     public void setId(String id) { this.id = id; }
     
     public User getUser() { return user; }
-    public void setUser(User user) { this.user = user; }
+    public void setUser(User user) {
+        this.user = user;
+        this.userId = user != null ? user.getId() : null;
+    }
     
     public Movie getMovie() { return movie; }
-    public void setMovie(Movie movie) { this.movie = movie; }
+    public void setMovie(Movie movie) {
+        this.movie = movie;
+        this.movieId = movie != null ? movie.getId() : null;
+    }
+    
+    public String getUserId() { return userId; }
+    public String getMovieId() { return movieId; }
+    
+    public String getTheater() { return theater; }
+    public void setTheater(String theater) { this.theater = theater; }
+    
+    public String getSeatAssignment() { return seatAssignment; }
+    public void setSeatAssignment(String seatAssignment) { this.seatAssignment = seatAssignment; }
+    
+    public LocalDate getDateWatched() { return dateWatched; }
     public void setDateWatched(LocalDate dateWatched) { this.dateWatched = dateWatched; }
     
     public LocalTime getShowtime() { return showtime; }
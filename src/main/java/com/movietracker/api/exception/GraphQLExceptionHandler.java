@@ -1,7 +1,11 @@
 package com.movietracker.api.exception;
 
 import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.exceptions.DefaultDataFetcherExceptionHandler;
 import com.netflix.graphql.types.errors.TypedGraphQLError;
+import graphql.execution.DataFetcherExceptionHandler;
+import graphql.execution.DataFetcherExceptionHandlerParameters;
+import graphql.execution.DataFetcherExceptionHandlerResult;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -9,10 +13,46 @@ import graphql.schema.DataFetchingEnvironment;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @DgsComponent
-public class GraphQLExceptionHandler {
+public class GraphQLExceptionHandler implements DataFetcherExceptionHandler {
+
+    private final DefaultDataFetcherExceptionHandler defaultHandler = new DefaultDataFetcherExceptionHandler();
+
+    @Override
+    public CompletableFuture<DataFetcherExceptionHandlerResult> handleException(
+            DataFetcherExceptionHandlerParameters handlerParameters) {
+        Throwable exception = handlerParameters.getException();
+        if (exception instanceof CompletionException && exception.getCause() != null) {
+            exception = exception.getCause();
+        }
+        
+        TypedGraphQLError error;
+        if (exception instanceof AuthenticationException ex) {
+            error = handle(ex);
+        } else if (exception instanceof ServiceUnavailableException ex) {
+            error = handle(ex);
+        } else if (exception instanceof InvalidInputException ex) {
+            error = handle(ex);
+        } else if (exception instanceof ConstraintViolationException ex) {
+            error = handle(ex);
+        } else if (exception instanceof BindException ex) {
+            error = handle(ex);
+        } else if (exception instanceof DataIntegrityViolationException ex) {
+            error = handle(ex);
+        } else {
+            return defaultHandler.handleException(handlerParameters);
+        }
+        
+        return CompletableFuture.completedFuture(
+            DataFetcherExceptionHandlerResult.newResult().error(error).build()
+        );
+    }
 
     public TypedGraphQLError handle(AuthenticationException ex) {
         return TypedGraphQLError.newBuilder()
@@ -21,6 +61,25 @@ public class GraphQLExceptionHandler {
                 .build();
     }
 
+    public TypedGraphQLError handle(ServiceUnavailableException ex) {
+        Map<String, Object> extensions = new HashMap<>();
+        extensions.put("retryable", true);
+        extensions.put("retryAfterSeconds", ex.getRetryAfterSeconds());
+        
+        return TypedGraphQLError.newBuilder()
+                .message(ex.getMessage())
+                .errorDetail(ex.getErrorDetail())
+                .extensions(extensions)
+                .build();
+    }
+
+    public TypedGraphQLError handle(InvalidInputException ex) {
+        return TypedGraphQLError.newBuilder()
+                .message(ex.getMessage())
+                .errorType(com.netflix.graphql.types.errors.ErrorType.BAD_REQUEST)
+                .build();
+    }
+
     public TypedGraphQLError handle(ConstraintViolationException ex) {
         String message = ex.getConstraintViolations()
                 .stream()
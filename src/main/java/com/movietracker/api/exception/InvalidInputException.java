@@ -0,0 +1,15 @@
+package com.movietracker.api.exception;
+
+/**
+ * Rejects a client-supplied argument, e.g. a malformed cursor or an out-of-range page size
+ */
+public class InvalidInputException extends RuntimeException {
+    
+    public InvalidInputException(String message) {
+        super(message);
+    }
+    
+    public InvalidInputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
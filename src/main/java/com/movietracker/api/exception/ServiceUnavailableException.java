@@ -0,0 +1,29 @@
+package com.movietracker.api.exception;
+
+import com.netflix.graphql.types.errors.ErrorDetail;
+
+/**
+ * Signals that a request was shed because a bounded resource is saturated.
+ * 
+ * <p>The failure is transient: clients may retry the same operation after
+ * {@link #getRetryAfterSeconds()} seconds.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    
+    private final ErrorDetail errorDetail;
+    private final long retryAfterSeconds;
+    
+    public ServiceUnavailableException(String message, ErrorDetail errorDetail, long retryAfterSeconds) {
+        super(message);
+        this.errorDetail = errorDetail;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public ErrorDetail getErrorDetail() {
+        return errorDetail;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,187 @@
+package com.movietracker.api.graphql;
+
+import com.movietracker.api.entity.Movie;
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Computes the {@link CachePolicy} of a response from the {@code @cacheControl} hints of the
+ * fields it resolved, and an ETag from the {@code updatedAt} of every {@link Movie} in it.
+ *
+ * <p>Fetchers can add a validator of their own with {@link #setValidator}. Responses that may
+ * not be stored are then still given an ETag, and must be revalidated on every use.
+ *
+ * <p>A field's hint comes from its own directive, else from the directive on the object type
+ * it returns. Fields returning scalars or enums inherit their parent's policy, while root
+ * fields and object fields without a hint make the response uncacheable, as does any error.
+ *
+ * <p>Only executions that ask for it, with a {@value #EXTENSION} request extension, are
+ * tracked; their result then carries the policy under the same extension key.
+ */
+public class CacheControlInstrumentation extends SimplePerformantInstrumentation {
+    
+    public static final String EXTENSION = "cacheControl";
+    
+    private static final String DIRECTIVE = "cacheControl";
+    private static final String VALIDATOR = CacheControlInstrumentation.class.getName() + ".validator";
+    
+    /**
+     * Supply a validator for data the movie timestamps don't cover, e.g. a change version.
+     * It becomes part of the ETag; a response that may not be stored still gets one, so it can
+     * be revalidated.
+     */
+    public static void setValidator(GraphQLContext context, String validator) {
+        context.compute(VALIDATOR, (key, previous) -> previous == null ? validator : previous + "," + validator);
+    }
+    
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        Map<String, Object> extensions = parameters.getExecutionInput().getExtensions();
+        return extensions != null && extensions.containsKey(EXTENSION) ? new PolicyState() : null;
+    }
+    
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        if (!(state instanceof PolicyState policy)) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        GraphQLFieldDefinition field = parameters.getField();
+        boolean root = parameters.getExecutionStepInfo().getPath().getLevel() == 1;
+        policy.restrict(hint(field, root));
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) -> {
+            if (throwable != null) {
+                policy.restrict(new Hint(0, false));
+            } else {
+                policy.collect(value);
+            }
+        });
+    }
+    
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        if (!(state instanceof PolicyState policy)) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        String validator = parameters.getExecutionInput().getGraphQLContext().get(VALIDATOR);
+        CachePolicy cachePolicy = executionResult.getErrors().isEmpty()
+            ? policy.toCachePolicy(validator) : CachePolicy.NO_STORE;
+        Map<Object, Object> extensions = new HashMap<>();
+        if (executionResult.getExtensions() != null) {
+            extensions.putAll(executionResult.getExtensions());
+        }
+        extensions.put(EXTENSION, cachePolicy.toMap());
+        return CompletableFuture.completedFuture(executionResult.transform(result -> result.extensions(extensions)));
+    }
+    
+    /**
+     * The hint for one field; {@code null} when it inherits from its parent
+     */
+    static Hint hint(GraphQLFieldDefinition field, boolean root) {
+        Hint own = Hint.of(field.getAppliedDirective(DIRECTIVE));
+        if (own != null) {
+            return own;
+        }
+        GraphQLType type = GraphQLTypeUtil.unwrapAll(field.getType());
+        if (type instanceof GraphQLObjectType objectType) {
+            Hint typeHint = Hint.of(objectType.getAppliedDirective(DIRECTIVE));
+            return typeHint != null ? typeHint : new Hint(0, false);
+        }
+        return root ? new Hint(0, false) : null;
+    }
+    
+    record Hint(int maxAge, boolean privateScope) {
+        
+        static Hint of(GraphQLAppliedDirective directive) {
+            if (directive == null) {
+                return null;
+            }
+            Integer maxAge = directive.getArgument("maxAge").getValue();
+            Object scope = directive.getArgument("scope").getValue();
+            return new Hint(maxAge != null ? maxAge : 0, CachePolicy.PRIVATE.equals(String.valueOf(scope)));
+        }
+    }
+    
+    private static final class PolicyState implements InstrumentationState {
+        
+        // Movie ID -> updatedAt; sorted so the ETag doesn't depend on resolution order
+        private final Map<String, String> movies = new ConcurrentSkipListMap<>();
+        private int maxAge = Integer.MAX_VALUE;
+        private boolean privateScope;
+        
+        synchronized void restrict(Hint hint) {
+            if (hint != null) {
+                maxAge = Math.min(maxAge, hint.maxAge());
+                privateScope |= hint.privateScope();
+            }
+        }
+        
+        void collect(Object value) {
+            if (value instanceof DataFetcherResult<?> result) {
+                collect(result.getData());
+            } else if (value instanceof Movie movie) {
+                LocalDateTime updatedAt = movie.getUpdatedAt();
+                movies.put(movie.getId(), updatedAt != null ? updatedAt.toString() : "");
+            } else if (value instanceof Iterable<?> items) {
+                items.forEach(this::collect);
+            }
+        }
+        
+        synchronized CachePolicy toCachePolicy(String validator) {
+            String scope = privateScope ? CachePolicy.PRIVATE : CachePolicy.PUBLIC;
+            if (maxAge != Integer.MAX_VALUE && maxAge > 0) {
+                return new CachePolicy(maxAge, scope, etag(validator));
+            }
+            if (validator != null) {
+                // A single supplied validator is used as is, so clients can compare it with their own
+                return new CachePolicy(0, scope, validator.contains(",") ? etag(validator) : validator);
+            }
+            return CachePolicy.NO_STORE;
+        }
+        
+        private String etag(String validator) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                if (validator != null) {
+                    digest.update(validator.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) '|');
+                }
+                movies.forEach((id, updatedAt) -> {
+                    digest.update(id.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) '@');
+                    digest.update(updatedAt.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) ';');
+                });
+                // 128 bits are plenty to tell representations of the same URL apart
+                return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
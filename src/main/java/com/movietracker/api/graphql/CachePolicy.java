@@ -0,0 +1,48 @@
+package com.movietracker.api.graphql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP cache policy computed for one GraphQL response
+ *
+ * @param maxAge seconds the response may be reused; 0 means it must be revalidated before
+ *               every use if it has an ETag, and not stored at all otherwise
+ * @param scope  {@code PUBLIC} (shared caches) or {@code PRIVATE} (the caller's own cache)
+ * @param etag   strong validator for the response, or {@code null} when it has none
+ */
+public record CachePolicy(int maxAge, String scope, String etag) {
+    
+    public static final String PUBLIC = "PUBLIC";
+    public static final String PRIVATE = "PRIVATE";
+    
+    public static final CachePolicy NO_STORE = new CachePolicy(0, PUBLIC, null);
+    
+    public boolean cacheable() {
+        return maxAge > 0;
+    }
+    
+    public boolean revalidatable() {
+        return etag != null;
+    }
+    
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("maxAge", maxAge);
+        map.put("scope", scope);
+        if (etag != null) {
+            map.put("etag", etag);
+        }
+        return map;
+    }
+    
+    public static CachePolicy fromMap(Map<?, ?> map) {
+        if (map == null || !(map.get("maxAge") instanceof Number maxAge)) {
+            return NO_STORE;
+        }
+        Object scope = map.get("scope");
+        Object etag = map.get("etag");
+        return new CachePolicy(maxAge.intValue(), scope != null ? scope.toString() : PUBLIC,
+            etag != null ? etag.toString() : null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.movietracker.api.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static query cost: every field costs 1 plus its selections, and a list field multiplies
+ * the cost of its selections by the number of items it is expected to return.
+ *
+ * <p>The expected size is, in order of preference:
+ * <ol>
+ *   <li>a {@code first} argument, or the parent's {@code first} for a connection's {@code edges}</li>
+ *   <li>the length of an {@code ids} argument</li>
+ *   <li>a configured hint for the field, keyed {@code Type.field}</li>
+ *   <li>the default list size</li>
+ * </ol>
+ * Introspection is free, so tooling is only bounded by the depth limit.
+ */
+public class ListSizeComplexityCalculator implements FieldComplexityCalculator {
+    
+    private final Map<String, Integer> listSizeHints;
+    private final int defaultListSize;
+    
+    public ListSizeComplexityCalculator(Map<String, Integer> listSizeHints, int defaultListSize) {
+        this.listSizeHints = Map.copyOf(listSizeHints);
+        this.defaultListSize = defaultListSize;
+    }
+    
+    @Override
+    public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+        if (environment.getField().getName().startsWith("__")
+                || environment.getParentType().getName().startsWith("__")) {
+            return 0;
+        }
+        if (!GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType()))) {
+            return saturate(1L + childComplexity);
+        }
+        return saturate(1L + (long) listSize(environment) * Math.max(childComplexity, 1));
+    }
+    
+    int listSize(FieldComplexityEnvironment environment) {
+        Integer first = intArgument(environment.getArguments(), "first");
+        if (first == null && "edges".equals(environment.getField().getName())
+                && environment.getParentEnvironment() != null) {
+            first = intArgument(environment.getParentEnvironment().getArguments(), "first");
+        }
+        if (first != null) {
+            return Math.max(first, 0);
+        }
+        if (environment.getArguments().get("ids") instanceof List<?> ids) {
+            return ids.size();
+        }
+        String key = environment.getParentType().getName() + "." + environment.getField().getName();
+        return listSizeHints.getOrDefault(key, defaultListSize);
+    }
+    
+    private static Integer intArgument(Map<String, Object> arguments, String name) {
+        return arguments.get(name) instanceof Number value ? value.intValue() : null;
+    }
+    
+    private static int saturate(long cost) {
+        return (int) Math.min(cost, Integer.MAX_VALUE);
+    }
+}
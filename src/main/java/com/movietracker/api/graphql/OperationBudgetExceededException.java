@@ -0,0 +1,44 @@
+package com.movietracker.api.graphql;
+
+import com.netflix.graphql.types.errors.ErrorDetail;
+import graphql.ErrorClassification;
+import graphql.execution.AbortExecutionException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aborts an operation whose caller has exhausted a budget.
+ *
+ * <p>Reported like other shed requests: {@code TOO_MANY_REQUESTS}, retryable after
+ * {@code retryAfterSeconds}, plus the budget's state under {@code rateLimit}.
+ */
+public class OperationBudgetExceededException extends AbortExecutionException {
+    
+    private final RateLimitStatus status;
+    
+    public OperationBudgetExceededException(RateLimitStatus status) {
+        super("Request budget exceeded, please try again later");
+        this.status = status;
+    }
+    
+    public RateLimitStatus getStatus() {
+        return status;
+    }
+    
+    @Override
+    public ErrorClassification getErrorType() {
+        return ErrorDetail.Common.TOO_MANY_REQUESTS;
+    }
+    
+    @Override
+    public Map<String, Object> getExtensions() {
+        Map<String, Object> extensions = new HashMap<>();
+        extensions.put("errorType", ErrorDetail.Common.TOO_MANY_REQUESTS.getErrorType().name());
+        extensions.put("errorDetail", ErrorDetail.Common.TOO_MANY_REQUESTS.name());
+        extensions.put("retryable", true);
+        extensions.put("retryAfterSeconds", status.retryAfterSeconds());
+        extensions.put("rateLimit", status.toMap());
+        return extensions;
+    }
+}
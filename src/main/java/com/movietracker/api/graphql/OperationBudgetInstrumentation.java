@@ -0,0 +1,117 @@
+package com.movietracker.api.graphql;
+
+import com.movietracker.api.security.AuthenticatedUser;
+import com.movietracker.api.security.SecurityContextHelper;
+import com.movietracker.api.util.StripedTokenBucket;
+import graphql.ExecutionResult;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters each authenticated caller's share of the executor in units of static query cost
+ * ({@link ListSizeComplexityCalculator}), so a client looping on an expensive query runs out
+ * of budget long before one issuing a few cheap ones.
+ *
+ * <p>Every operation is charged against two {@link StripedTokenBucket}s: one per access token
+ * (a single misbehaving device) and a larger one per user (all of the user's devices together).
+ * Both have fixed memory however many users are seen. An operation costing more than a
+ * bucket's capacity is charged the whole capacity. An operation rejected by the user budget
+ * gets its token charge refunded, so rejected retries only drain the budget that rejected
+ * them. Anonymous operations are not metered. The cost is shared with
+ * {@link QueryCostLimitInstrumentation} through {@link OperationCost}.
+ *
+ * <p>An exhausted budget aborts the operation before any data fetcher runs, with an
+ * {@link OperationBudgetExceededException} carrying the limit and retry delay in its extensions.
+ * The outcome is also put in the GraphQL context as a {@link RateLimitStatus}, from which
+ * {@link RateLimitHeaderInterceptor} sets the HTTP rate-limit headers.
+ *
+ * <p>Rejections are counted as {@code graphql.budget.rejected}, tagged with the exhausted budget.
+ */
+public class OperationBudgetInstrumentation extends SimplePerformantInstrumentation {
+    
+    private final SecurityContextHelper securityContextHelper;
+    private final FieldComplexityCalculator calculator;
+    private final StripedTokenBucket userBuckets;
+    private final StripedTokenBucket tokenBuckets;
+    private final Counter userRejected;
+    private final Counter tokenRejected;
+    
+    public OperationBudgetInstrumentation(SecurityContextHelper securityContextHelper,
+                                          FieldComplexityCalculator calculator,
+                                          StripedTokenBucket userBuckets,
+                                          StripedTokenBucket tokenBuckets,
+                                          MeterRegistry meterRegistry) {
+        this.securityContextHelper = securityContextHelper;
+        this.calculator = calculator;
+        this.userBuckets = userBuckets;
+        this.tokenBuckets = tokenBuckets;
+        this.userRejected = rejectedCounter(meterRegistry, "user");
+        this.tokenRejected = rejectedCounter(meterRegistry, "token");
+    }
+    
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        Optional<AuthenticatedUser> principal = securityContextHelper.getCurrentPrincipal();
+        if (principal.isEmpty()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        long cost = Math.max(1, OperationCost.of(executionContext, calculator));
+        
+        AuthenticatedUser user = principal.get();
+        String tokenKey = user.getTokenId() != null ? "t:" + user.getTokenId() : null;
+        RateLimitStatus status = null;
+        if (tokenKey != null) {
+            status = charge(tokenBuckets, tokenKey, cost, "token", tokenRejected);
+        }
+        if (status == null || !status.exceeded()) {
+            String userKey = user.getUserId() != null ? user.getUserId() : user.getName();
+            RateLimitStatus userStatus = charge(userBuckets, "u:" + userKey, cost, "user", userRejected);
+            if (userStatus.exceeded() && tokenKey != null) {
+                // The operation will not run; give back what the token budget was charged
+                tokenBuckets.release(tokenKey, permits(tokenBuckets, cost));
+            }
+            // Report whichever budget is closer to running out
+            if (status == null || userStatus.exceeded() || userStatus.remaining() < status.remaining()) {
+                status = userStatus;
+            }
+        }
+        RateLimitStatus.put(executionContext.getGraphQLContext(), status);
+        if (status.exceeded()) {
+            throw new OperationBudgetExceededException(status);
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+    
+    private static long permits(StripedTokenBucket buckets, long cost) {
+        return Math.min(cost, buckets.capacity());
+    }
+    
+    private static RateLimitStatus charge(StripedTokenBucket buckets, String key, long cost, String budget,
+                                          Counter rejected) {
+        long wait = buckets.tryAcquire(key, permits(buckets, cost));
+        long retryAfterSeconds = 0;
+        if (wait > 0) {
+            rejected.increment();
+            retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+        }
+        return new RateLimitStatus(budget, buckets.capacity(), buckets.available(key), cost, retryAfterSeconds);
+    }
+    
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String budget) {
+        return Counter.builder("graphql.budget.rejected")
+            .tag("budget", budget)
+            .register(meterRegistry);
+    }
+}
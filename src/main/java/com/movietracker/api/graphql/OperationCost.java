@@ -0,0 +1,43 @@
+package com.movietracker.api.graphql;
+
+import graphql.GraphQLContext;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.QueryComplexityCalculator;
+import graphql.execution.ExecutionContext;
+
+/**
+ * Static cost of the operation being executed, computed once per request and kept in the
+ * GraphQL context, so {@link QueryCostLimitInstrumentation} and
+ * {@link OperationBudgetInstrumentation} walk the document only once between them.
+ */
+public final class OperationCost {
+    
+    private static final String CONTEXT_KEY = OperationCost.class.getName();
+    
+    private OperationCost() {
+    }
+    
+    /**
+     * Cost of the executing operation, calculated with {@code calculator} on first use
+     */
+    public static int of(ExecutionContext executionContext, FieldComplexityCalculator calculator) {
+        GraphQLContext context = executionContext.getGraphQLContext();
+        Integer cost = context.get(CONTEXT_KEY);
+        if (cost == null) {
+            cost = calculate(executionContext, calculator);
+            context.put(CONTEXT_KEY, cost);
+        }
+        return cost;
+    }
+    
+    private static int calculate(ExecutionContext executionContext, FieldComplexityCalculator calculator) {
+        return QueryComplexityCalculator.newCalculator()
+            .fieldComplexityCalculator(calculator)
+            .schema(executionContext.getGraphQLSchema())
+            .document(executionContext.getDocument())
+            .operationName(executionContext.getOperationDefinition().getName())
+            .variables(executionContext.getCoercedVariables())
+            .build()
+            .calculate();
+    }
+}
@@ -0,0 +1,93 @@
+package com.movietracker.api.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netflix.graphql.types.errors.ErrorType;
+import com.netflix.graphql.types.errors.TypedGraphQLError;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded cache of parsed and validated documents, keyed by persisted query hash.
+ *
+ * <p>On a miss the query text comes from the {@link PersistedQueryManifest} if the operation is
+ * listed there, otherwise from the request (the client's registration of a new hash). Only
+ * documents that validated cleanly are cached. In allowlist mode hashes outside the manifest
+ * are rejected without being parsed, so clients cannot register new operations.
+ *
+ * <p>Exported metrics: the Caffeine statistics of {@code graphql.persisted-queries} and
+ * {@code graphql.persisted-queries.rejected}, tagged by reason.
+ */
+public class PersistedDocumentCache implements PersistedQueryCache {
+    
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    private final PersistedQueryManifest manifest;
+    private final boolean allowlistOnly;
+    private final Counter notAllowlisted;
+    
+    public PersistedDocumentCache(long maximumSize, PersistedQueryManifest manifest, boolean allowlistOnly,
+                                  MeterRegistry meterRegistry) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.manifest = manifest;
+        this.allowlistOnly = allowlistOnly;
+        this.notAllowlisted = PersistedQueryDocumentProvider.rejectedCounter(meterRegistry, "not_allowlisted");
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql.persisted-queries");
+    }
+    
+    @Override
+    public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId, ExecutionInput executionInput,
+                                                            PersistedQueryCacheMiss onCacheMiss)
+            throws PersistedQueryNotFound {
+        String hash = persistedQueryId.toString().toLowerCase();
+        PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+        if (cached != null) {
+            return cached;
+        }
+        if (allowlistOnly && !manifest.contains(hash)) {
+            notAllowlisted.increment();
+            return new PreparsedDocumentEntry(TypedGraphQLError.newBuilder()
+                .message("PersistedQueryNotAllowed")
+                .errorType(ErrorType.PERMISSION_DENIED)
+                .extensions(Map.of("persistedQueryId", hash))
+                .build());
+        }
+        
+        String listed = manifest.get(hash);
+        // Throws PersistedQueryNotFound when there is no text to register, and rejects text
+        // that doesn't hash to the ID
+        PreparsedDocumentEntry entry = onCacheMiss.apply(listed != null ? listed : executionInput.getQuery());
+        if (!entry.hasErrors()) {
+            documents.put(hash, entry);
+        }
+        return entry;
+    }
+    
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(
+            Object persistedQueryId, ExecutionInput executionInput, PersistedQueryCacheMiss onCacheMiss)
+            throws PersistedQueryNotFound {
+        // Misses surface as exceptions; hand them over as a failed future like an asynchronous cache would
+        try {
+            return CompletableFuture.completedFuture(getPersistedQueryDocument(persistedQueryId, executionInput, onCacheMiss));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    long size() {
+        documents.cleanUp();
+        return documents.estimatedSize();
+    }
+}
@@ -0,0 +1,67 @@
+package com.movietracker.api.graphql;
+
+import com.netflix.graphql.types.errors.ErrorType;
+import com.netflix.graphql.types.errors.TypedGraphQLError;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Automatic persisted queries (Apollo protocol) for every GraphQL request.
+ *
+ * <p>A client sends {@code extensions.persistedQuery.sha256Hash} instead of the query text.
+ * If the hash is unknown the response carries a {@code PersistedQueryNotFound} error and
+ * the client retries once with the text, which registers it. Known hashes skip parsing and
+ * validation entirely; see {@link PersistedDocumentCache}.
+ *
+ * <p>Requests without a hash are parsed as usual, unless allowlist mode is on, in which case
+ * they are rejected with {@code PersistedQueryRequired}.
+ */
+public class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+    
+    static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+    
+    private final ApolloPersistedQuerySupport persistedQuerySupport;
+    private final boolean allowlistOnly;
+    private final Counter hashRequired;
+    
+    public PersistedQueryDocumentProvider(PersistedDocumentCache cache, boolean allowlistOnly,
+                                          MeterRegistry meterRegistry) {
+        this.persistedQuerySupport = new ApolloPersistedQuerySupport(cache);
+        this.allowlistOnly = allowlistOnly;
+        this.hashRequired = rejectedCounter(meterRegistry, "hash_required");
+    }
+    
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        if (allowlistOnly && !isPersistedQuery(executionInput)) {
+            hashRequired.increment();
+            return CompletableFuture.completedFuture(new PreparsedDocumentEntry(TypedGraphQLError.newBuilder()
+                .message("PersistedQueryRequired")
+                .errorType(ErrorType.PERMISSION_DENIED)
+                .build()));
+        }
+        return persistedQuerySupport.getDocumentAsync(executionInput, parseAndValidateFunction);
+    }
+    
+    static boolean isPersistedQuery(ExecutionInput executionInput) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        return extensions != null
+            && extensions.get(PERSISTED_QUERY_EXTENSION) instanceof Map<?, ?> persistedQuery
+            && persistedQuery.get("sha256Hash") != null;
+    }
+    
+    static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("graphql.persisted-queries.rejected")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,97 @@
+package com.movietracker.api.graphql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.language.OperationDefinition;
+import graphql.parser.Parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Operations known ahead of time, keyed by the SHA-256 hash clients send as the persisted
+ * query ID.
+ *
+ * <p>Read from an Apollo persisted query manifest
+ * ({@code {"operations": [{"id": "<sha256>", "body": "query ..."}]}}), as generated by the
+ * client build. Every ID is checked against the hash of its body.
+ */
+public final class PersistedQueryManifest {
+    
+    private static final PersistedQueryManifest EMPTY = new PersistedQueryManifest(Map.of());
+    
+    private final Map<String, String> operations;
+    private final Set<String> operationNames;
+    
+    private PersistedQueryManifest(Map<String, String> operations) {
+        this.operations = operations;
+        this.operationNames = operations.values().stream()
+            .flatMap(body -> Parser.parse(body).getDefinitionsOfType(OperationDefinition.class).stream())
+            .map(OperationDefinition::getName)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+    
+    public static PersistedQueryManifest empty() {
+        return EMPTY;
+    }
+    
+    public static PersistedQueryManifest of(Map<String, String> operations) {
+        Map<String, String> verified = new HashMap<>();
+        operations.forEach((id, body) -> {
+            if (!sha256Hex(body).equalsIgnoreCase(id)) {
+                throw new IllegalStateException("Persisted query " + id + " does not match the hash of its body");
+            }
+            verified.put(id.toLowerCase(), body);
+        });
+        return new PersistedQueryManifest(Map.copyOf(verified));
+    }
+    
+    public static PersistedQueryManifest read(InputStream json, ObjectMapper objectMapper) throws IOException {
+        Map<String, String> operations = new HashMap<>();
+        for (JsonNode operation : objectMapper.readTree(json).path("operations")) {
+            operations.put(operation.path("id").asText(), operation.path("body").asText());
+        }
+        return of(operations);
+    }
+    
+    /**
+     * Query text for a persisted query ID, or {@code null} if the operation isn't listed
+     */
+    public String get(String id) {
+        return operations.get(id.toLowerCase());
+    }
+    
+    public boolean contains(String id) {
+        return operations.containsKey(id.toLowerCase());
+    }
+    
+    /**
+     * Names of the operations defined in the listed documents
+     */
+    public Set<String> operationNames() {
+        return operationNames;
+    }
+    
+    public int size() {
+        return operations.size();
+    }
+    
+    public static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
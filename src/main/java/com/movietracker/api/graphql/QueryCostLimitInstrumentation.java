@@ -0,0 +1,43 @@
+package com.movietracker.api.graphql;
+
+import graphql.ExecutionResult;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rejects operations whose static cost ({@link ListSizeComplexityCalculator}) exceeds the
+ * configured ceiling, after validation and before any data fetcher runs. The cost is shared
+ * with {@link OperationBudgetInstrumentation} through {@link OperationCost}.
+ *
+ * <p>Rejections are counted as {@code graphql.query.rejected} with {@code reason=cost}.
+ */
+public class QueryCostLimitInstrumentation extends SimplePerformantInstrumentation {
+    
+    private final int maxCost;
+    private final FieldComplexityCalculator calculator;
+    private final Counter rejected;
+    
+    public QueryCostLimitInstrumentation(int maxCost, FieldComplexityCalculator calculator, MeterRegistry meterRegistry) {
+        this.maxCost = maxCost;
+        this.calculator = calculator;
+        this.rejected = QueryDepthLimitInstrumentation.rejectedCounter(meterRegistry, "cost");
+    }
+    
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        int totalCost = OperationCost.of(parameters.getExecutionContext(), calculator);
+        if (totalCost > maxCost) {
+            rejected.increment();
+            throw new AbortExecutionException("Query cost " + totalCost + " exceeds the limit of " + maxCost);
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+}
@@ -0,0 +1,34 @@
+package com.movietracker.api.graphql;
+
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.AbortExecutionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rejects operations nested deeper than the configured ceiling, after validation and before
+ * any data fetcher runs.
+ *
+ * <p>Rejections are counted as {@code graphql.query.rejected} with {@code reason=depth}.
+ */
+public class QueryDepthLimitInstrumentation extends MaxQueryDepthInstrumentation {
+    
+    private final Counter rejected;
+    
+    public QueryDepthLimitInstrumentation(int maxDepth, MeterRegistry meterRegistry) {
+        super(maxDepth);
+        this.rejected = rejectedCounter(meterRegistry, "depth");
+    }
+    
+    @Override
+    protected AbortExecutionException mkAbortException(int depth, int maxDepth) {
+        rejected.increment();
+        return new AbortExecutionException("Query depth " + depth + " exceeds the limit of " + maxDepth);
+    }
+    
+    static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("graphql.query.rejected")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.movietracker.api.graphql;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mirrors the {@link RateLimitStatus} left by {@link OperationBudgetInstrumentation} into
+ * {@code RateLimit-Limit} and {@code RateLimit-Remaining} response headers, plus
+ * {@code Retry-After} on rejection, so HTTP clients and proxies can back off without parsing
+ * the body. The status code stays 200, as for any other GraphQL error.
+ */
+public class RateLimitHeaderInterceptor implements WebGraphQlInterceptor {
+    
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        return chain.next(request).doOnNext(response ->
+            RateLimitStatus.get(response.getExecutionInput().getGraphQLContext()).ifPresent(status -> {
+                HttpHeaders headers = response.getResponseHeaders();
+                headers.set("RateLimit-Limit", Long.toString(status.limit()));
+                headers.set("RateLimit-Remaining", Long.toString(status.remaining()));
+                if (status.exceeded()) {
+                    headers.set(HttpHeaders.RETRY_AFTER, Long.toString(status.retryAfterSeconds()));
+                }
+            }));
+    }
+}
@@ -0,0 +1,42 @@
+package com.movietracker.api.graphql;
+
+import graphql.GraphQLContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Outcome of charging an operation against a caller's budget, in cost units
+ *
+ * @param budget            the budget reported: {@code user} or {@code token}
+ * @param limit             the budget's capacity
+ * @param remaining         units left after this operation
+ * @param cost              the operation's static cost
+ * @param retryAfterSeconds when rejected, seconds until the operation would be admitted; otherwise 0
+ */
+public record RateLimitStatus(String budget, long limit, long remaining, long cost, long retryAfterSeconds) {
+    
+    private static final String CONTEXT_KEY = RateLimitStatus.class.getName();
+    
+    public boolean exceeded() {
+        return retryAfterSeconds > 0;
+    }
+    
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("budget", budget);
+        map.put("limit", limit);
+        map.put("remaining", remaining);
+        map.put("cost", cost);
+        return map;
+    }
+    
+    static void put(GraphQLContext context, RateLimitStatus status) {
+        context.put(CONTEXT_KEY, status);
+    }
+    
+    public static Optional<RateLimitStatus> get(GraphQLContext context) {
+        return Optional.ofNullable(context.get(CONTEXT_KEY));
+    }
+}
@@ -0,0 +1,235 @@
+package com.movietracker.api.graphql;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Timing for GraphQL operations and the resolvers they run.
+ *
+ * <ul>
+ *   <li>{@code graphql.operation}: wall time per operation name, tagged with the outcome</li>
+ *   <li>{@code graphql.operation.sql.statements}: SQL statements per operation, as counted by
+ *       {@link SqlStatementCounter} on the executing thread</li>
+ *   <li>{@code graphql.field}: time per non-trivial data fetcher, tagged {@code Type.field};
+ *       for fetchers returning a future (DataLoader-backed ones) this includes the wait for
+ *       the batch</li>
+ * </ul>
+ *
+ * <p>Operations slower than the threshold are logged, subject to the sample rate, with the
+ * operation name, SQL count, the resolvers that took longest and the shape of the variables:
+ * names and types only, never values.
+ *
+ * <p>Operation names are chosen by the client; {@link #operationNameFilter} keeps the
+ * {@code operation} tag to names known ahead of time.
+ */
+public class ResolverMetricsInstrumentation extends SimplePerformantInstrumentation {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ResolverMetricsInstrumentation.class);
+    
+    private static final String ANONYMOUS = "anonymous";
+    private static final String OTHER = "other";
+    
+    private static final int MAX_SHAPE_DEPTH = 4;
+    private static final int SLOWEST_FIELDS_LOGGED = 3;
+    
+    private final MeterRegistry meterRegistry;
+    private final long slowOperationThresholdNanos;
+    private final double slowOperationSampleRate;
+    
+    public ResolverMetricsInstrumentation(MeterRegistry meterRegistry, Duration slowOperationThreshold,
+                                          double slowOperationSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.slowOperationThresholdNanos = slowOperationThreshold.toNanos();
+        this.slowOperationSampleRate = slowOperationSampleRate;
+    }
+    
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new OperationState();
+    }
+    
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        OperationState operation = (OperationState) state;
+        operation.requestedName = parameters.getOperation();
+        operation.variables = parameters.getVariables();
+        operation.startNanos = System.nanoTime();
+        operation.sqlAtStart = SqlStatementCounter.current();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> finish(operation, result, throwable));
+    }
+    
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        // The name in the document wins over the requested one, which may be absent
+        String name = parameters.getExecutionContext().getOperationDefinition().getName();
+        if (name != null) {
+            ((OperationState) state).documentName = name;
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+    
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        // Property reads are not worth a timer each
+        if (parameters.isTrivialDataFetcher()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        OperationState operation = (OperationState) state;
+        String field = parameters.getExecutionStepInfo().getObjectType().getName()
+            + "." + parameters.getField().getName();
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) -> {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("graphql.field")
+                .tag("field", field)
+                .tag("outcome", throwable == null ? "success" : "error")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+            operation.fieldTimes.computeIfAbsent(field, key -> new FieldTime()).add(elapsed);
+        });
+    }
+    
+    private void finish(OperationState operation, ExecutionResult result, Throwable throwable) {
+        long elapsed = System.nanoTime() - operation.startNanos;
+        long statements = SqlStatementCounter.current() - operation.sqlAtStart;
+        String name = operation.name();
+        boolean failed = throwable != null || (result != null && !result.getErrors().isEmpty());
+        
+        Timer.builder("graphql.operation")
+            .tag("operation", name)
+            .tag("outcome", failed ? "error" : "success")
+            .register(meterRegistry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("graphql.operation.sql.statements")
+            .tag("operation", name)
+            .register(meterRegistry)
+            .record(statements);
+        
+        if (elapsed >= slowOperationThresholdNanos && sampled()) {
+            logger.warn("Slow GraphQL operation {}: {} ms, {} SQL statements, slowest fields [{}], variables {}",
+                name, TimeUnit.NANOSECONDS.toMillis(elapsed), statements,
+                operation.slowestFields(SLOWEST_FIELDS_LOGGED), shapeOf(operation.variables));
+        }
+    }
+    
+    private boolean sampled() {
+        return slowOperationSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < slowOperationSampleRate;
+    }
+    
+    /**
+     * Tags the {@code graphql.operation} meters with {@code operation=other} for any name not
+     * among {@code knownNames}, so arbitrary client names share one series instead of adding one each
+     */
+    public static MeterFilter operationNameFilter(Set<String> knownNames) {
+        MeterFilter replace = MeterFilter.replaceTagValues("operation",
+            name -> name.equals(ANONYMOUS) || knownNames.contains(name) ? name : OTHER);
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                return id.getName().startsWith("graphql.operation") ? replace.map(id) : id;
+            }
+        };
+    }
+    
+    /**
+     * Structure and types of a variables value with every leaf value left out, e.g.
+     * {@code {filter: {minRating: Integer, theater: String}, ids: [3 x String]}}
+     */
+    static String shapeOf(Object value) {
+        return shapeOf(value, 0);
+    }
+    
+    private static String shapeOf(Object value, int depth) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Map<?, ?> map) {
+            if (depth >= MAX_SHAPE_DEPTH) {
+                return "{...}";
+            }
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((key, entry) -> sorted.put(String.valueOf(key), entry));
+            StringJoiner fields = new StringJoiner(", ", "{", "}");
+            sorted.forEach((key, entry) -> fields.add(key + ": " + shapeOf(entry, depth + 1)));
+            return fields.toString();
+        }
+        if (value instanceof Collection<?> items) {
+            if (items.isEmpty()) {
+                return "[0]";
+            }
+            if (depth >= MAX_SHAPE_DEPTH) {
+                return "[" + items.size() + "]";
+            }
+            return "[" + items.size() + " x " + shapeOf(items.iterator().next(), depth + 1) + "]";
+        }
+        return value.getClass().getSimpleName();
+    }
+    
+    private static final class OperationState implements InstrumentationState {
+        
+        private final Map<String, FieldTime> fieldTimes = new ConcurrentHashMap<>();
+        private volatile String requestedName;
+        private volatile String documentName;
+        private volatile Map<String, Object> variables;
+        private volatile long startNanos;
+        private volatile long sqlAtStart;
+        
+        String name() {
+            if (documentName != null) {
+                return documentName;
+            }
+            return requestedName != null && !requestedName.isBlank() ? requestedName : ANONYMOUS;
+        }
+        
+        String slowestFields(int limit) {
+            return fieldTimes.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, FieldTime> entry) -> entry.getValue().nanos.sum())
+                    .reversed())
+                .limit(limit)
+                .map(entry -> entry.getKey() + " " + TimeUnit.NANOSECONDS.toMillis(entry.getValue().nanos.sum())
+                    + " ms x" + entry.getValue().calls.sum())
+                .collect(Collectors.joining(", "));
+        }
+    }
+    
+    private static final class FieldTime {
+        
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder calls = new LongAdder();
+        
+        void add(long elapsed) {
+            nanos.add(elapsed);
+            calls.increment();
+        }
+    }
+}
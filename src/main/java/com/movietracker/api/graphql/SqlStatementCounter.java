@@ -0,0 +1,25 @@
+package com.movietracker.api.graphql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread.
+ *
+ * <p>Registered as the session factory's statement inspector; callers take {@link #current()}
+ * before and after a unit of work and subtract. The count is per thread, so only statements
+ * issued on the thread doing the measuring are attributed to it.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+    
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
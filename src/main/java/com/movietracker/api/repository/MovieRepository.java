@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,12 @@ public interface MovieRepository extends JpaRepository<Movie, String> {
            "OR LOWER(m.director) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Movie> searchByTitleOrDirector(@Param("query") String query);
     
+    // Same rows as findAllById, minus plot_summary
+    @Query("SELECT new com.movietracker.api.entity.Movie(m.id, m.title, m.releaseYear, m.genre, m.rating, " +
+           "m.runtimeMinutes, m.director, m.posterUrl, m.createdAt, m.updatedAt) " +
+           "FROM Movie m WHERE m.id IN :ids")
+    List<Movie> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+    
     List<Movie> findByGenreIgnoreCase(String genre);
     List<Movie> findByReleaseYear(Integer year);
 }
@@ -0,0 +1,25 @@
+package com.movietracker.api.repository;
+
+import com.movietracker.api.entity.UserMovie;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Column-restricted reads of {@link UserMovie} rows
+ */
+public interface UserMovieProjections {
+    
+    /**
+     * Rows matching {@code specification}, reading only the key columns ({@code id},
+     * {@code user_id}, {@code movie_id}, {@code date_watched}) plus the requested {@code fields}.
+     * 
+     * <p>Field names are entity attribute names; names that aren't projectable columns are
+     * ignored. The returned entities are detached and unselected attributes are {@code null},
+     * so they must never be saved.
+     */
+    List<UserMovie> findAllProjected(Specification<UserMovie> specification, Sort sort, Limit limit, Set<String> fields);
+}
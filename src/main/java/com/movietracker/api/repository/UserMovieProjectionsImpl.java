@@ -0,0 +1,100 @@
+package com.movietracker.api.repository;
+
+import com.movietracker.api.entity.UserMovie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Tuple queries that select only the requested {@code user_movies} columns.
+ * 
+ * <p>{@code extraction_metadata} and {@code ticket_image_s3_key} are deliberately not
+ * projectable: they are internal, and the OCR metadata alone can be kilobytes per row.
+ */
+public class UserMovieProjectionsImpl implements UserMovieProjections {
+    
+    private static final List<String> KEYS = List.of("id", "userId", "movieId", "dateWatched");
+    
+    private static final Map<String, BiConsumer<UserMovie, Object>> COLUMNS = Map.of(
+        "theater", (userMovie, value) -> userMovie.setTheater((String) value),
+        "seatAssignment", (userMovie, value) -> userMovie.setSeatAssignment((String) value),
+        "showtime", (userMovie, value) -> userMovie.setShowtime((LocalTime) value),
+        "ticketPrice", (userMovie, value) -> userMovie.setTicketPrice((BigDecimal) value),
+        "personalRating", (userMovie, value) -> userMovie.setPersonalRating((Integer) value),
+        "notes", (userMovie, value) -> userMovie.setNotes((String) value),
+        "ticketImageUrl", (userMovie, value) -> userMovie.setTicketImageUrl((String) value),
+        "createdAt", (userMovie, value) -> userMovie.setCreatedAt((LocalDateTime) value),
+        "updatedAt", (userMovie, value) -> userMovie.setUpdatedAt((LocalDateTime) value)
+    );
+    
+    private final EntityManager entityManager;
+    
+    public UserMovieProjectionsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public List<UserMovie> findAllProjected(Specification<UserMovie> specification, Sort sort, Limit limit,
+                                            Set<String> fields) {
+        List<String> columns = new ArrayList<>(KEYS);
+        for (String field : fields) {
+            if (COLUMNS.containsKey(field) && !columns.contains(field)) {
+                columns.add(field);
+            }
+        }
+        
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<UserMovie> root = query.from(UserMovie.class);
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            selections.add(root.get(column));
+        }
+        query.multiselect(selections);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        List<Tuple> tuples = typedQuery.getResultList();
+        
+        List<UserMovie> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            UserMovie row = new UserMovie(
+                (String) tuple.get(0),
+                (String) tuple.get(1),
+                (String) tuple.get(2),
+                (LocalDate) tuple.get(3)
+            );
+            for (int i = KEYS.size(); i < columns.size(); i++) {
+                COLUMNS.get(columns.get(i)).accept(row, tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
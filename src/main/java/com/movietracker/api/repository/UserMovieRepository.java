@@ -2,6 +2,7 @@ package com.movietracker.api.repository;
 
 import com.movietracker.api.entity.UserMovie;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -9,7 +10,8 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface UserMovieRepository extends JpaRepository<UserMovie, String> {
+public interface UserMovieRepository extends JpaRepository<UserMovie, String>, JpaSpecificationExecutor<UserMovie>,
+        UserMovieProjections {
     
     List<UserMovie> findByUserIdOrderByDateWatchedDesc(String userId);
     List<UserMovie> findByUserId(String userId);
@@ -2,8 +2,16 @@ package com.movietracker.api.repository;
 
 import com.movietracker.api.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
@@ -14,6 +22,36 @@ public interface UserRepository extends JpaRepository<User, String> {
     // OAuth2 integration
     Optional<User> findByProviderAndProviderId(String provider, String providerId);
     
+    /**
+     * Users matching either the provider identity or the email, in a single round trip
+     */
+    @Query("SELECT u FROM User u WHERE (u.provider = :provider AND u.providerId = :providerId) " +
+           "OR u.email = :email")
+    List<User> findOAuth2Candidates(
+        @Param("provider") String provider,
+        @Param("providerId") String providerId,
+        @Param("email") String email
+    );
+    
+    /**
+     * Those of the given usernames that are already taken
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findTakenUsernames(@Param("usernames") Collection<String> usernames);
+    
+    /**
+     * Stream every {@code [email, username]} pair; must be consumed inside a transaction
+     */
+    @Query("SELECT u.email, u.username FROM User u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamAllIdentities();
+    
+    /**
+     * The user's watch-history change version, read without loading the user
+     */
+    @Query("SELECT u.watchHistoryVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findWatchHistoryVersion(@Param("id") String id);
+    
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
 }
@@ -0,0 +1,84 @@
+package com.movietracker.api.repository;
+
+import com.movietracker.api.entity.UserMovie;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Keeps {@code users.watch_history_version} a per-user change counter for {@code user_movies}.
+ *
+ * <p>Every insert, update and delete of a {@link UserMovie} flushed by Hibernate increments the
+ * owner's version on the same connection, so the bump commits or rolls back with the change.
+ * The statement is issued directly on the connection rather than as a query, which would
+ * trigger a nested flush. Bulk JPQL or native statements on {@code user_movies} bypass entity
+ * events and must bump the version themselves.
+ */
+@Component
+public class WatchHistoryVersionListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    
+    static final String BUMP_SQL =
+        "UPDATE users SET watch_history_version = watch_history_version + 1 WHERE id = ?";
+    
+    private final EntityManagerFactory entityManagerFactory;
+    
+    public WatchHistoryVersionListener(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+    
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        bump(event.getEntity(), event.getSession());
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        bump(event.getEntity(), event.getSession());
+    }
+    
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        bump(event.getEntity(), event.getSession());
+    }
+    
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+    
+    private static void bump(Object entity, EventSource session) {
+        if (!(entity instanceof UserMovie userMovie) || userMovie.getUserId() == null) {
+            return;
+        }
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(BUMP_SQL)) {
+                statement.setString(1, userMovie.getUserId());
+                statement.executeUpdate();
+            }
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.movietracker.api.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Password encoder that writes self-describing hashes and knows when a stored
+ * hash falls outside the current hashing policy.
+ * 
+ * <p>New hashes are written as {@code {bcrypt}$2a$<cost>$...}, using the strength
+ * calibrated for this deployment. Legacy hashes without the algorithm prefix are still
+ * verified as BCrypt. {@link #upgradeEncoding(String)} reports hashes that should be
+ * re-written on the next successful login: unprefixed hashes, unknown algorithms, and
+ * BCrypt hashes whose cost is below the policy. Hashes above the policy are kept: the
+ * strength is calibrated per replica, and rewriting them would weaken them and make users
+ * flip between costs depending on which replica serves the login.
+ */
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+    
+    public static final String BCRYPT_ID = "bcrypt";
+    
+    private static final String BCRYPT_PREFIX = "{" + BCRYPT_ID + "}";
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}$");
+    
+    private final BCryptPasswordEncoder bcrypt;
+    private final int strength;
+    
+    public AdaptivePasswordEncoder(int strength) {
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+    }
+    
+    public int getStrength() {
+        return strength;
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return BCRYPT_PREFIX + bcrypt.encode(rawPassword);
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        HashInfo info = describe(encodedPassword);
+        if (!BCRYPT_ID.equals(info.algorithm())) {
+            return false;
+        }
+        // BCrypt reads the cost from the hash itself, so any cost verifies
+        return bcrypt.matches(rawPassword, stripPrefix(encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        HashInfo info = describe(encodedPassword);
+        if (!info.prefixed() || !BCRYPT_ID.equals(info.algorithm())) {
+            return true;
+        }
+        return info.cost() < strength;
+    }
+    
+    /**
+     * Identify the algorithm and cost of a stored hash
+     */
+    public static HashInfo describe(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return new HashInfo(null, -1, false);
+        }
+        
+        boolean prefixed = encodedPassword.startsWith("{");
+        String algorithm = null;
+        String hash = encodedPassword;
+        if (prefixed) {
+            int end = encodedPassword.indexOf('}');
+            if (end < 0) {
+                return new HashInfo(null, -1, false);
+            }
+            algorithm = encodedPassword.substring(1, end);
+            hash = encodedPassword.substring(end + 1);
+        }
+        
+        Matcher matcher = BCRYPT_PATTERN.matcher(hash);
+        if (matcher.matches() && (algorithm == null || BCRYPT_ID.equals(algorithm))) {
+            return new HashInfo(BCRYPT_ID, Integer.parseInt(matcher.group(1)), prefixed);
+        }
+        return new HashInfo(algorithm, -1, prefixed);
+    }
+    
+    private static String stripPrefix(String encodedPassword) {
+        return encodedPassword.startsWith(BCRYPT_PREFIX)
+            ? encodedPassword.substring(BCRYPT_PREFIX.length())
+            : encodedPassword;
+    }
+    
+    /**
+     * Algorithm and cost parameters of a stored password hash
+     * 
+     * @param algorithm algorithm id, or null if unrecognised
+     * @param cost work factor, or -1 if not applicable
+     * @param prefixed whether the hash carries an explicit {@code {id}} prefix
+     */
+    public record HashInfo(String algorithm, int cost, boolean prefixed) {
+    }
+}
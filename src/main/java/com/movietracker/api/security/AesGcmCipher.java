@@ -0,0 +1,81 @@
+package com.movietracker.api.security;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * AES-256-GCM with a key derived from the JWT signing secret, for small values the service
+ * stores outside its own memory (cookies, database columns).
+ * 
+ * <p>The key is {@code HMAC-SHA256(secret, label)}, so every use gets its own key without
+ * configuring another secret, and all instances sharing the JWT secret derive the same one.
+ * Values are {@code base64url(iv || ciphertext || tag)} with a random 96-bit IV. The
+ * associated data passed to {@link #encrypt} must be passed again to {@link #decrypt}; use it
+ * to bind a value to where it is stored.
+ */
+public final class AesGcmCipher {
+    
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+    
+    public AesGcmCipher(String secret, String label) {
+        this.key = new SecretKeySpec(deriveKey(secret, label), "AES");
+    }
+    
+    public String encrypt(byte[] plaintext, byte[] associatedData) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(associatedData);
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            
+            byte[] value = ByteBuffer.allocate(IV_LENGTH + ciphertext.length).put(iv).put(ciphertext).array();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM encryption failed", e);
+        }
+    }
+    
+    /**
+     * Authenticate and decrypt a value from {@link #encrypt}
+     * 
+     * @return the plaintext, or null if the value is malformed, tampered with, encrypted
+     *         under another key or bound to other associated data
+     */
+    public byte[] decrypt(String value, byte[] associatedData) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(value);
+            if (bytes.length <= IV_LENGTH) {
+                return null;
+            }
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_LENGTH));
+            cipher.updateAAD(associatedData);
+            return cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            return null;
+        }
+    }
+    
+    private static byte[] deriveKey(String secret, String label) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.movietracker.api.security;
+
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Client registrations where the {@code apple} registration carries the current signed
+ * client secret from an {@link AppleClientSecretProvider} instead of a static value.
+ *
+ * <p>The Apple registration is only rebuilt when the secret changes, so a lookup costs a
+ * string comparison against the cached secret.
+ */
+public class AppleClientRegistrationRepository implements ClientRegistrationRepository, Iterable<ClientRegistration> {
+    
+    public static final String REGISTRATION_ID = "apple";
+    
+    private final Map<String, ClientRegistration> registrations;
+    private final Supplier<String> clientSecret;
+    
+    private volatile ClientRegistration appleRegistration;
+    
+    public AppleClientRegistrationRepository(List<ClientRegistration> registrations, Supplier<String> clientSecret) {
+        Map<String, ClientRegistration> byId = new LinkedHashMap<>();
+        for (ClientRegistration registration : registrations) {
+            byId.put(registration.getRegistrationId(), registration);
+        }
+        this.registrations = byId;
+        this.clientSecret = clientSecret;
+        this.appleRegistration = byId.get(REGISTRATION_ID);
+    }
+    
+    @Override
+    public ClientRegistration findByRegistrationId(String registrationId) {
+        if (REGISTRATION_ID.equals(registrationId)) {
+            return apple();
+        }
+        return registrations.get(registrationId);
+    }
+    
+    @Override
+    public Iterator<ClientRegistration> iterator() {
+        List<ClientRegistration> all = new ArrayList<>(registrations.values());
+        all.replaceAll(registration -> REGISTRATION_ID.equals(registration.getRegistrationId()) ? apple() : registration);
+        return all.iterator();
+    }
+    
+    private ClientRegistration apple() {
+        ClientRegistration registration = appleRegistration;
+        if (registration == null) {
+            return null;
+        }
+        String secret = clientSecret.get();
+        if (!registration.getClientSecret().equals(secret)) {
+            registration = ClientRegistration.withClientRegistration(registration)
+                .clientSecret(secret)
+                .build();
+            appleRegistration = registration;
+        }
+        return registration;
+    }
+}
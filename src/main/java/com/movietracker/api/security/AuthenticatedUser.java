@@ -0,0 +1,102 @@
+package com.movietracker.api.security;
+
+import com.movietracker.api.entity.User;
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Authenticated principal built from verified JWT claims.
+ * 
+ * <p>Carries the identity fields {@link com.movietracker.api.service.JwtService#generateToken(User)}
+ * puts into every token, so resolvers can answer "who is calling" without a database lookup.
+ * {@link #getName()} returns the email, matching the token subject. The token ID and
+ * expiration are kept so the token can be revoked on logout.
+ */
+public final class AuthenticatedUser implements Principal {
+    
+    /**
+     * GraphQL {@code User} fields that can be served from the token alone
+     */
+    public static final Set<String> TOKEN_FIELDS = Set.of("id", "email", "username");
+    
+    private final String userId;
+    private final String email;
+    private final String username;
+    private final String tokenId;
+    private final Date expiresAt;
+    
+    public AuthenticatedUser(String userId, String email, String username) {
+        this(userId, email, username, null, null);
+    }
+    
+    public AuthenticatedUser(String userId, String email, String username, String tokenId, Date expiresAt) {
+        this.userId = userId;
+        this.email = Objects.requireNonNull(email, "email");
+        this.username = username;
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+    
+    /**
+     * Build a principal from verified token claims
+     */
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        return new AuthenticatedUser(
+            claims.get("user_id", String.class),
+            claims.getSubject(),
+            claims.get("username", String.class),
+            claims.getId(),
+            claims.getExpiration()
+        );
+    }
+    
+    public String getUserId() { return userId; }
+    public String getEmail() { return email; }
+    public String getUsername() { return username; }
+    public String getTokenId() { return tokenId; }
+    public Date getExpiresAt() { return expiresAt; }
+    
+    /**
+     * Whether the token carried every identity claim (older tokens may not)
+     */
+    public boolean hasCompleteClaims() {
+        return userId != null && username != null;
+    }
+    
+    /**
+     * Detached {@link User} populated only with the fields carried by the token
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(email);
+        user.setUsername(username);
+        return user;
+    }
+    
+    @Override
+    public String getName() {
+        return email;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AuthenticatedUser that)) return false;
+        return Objects.equals(userId, that.userId) && email.equals(that.email);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, email);
+    }
+    
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{userId='" + userId + "', username='" + username + "'}";
+    }
+}
@@ -0,0 +1,68 @@
+package com.movietracker.api.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Picks the BCrypt work factor for the hardware the service is running on.
+ * 
+ * <p>A BCrypt hash at strength {@code n} performs {@code 2^n} key expansion rounds,
+ * so each extra point of strength doubles the hashing time. The calibrator times a
+ * few hashes at a cheap reference strength and extrapolates to the highest strength
+ * whose estimated cost still fits the target latency.
+ */
+public final class BCryptWorkFactorCalibrator {
+    
+    private static final int REFERENCE_STRENGTH = 8;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int SAMPLES = 5;
+    
+    private BCryptWorkFactorCalibrator() {
+    }
+    
+    /**
+     * Calibrate the strength for the given per-hash target latency
+     * 
+     * @param target the desired time for a single hash
+     * @param minStrength lower bound, never go below this regardless of hardware
+     * @param maxStrength upper bound, never go above this regardless of hardware
+     * @return the calibrated strength within {@code [minStrength, maxStrength]}
+     */
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        String salt = BCrypt.gensalt(REFERENCE_STRENGTH);
+        
+        // Let the JIT compile the key schedule before measuring
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            BCrypt.hashpw("calibration-warmup", salt);
+        }
+        
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration-sample-" + i, salt);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        
+        return strengthFor(samples[SAMPLES / 2], target.toNanos(), minStrength, maxStrength);
+    }
+    
+    /**
+     * Highest strength whose extrapolated cost fits the target, clamped to the bounds
+     */
+    static int strengthFor(long referenceNanos, long targetNanos, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        while (strength < maxStrength
+                && estimateNanos(referenceNanos, strength + 1) <= targetNanos) {
+            strength++;
+        }
+        return strength;
+    }
+    
+    private static long estimateNanos(long referenceNanos, int strength) {
+        int shift = strength - REFERENCE_STRENGTH;
+        return shift >= 0 ? referenceNanos << shift : referenceNanos >> -shift;
+    }
+}
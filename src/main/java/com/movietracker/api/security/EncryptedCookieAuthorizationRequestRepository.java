@@ -0,0 +1,154 @@
+package com.movietracker.api.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Keeps the pending OAuth2 authorization request in a short-lived encrypted cookie instead
+ * of the servlet session, so the login flow needs no server-side state and the provider
+ * callback may land on any instance.
+ * 
+ * <p>The cookie value is {@code base64url(iv || AES-256-GCM(expiresAt || request))}. GCM
+ * authenticates the ciphertext, so a tampered, forged or expired cookie is treated as
+ * absent and the request is only deserialized after it has been authenticated. The key is
+ * derived from the JWT signing secret under a dedicated label (see {@link AesGcmCipher}), so
+ * no extra secret has to be configured and all instances sharing the JWT secret can read the
+ * cookie.
+ * 
+ * <p>The cookie is {@code HttpOnly}, {@code SameSite=Lax} (sent on the provider's top-level
+ * redirect back to us) and {@code Secure} whenever the request was made over HTTPS. Only one
+ * login can be pending per browser; starting a second login replaces the first.
+ */
+public class EncryptedCookieAuthorizationRequestRepository
+        implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+    
+    public static final String COOKIE_NAME = "oauth2-auth-request";
+    
+    private static final String KEY_LABEL = "oauth2-authorization-request-cookie";
+    private static final byte[] AAD = COOKIE_NAME.getBytes(StandardCharsets.US_ASCII);
+    
+    // Everything an OAuth2AuthorizationRequest graph can contain
+    private static final ObjectInputFilter DESERIALIZATION_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=10;maxrefs=1000;maxbytes=16384;"
+            + "org.springframework.security.oauth2.core.**;java.util.*;java.lang.*;!*");
+    
+    private final AesGcmCipher cipher;
+    private final Duration ttl;
+    private final Clock clock;
+    
+    public EncryptedCookieAuthorizationRequestRepository(String secret, Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+    
+    public EncryptedCookieAuthorizationRequestRepository(String secret, Duration ttl, Clock clock) {
+        this.cipher = new AesGcmCipher(secret, KEY_LABEL);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+    
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        String state = request.getParameter(OAuth2ParameterNames.STATE);
+        if (state == null) {
+            return null;
+        }
+        OAuth2AuthorizationRequest authorizationRequest = readCookie(request);
+        if (authorizationRequest == null || !state.equals(authorizationRequest.getState())) {
+            return null;
+        }
+        return authorizationRequest;
+    }
+    
+    @Override
+    public void saveAuthorizationRequest(OAuth2AuthorizationRequest authorizationRequest,
+                                         HttpServletRequest request, HttpServletResponse response) {
+        if (authorizationRequest == null) {
+            response.addCookie(cookie(request, "", 0));
+            return;
+        }
+        String value = encrypt(authorizationRequest);
+        response.addCookie(cookie(request, value, (int) ttl.toSeconds()));
+    }
+    
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request,
+                                                                 HttpServletResponse response) {
+        OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+        if (authorizationRequest != null) {
+            // Single use: clear the cookie as soon as the callback consumes it
+            response.addCookie(cookie(request, "", 0));
+        }
+        return authorizationRequest;
+    }
+    
+    private OAuth2AuthorizationRequest readCookie(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                return decrypt(cookie.getValue());
+            }
+        }
+        return null;
+    }
+    
+    private String encrypt(OAuth2AuthorizationRequest authorizationRequest) {
+        try {
+            ByteArrayOutputStream plaintext = new ByteArrayOutputStream(1024);
+            plaintext.write(ByteBuffer.allocate(Long.BYTES).putLong(clock.millis() + ttl.toMillis()).array());
+            try (ObjectOutputStream out = new ObjectOutputStream(plaintext)) {
+                out.writeObject(authorizationRequest);
+            }
+            return cipher.encrypt(plaintext.toByteArray(), AAD);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encrypt OAuth2 authorization request", e);
+        }
+    }
+    
+    private OAuth2AuthorizationRequest decrypt(String value) {
+        byte[] plaintext = cipher.decrypt(value, AAD);
+        if (plaintext == null || plaintext.length <= Long.BYTES) {
+            return null;
+        }
+        try {
+            long expiresAt = ByteBuffer.wrap(plaintext, 0, Long.BYTES).getLong();
+            if (clock.millis() >= expiresAt) {
+                return null;
+            }
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(plaintext, Long.BYTES, plaintext.length - Long.BYTES))) {
+                in.setObjectInputFilter(DESERIALIZATION_FILTER);
+                return (OAuth2AuthorizationRequest) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // Authentic but unreadable (e.g. rejected by the filter): treat as absent
+            return null;
+        }
+    }
+    
+    private static Cookie cookie(HttpServletRequest request, String value, int maxAgeSeconds) {
+        Cookie cookie = new Cookie(COOKIE_NAME, value);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setPath("/");
+        cookie.setMaxAge(maxAgeSeconds);
+        cookie.setAttribute("SameSite", "Lax");
+        return cookie;
+    }
+}
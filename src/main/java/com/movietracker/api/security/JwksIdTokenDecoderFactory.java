@@ -0,0 +1,195 @@
+package com.movietracker.api.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.BadJWTException;
+import com.nimbusds.jwt.proc.JWTProcessor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenValidator;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.converter.ClaimTypeConverter;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes OIDC id_tokens locally against cached provider key sets.
+ * 
+ * <p>Replaces Spring's default {@code OidcIdTokenDecoderFactory} for the OAuth2 login flow.
+ * Each provider's {@code jwk-set-uri} gets one {@link JwksKeyCache}, refreshed in the
+ * background every {@code refreshInterval} and on unknown key IDs, so verifying an id_token
+ * normally involves no outbound call. Tokens are validated like Spring's default (issued at,
+ * expiry, audience, authorized party) plus the issuer for well-known providers.
+ * 
+ * <p>Together with an {@code OidcUserService} that skips the userinfo request, the user's
+ * identity comes entirely from the verified id_token.
+ */
+public class JwksIdTokenDecoderFactory implements JwtDecoderFactory<ClientRegistration>, DisposableBean {
+    
+    private static final String MISSING_SIGNATURE_VERIFIER_ERROR_CODE = "missing_signature_verifier";
+    
+    // Issuers of the providers we integrate with, checked even without issuer-uri discovery
+    private static final Map<String, Set<String>> KNOWN_ISSUERS = Map.of(
+        "google", Set.of("https://accounts.google.com", "accounts.google.com"),
+        "apple", Set.of("https://appleid.apple.com")
+    );
+    
+    private final RestClient restClient;
+    private final Duration refreshInterval;
+    private final Map<String, JwksKeyCache> keyCaches = new ConcurrentHashMap<>();
+    private final Map<String, JwtDecoder> decoders = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public JwksIdTokenDecoderFactory(RestClient restClient, Duration refreshInterval) {
+        this.restClient = restClient;
+        this.refreshInterval = refreshInterval;
+    }
+    
+    @Override
+    public JwtDecoder createDecoder(ClientRegistration clientRegistration) {
+        return decoders.computeIfAbsent(clientRegistration.getRegistrationId(), id -> buildDecoder(clientRegistration));
+    }
+    
+    /**
+     * Key cache for a key set URI, created and scheduled for background refresh on first use
+     */
+    public JwksKeyCache keyCache(String jwkSetUri) {
+        return keyCaches.computeIfAbsent(jwkSetUri, uri -> {
+            JwksKeyCache cache = new JwksKeyCache(URI.create(uri), restClient);
+            refresher.scheduleWithFixedDelay(cache::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+            return cache;
+        });
+    }
+    
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+    
+    private JwtDecoder buildDecoder(ClientRegistration clientRegistration) {
+        String jwkSetUri = clientRegistration.getProviderDetails().getJwkSetUri();
+        if (!StringUtils.hasText(jwkSetUri)) {
+            OAuth2Error error = new OAuth2Error(MISSING_SIGNATURE_VERIFIER_ERROR_CODE,
+                "Failed to find a Signature Verifier for Client Registration: '"
+                    + clientRegistration.getRegistrationId()
+                    + "'. Check to ensure you have configured the JwkSet URI.", null);
+            throw new OAuth2AuthenticationException(error, error.toString());
+        }
+        
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(new CachedKeyJwtProcessor(keyCache(jwkSetUri)));
+        decoder.setClaimSetConverter(new ClaimTypeConverter(OidcIdTokenDecoderFactory.createDefaultClaimTypeConverters()));
+        decoder.setJwtValidator(validator(clientRegistration));
+        return decoder;
+    }
+    
+    private static OAuth2TokenValidator<Jwt> validator(ClientRegistration clientRegistration) {
+        List<OAuth2TokenValidator<Jwt>> validators = new ArrayList<>();
+        validators.add(new JwtTimestampValidator());
+        validators.add(new OidcIdTokenValidator(clientRegistration));
+        
+        Set<String> issuers = KNOWN_ISSUERS.get(clientRegistration.getRegistrationId());
+        String configuredIssuer = clientRegistration.getProviderDetails().getIssuerUri();
+        if (StringUtils.hasText(configuredIssuer)) {
+            issuers = Set.of(configuredIssuer);
+        }
+        if (issuers != null) {
+            Set<String> allowed = issuers;
+            validators.add(new JwtClaimValidator<Object>(JwtClaimNames.ISS,
+                issuer -> issuer != null && allowed.contains(issuer.toString())));
+        }
+        return new DelegatingOAuth2TokenValidator<>(validators);
+    }
+    
+    /**
+     * Verifies JWS signatures with the pre-built verifier for the token's key ID
+     */
+    static final class CachedKeyJwtProcessor implements JWTProcessor<SecurityContext> {
+        
+        private final JwksKeyCache keyCache;
+        
+        CachedKeyJwtProcessor(JwksKeyCache keyCache) {
+            this.keyCache = keyCache;
+        }
+        
+        @Override
+        public JWTClaimsSet process(String jwtString, SecurityContext context)
+                throws ParseException, BadJOSEException, JOSEException {
+            return process(JWTParser.parse(jwtString), context);
+        }
+        
+        @Override
+        public JWTClaimsSet process(JWT jwt, SecurityContext context) throws BadJOSEException, JOSEException {
+            if (jwt instanceof SignedJWT signedJwt) {
+                return process(signedJwt, context);
+            }
+            throw new BadJOSEException("Unsigned or encrypted id_token rejected");
+        }
+        
+        @Override
+        public JWTClaimsSet process(PlainJWT plainJwt, SecurityContext context) throws BadJOSEException {
+            throw new BadJOSEException("Unsigned id_token rejected");
+        }
+        
+        @Override
+        public JWTClaimsSet process(SignedJWT signedJwt, SecurityContext context)
+                throws BadJOSEException, JOSEException {
+            String keyId = signedJwt.getHeader().getKeyID();
+            if (keyId == null) {
+                throw new BadJOSEException("id_token has no key ID");
+            }
+            JWSVerifier verifier = keyCache.verifierFor(keyId);
+            if (verifier == null) {
+                throw new BadJOSEException("Unknown signing key " + keyId + " for " + keyCache.getJwkSetUri());
+            }
+            if (!signedJwt.verify(verifier)) {
+                throw new BadJWSException("Invalid id_token signature");
+            }
+            try {
+                return signedJwt.getJWTClaimsSet();
+            } catch (ParseException e) {
+                throw new BadJWTException("Invalid id_token claims", e);
+            }
+        }
+        
+        @Override
+        public JWTClaimsSet process(EncryptedJWT encryptedJwt, SecurityContext context) throws BadJOSEException {
+            throw new BadJOSEException("Encrypted id_token rejected");
+        }
+    }
+}
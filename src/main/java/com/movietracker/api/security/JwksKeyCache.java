@@ -0,0 +1,149 @@
+package com.movietracker.api.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache of a provider's JSON Web Key Set with one ready-made signature verifier per key ID.
+ * 
+ * <p>Verifiers are built once when the key set is fetched, so verifying an id_token is a
+ * map lookup plus the signature check. The key set is refreshed:
+ * <ul>
+ *   <li>in the background on a fixed schedule (driven by the owner via {@link #refresh()})</li>
+ *   <li>on demand when a token names a key ID that is not cached yet, e.g. right after the
+ *       provider rotated its keys; at most once per {@link #MIN_REFRESH_INTERVAL} and by a
+ *       single thread, with concurrent callers waiting for that one fetch</li>
+ * </ul>
+ * A failed fetch keeps the previously cached keys.
+ */
+public class JwksKeyCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyCache.class);
+    
+    static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    
+    private final URI jwkSetUri;
+    private final RestClient restClient;
+    private final long minRefreshNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    
+    private volatile Map<String, JWSVerifier> verifiers = Map.of();
+    private volatile long lastFetchNanos;
+    private volatile boolean fetched;
+    
+    public JwksKeyCache(URI jwkSetUri, RestClient restClient) {
+        this(jwkSetUri, restClient, MIN_REFRESH_INTERVAL);
+    }
+    
+    JwksKeyCache(URI jwkSetUri, RestClient restClient, Duration minRefreshInterval) {
+        this.jwkSetUri = jwkSetUri;
+        this.restClient = restClient;
+        this.minRefreshNanos = minRefreshInterval.toNanos();
+    }
+    
+    /**
+     * Verifier for the key ID, fetching the key set if the ID is unknown
+     * 
+     * @return the verifier, or {@code null} if the provider does not publish the key
+     */
+    public JWSVerifier verifierFor(String keyId) {
+        JWSVerifier verifier = verifiers.get(keyId);
+        if (verifier != null) {
+            return verifier;
+        }
+        refreshIfStale();
+        return verifiers.get(keyId);
+    }
+    
+    /**
+     * Fetch the key set now, unless another thread is already doing so
+     */
+    public void refresh() {
+        if (refreshLock.tryLock()) {
+            try {
+                fetch();
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+    
+    public URI getJwkSetUri() {
+        return jwkSetUri;
+    }
+    
+    int size() {
+        return verifiers.size();
+    }
+    
+    private void refreshIfStale() {
+        refreshLock.lock();
+        try {
+            // Another caller may have fetched while we waited for the lock
+            if (fetched && System.nanoTime() - lastFetchNanos < minRefreshNanos) {
+                return;
+            }
+            fetch();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    private void fetch() {
+        lastFetchNanos = System.nanoTime();
+        fetched = true;
+        try {
+            String body = restClient.get()
+                .uri(jwkSetUri)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(String.class);
+            if (body == null) {
+                logger.warn("JWKS fetch from {} returned no body", jwkSetUri);
+                return;
+            }
+            verifiers = buildVerifiers(JWKSet.parse(body));
+            logger.debug("Loaded {} signing keys from {}", verifiers.size(), jwkSetUri);
+        } catch (RestClientException | ParseException e) {
+            logger.warn("JWKS fetch from {} failed: {}", jwkSetUri, e.getMessage());
+        }
+    }
+    
+    private Map<String, JWSVerifier> buildVerifiers(JWKSet jwkSet) {
+        Map<String, JWSVerifier> built = new HashMap<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyID() == null || KeyUse.ENCRYPTION.equals(jwk.getKeyUse())) {
+                continue;
+            }
+            try {
+                if (jwk instanceof RSAKey rsaKey) {
+                    built.put(jwk.getKeyID(), new RSASSAVerifier(rsaKey));
+                } else if (jwk instanceof ECKey ecKey) {
+                    built.put(jwk.getKeyID(), new ECDSAVerifier(ecKey));
+                }
+            } catch (JOSEException e) {
+                logger.warn("Skipping unusable key {} from {}: {}", jwk.getKeyID(), jwkSetUri, e.getMessage());
+            }
+        }
+        return Map.copyOf(built);
+    }
+}
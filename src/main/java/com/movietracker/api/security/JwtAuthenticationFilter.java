@@ -1,6 +1,7 @@
 package com.movietracker.api.security;
 
 import com.movietracker.api.service.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +15,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -32,7 +34,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
         
         // Check if Authorization header exists and starts with "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -44,18 +45,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         
         try {
-            // Extract user email from JWT
-            userEmail = jwtService.extractUsername(jwt);
-            
-            // If user email exists and no authentication is set in context
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Skip verification entirely if the request is already authenticated
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
                 
-                // Validate token
-                if (jwtService.validateToken(jwt)) {
+                // Verify and parse the token in a single pass (served from cache for repeat tokens)
+                Optional<Claims> claims = jwtService.parseVerifiedClaims(jwt);
+                
+                if (claims.isPresent() && claims.get().getSubject() != null) {
+                    // Keep the token claims as a typed principal so resolvers need no user lookup
+                    AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims.get());
+                    
                     // Create authentication token
                     UsernamePasswordAuthenticationToken authToken = 
                         new UsernamePasswordAuthenticationToken(
-                            userEmail, 
+                            principal, 
                             null, 
                             new ArrayList<>() // No authorities for now, can be extended later
                         );
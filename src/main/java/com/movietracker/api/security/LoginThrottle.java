@@ -0,0 +1,169 @@
+package com.movietracker.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.movietracker.api.config.AuthConfig;
+import com.movietracker.api.exception.ServiceUnavailableException;
+import com.movietracker.api.util.StripedTokenBucket;
+import com.netflix.graphql.types.errors.ErrorDetail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles credential mutations ({@code login}, {@code register}) per client IP and per email,
+ * and the start of OAuth2 sign-ins per client IP.
+ * 
+ * <p>Checked before any password hashing, so a single client spraying attempts is shed
+ * without consuming BCrypt CPU. Both limits are {@link StripedTokenBucket}s with fixed
+ * memory; a rejected attempt surfaces as a retryable {@link ServiceUnavailableException}
+ * with {@code TOO_MANY_REQUESTS} and the time until the next attempt is allowed.
+ * 
+ * <p>Also keeps a short-TTL negative cache of emails that recently failed to match any
+ * account, so repeated attempts against unknown emails skip the user lookup. Both the cache
+ * and the email rate limit are keyed by the normalized email, so varying case or whitespace
+ * neither earns a fresh budget nor forces a fresh lookup. Since the lookup itself is
+ * case-sensitive, callers should only trust a cached miss when the email is also known to
+ * be free (see {@code UniquenessPrefilter}). The cache is per instance: an account created
+ * through another instance can be reported as unknown here for up to
+ * {@code unknown-email-ttl-seconds}.
+ * 
+ * <p>The OAuth2 sign-in limit is checked before a sign-in session is created, so a single
+ * client cannot fill the session store and crowd out everyone else's social sign-in.
+ * 
+ * <p>Exports {@code auth.throttle.rejected} tagged with the limit ({@code ip},
+ * {@code email} or {@code sign-in}) that rejected the attempt, and {@code auth.throttle.unknown-email.hits}.
+ */
+@Component
+public class LoginThrottle {
+    
+    private final boolean enabled;
+    private final StripedTokenBucket ipBuckets;
+    private final StripedTokenBucket emailBuckets;
+    private final StripedTokenBucket signInBuckets;
+    private final Cache<String, Boolean> unknownEmails;
+    
+    private final Counter ipRejected;
+    private final Counter emailRejected;
+    private final Counter signInRejected;
+    private final Counter unknownEmailHits;
+    
+    @Autowired
+    public LoginThrottle(AuthConfig authConfig, MeterRegistry meterRegistry) {
+        AuthConfig.Throttling config = authConfig.getThrottling();
+        this.enabled = config.isEnabled();
+        this.ipBuckets = new StripedTokenBucket(
+            config.getSlots(), config.getStripes(),
+            config.getIpBurst(), Duration.ofMinutes(1).dividedBy(config.getIpPerMinute())
+        );
+        this.emailBuckets = new StripedTokenBucket(
+            config.getSlots(), config.getStripes(),
+            config.getEmailBurst(), Duration.ofMinutes(1).dividedBy(config.getEmailPerMinute())
+        );
+        this.signInBuckets = new StripedTokenBucket(
+            config.getSlots(), config.getStripes(),
+            config.getSignInBurst(), Duration.ofMinutes(1).dividedBy(config.getSignInPerMinute())
+        );
+        this.unknownEmails = Caffeine.newBuilder()
+            .maximumSize(config.getUnknownEmailCacheSize())
+            .expireAfterWrite(Duration.ofSeconds(config.getUnknownEmailTtlSeconds()))
+            .build();
+        
+        this.ipRejected = rejectedCounter(meterRegistry, "ip");
+        this.emailRejected = rejectedCounter(meterRegistry, "email");
+        this.signInRejected = rejectedCounter(meterRegistry, "sign-in");
+        this.unknownEmailHits = Counter.builder("auth.throttle.unknown-email.hits").register(meterRegistry);
+    }
+    
+    /**
+     * Consume one attempt for the client IP and the email
+     * 
+     * @throws ServiceUnavailableException if either limit is exhausted
+     */
+    public void acquire(String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+        long wait = ipBuckets.tryAcquire(clientIp != null ? clientIp : "unknown");
+        if (wait > 0) {
+            ipRejected.increment();
+            throw tooManyAttempts(wait);
+        }
+        if (email != null) {
+            wait = emailBuckets.tryAcquire(normalize(email));
+            if (wait > 0) {
+                emailRejected.increment();
+                throw tooManyAttempts(wait);
+            }
+        }
+    }
+    
+    /**
+     * Consume one OAuth2 sign-in start for the client IP
+     * 
+     * @throws ServiceUnavailableException if the limit is exhausted
+     */
+    public void acquireSignIn(String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long wait = signInBuckets.tryAcquire(clientIp != null ? clientIp : "unknown");
+        if (wait > 0) {
+            signInRejected.increment();
+            throw tooManyAttempts(wait);
+        }
+    }
+    
+    /**
+     * Whether the email recently failed to match any account
+     */
+    public boolean isKnownUnknownEmail(String email) {
+        if (email == null || unknownEmails.getIfPresent(normalize(email)) == null) {
+            return false;
+        }
+        unknownEmailHits.increment();
+        return true;
+    }
+    
+    /**
+     * Remember that no account exists for the email
+     */
+    public void recordUnknownEmail(String email) {
+        if (email != null) {
+            unknownEmails.put(normalize(email), Boolean.TRUE);
+        }
+    }
+    
+    /**
+     * Forget a cached miss, e.g. after an account was created for the email
+     */
+    public void forgetUnknownEmail(String email) {
+        if (email != null) {
+            unknownEmails.invalidate(normalize(email));
+        }
+    }
+    
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static ServiceUnavailableException tooManyAttempts(long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return new ServiceUnavailableException(
+            "Too many attempts, please try again later",
+            ErrorDetail.Common.TOO_MANY_REQUESTS,
+            retryAfterSeconds
+        );
+    }
+    
+    private static Counter rejectedCounter(MeterRegistry registry, String limit) {
+        return Counter.builder("auth.throttle.rejected")
+            .tag("limit", limit)
+            .register(registry);
+    }
+}
@@ -61,8 +61,9 @@ public class OAuth2AuthenticationSuccessHandler implements AuthenticationSuccess
             // Process OAuth2 user and get or create user in our system
             User user = authenticationService.processOAuth2User(oAuth2User, registrationId);
         
-        // Generate JWT token
+        // Generate JWT tokens
         String token = jwtService.generateToken(user);
+        String refreshToken = jwtService.generateRefreshToken(user);
         
         // RAILWAY FIX: Pass auth data via URL parameters instead of cookies
         // Cross-domain cookies don't work between api.railway.app and web.railway.app subdomains
@@ -70,6 +71,7 @@ public class OAuth2AuthenticationSuccessHandler implements AuthenticationSuccess
                 user.getId(), user.getEmail(), user.getUsername());
         String encodedUserJson = URLEncoder.encode(userJson, StandardCharsets.UTF_8);
         String encodedToken = URLEncoder.encode(token, StandardCharsets.UTF_8);
+        String encodedRefreshToken = URLEncoder.encode(refreshToken, StandardCharsets.UTF_8);
         
         System.out.println("OAuth2 V1 Railway Fix: Passing auth data via URL parameters");
         System.out.println("Token length: " + token.length());
@@ -79,11 +81,12 @@ public class OAuth2AuthenticationSuccessHandler implements AuthenticationSuccess
         String targetUrl = UriComponentsBuilder.fromUriString(redirectUri)
                 .queryParam("success", "true")
                 .queryParam("token", encodedToken)
+                .queryParam("refreshToken", encodedRefreshToken)
                 .queryParam("user", encodedUserJson)
                 .build().toUriString();
         
         // Debug logging
-        System.out.println("OAuth2 Success - Redirecting to: " + targetUrl);
+        System.out.println("OAuth2 Success - Redirecting to: " + redirectUri);
         System.out.println("OAuth2 Success - User: " + user.getEmail());
         System.out.println("OAuth2 Success - Registration ID: " + registrationId);
         
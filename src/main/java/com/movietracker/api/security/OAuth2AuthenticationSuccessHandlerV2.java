@@ -94,14 +94,15 @@ public class OAuth2AuthenticationSuccessHandlerV2 implements AuthenticationSucce
             // Process OAuth2 user and get or create user in our system
             User user = authenticationService.processOAuth2User(oAuth2User, registrationId);
             
-            // Generate JWT token
+            // Generate JWT tokens
             String token = jwtService.generateToken(user);
+            String refreshToken = jwtService.generateRefreshToken(user);
             
             // Store authentication result in session
             String userJson = String.format("{\"id\":\"%s\",\"email\":\"%s\",\"username\":\"%s\"}", 
                     user.getId(), user.getEmail(), user.getUsername());
             
-            sessionService.storeAuthenticationResult(sessionId, user.getId(), token, userJson);
+            sessionService.storeAuthenticationResult(sessionId, user.getId(), token, refreshToken, userJson);
 
             // Redirect to frontend callback with clean URL (no sensitive data)
             String targetUrl = UriComponentsBuilder.fromUriString(redirectUri)
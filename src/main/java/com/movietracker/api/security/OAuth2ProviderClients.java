@@ -0,0 +1,201 @@
+package com.movietracker.api.security;
+
+import com.movietracker.api.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Shared outbound HTTP client for all OAuth2 provider traffic: token exchange, userinfo
+ * and JWKS fetches.
+ *
+ * <p>Requests are routed by host to the provider (client registration) that owns it. Each
+ * provider gets:
+ * <ul>
+ *   <li>its own HTTP/2-capable {@link HttpClient}, i.e. its own connection pool, with a
+ *       connect timeout and a per-request read deadline</li>
+ *   <li>a bulkhead of at most {@code maxConcurrentRequests} in-flight calls</li>
+ *   <li>a {@link CircuitBreaker} that opens after consecutive failures (I/O errors,
+ *       timeouts, 5xx and 429 responses)</li>
+ * </ul>
+ * A call rejected by the bulkhead or the open breaker fails immediately with
+ * {@link ProviderUnavailableException}, so a slow provider cannot pin request threads.
+ *
+ * <p>Use this as both the request factory and an interceptor of a {@code RestClient} or
+ * {@code RestTemplate}. Exported metrics:
+ * <ul>
+ *   <li>{@code oauth2.provider.requests} - call latency, tagged by provider and outcome</li>
+ *   <li>{@code oauth2.provider.rejected} - calls shed, tagged by provider and reason</li>
+ * </ul>
+ */
+public class OAuth2ProviderClients implements ClientHttpRequestFactory, ClientHttpRequestInterceptor {
+    
+    private final Map<String, String> providersByHost;
+    private final Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Provider> providers = new ConcurrentHashMap<>();
+    
+    public OAuth2ProviderClients(Map<String, String> providersByHost, Settings settings, MeterRegistry meterRegistry) {
+        this.providersByHost = Map.copyOf(providersByHost);
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Hosts of the registrations' token, userinfo and JWKS endpoints, mapped to the registration ID
+     */
+    public static Map<String, String> providerHosts(Iterable<ClientRegistration> registrations) {
+        Map<String, String> hosts = new HashMap<>();
+        for (ClientRegistration registration : registrations) {
+            ClientRegistration.ProviderDetails details = registration.getProviderDetails();
+            for (String uri : new String[] {
+                    details.getTokenUri(), details.getUserInfoEndpoint().getUri(), details.getJwkSetUri()}) {
+                if (uri != null && !uri.isBlank()) {
+                    hosts.putIfAbsent(URI.create(uri).getHost(), registration.getRegistrationId());
+                }
+            }
+        }
+        return hosts;
+    }
+    
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return provider(uri).requestFactory.createRequest(uri, httpMethod);
+    }
+    
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Provider provider = provider(request.getURI());
+        if (!provider.bulkhead.tryAcquire()) {
+            provider.bulkheadRejected.increment();
+            throw new ProviderUnavailableException(provider.name + " has too many calls in flight");
+        }
+        try {
+            if (!provider.circuitBreaker.tryAcquire()) {
+                provider.circuitRejected.increment();
+                throw new ProviderUnavailableException(provider.name + " circuit is open");
+            }
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                int status = response.getStatusCode().value();
+                if (status >= 500 || status == 429) {
+                    provider.record(start, false);
+                } else {
+                    provider.record(start, true);
+                }
+                return response;
+            } catch (IOException | RuntimeException e) {
+                provider.record(start, false);
+                throw e;
+            }
+        } finally {
+            provider.bulkhead.release();
+        }
+    }
+    
+    CircuitBreaker.State circuitState(String providerName) {
+        Provider provider = providers.get(providerName);
+        return provider == null ? CircuitBreaker.State.CLOSED : provider.circuitBreaker.state();
+    }
+    
+    private Provider provider(URI uri) {
+        String host = uri.getHost();
+        // Hosts outside any registration are isolated from each other as well
+        String name = providersByHost.getOrDefault(host, host);
+        return providers.computeIfAbsent(name, this::createProvider);
+    }
+    
+    private Provider createProvider(String name) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(settings.connectTimeout())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(settings.readTimeout());
+        return new Provider(name, requestFactory, settings, meterRegistry);
+    }
+    
+    /**
+     * Client limits applied to every provider
+     */
+    public record Settings(Duration connectTimeout, Duration readTimeout, int maxConcurrentRequests,
+                           int failureThreshold, Duration openDuration) {
+    }
+    
+    /**
+     * Signals a provider call that was shed without being sent
+     */
+    public static class ProviderUnavailableException extends IOException {
+        
+        public ProviderUnavailableException(String message) {
+            super(message);
+        }
+    }
+    
+    private static final class Provider {
+        
+        private final String name;
+        private final JdkClientHttpRequestFactory requestFactory;
+        private final Semaphore bulkhead;
+        private final CircuitBreaker circuitBreaker;
+        private final Timer successTimer;
+        private final Timer failureTimer;
+        private final Counter bulkheadRejected;
+        private final Counter circuitRejected;
+        
+        Provider(String name, JdkClientHttpRequestFactory requestFactory, Settings settings, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.requestFactory = requestFactory;
+            this.bulkhead = new Semaphore(settings.maxConcurrentRequests());
+            this.circuitBreaker = new CircuitBreaker(settings.failureThreshold(), settings.openDuration());
+            this.successTimer = Timer.builder("oauth2.provider.requests")
+                .tag("provider", name)
+                .tag("outcome", "success")
+                .register(meterRegistry);
+            this.failureTimer = Timer.builder("oauth2.provider.requests")
+                .tag("provider", name)
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+            this.bulkheadRejected = Counter.builder("oauth2.provider.rejected")
+                .tag("provider", name)
+                .tag("reason", "bulkhead_full")
+                .register(meterRegistry);
+            this.circuitRejected = Counter.builder("oauth2.provider.rejected")
+                .tag("provider", name)
+                .tag("reason", "circuit_open")
+                .register(meterRegistry);
+        }
+        
+        void record(long startNanos, boolean success) {
+            long elapsed = System.nanoTime() - startNanos;
+            if (success) {
+                circuitBreaker.onSuccess();
+                successTimer.record(Duration.ofNanos(elapsed));
+            } else {
+                circuitBreaker.onFailure();
+                failureTimer.record(Duration.ofNanos(elapsed));
+            }
+        }
+    }
+}
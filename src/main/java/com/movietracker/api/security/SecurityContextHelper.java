@@ -20,16 +20,31 @@ public class SecurityContextHelper {
     }
     
     /**
-     * Get the currently authenticated user
+     * Get the token-backed principal of the current request, if any.
+     * Answered from the security context only, without any I/O.
+     */
+    public Optional<AuthenticatedUser> getCurrentPrincipal() {
+        Authentication authentication = getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return Optional.of(principal);
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Get the currently authenticated user (loads the full entity from the database)
      */
     public Optional<User> getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        
-        if (authentication == null || !authentication.isAuthenticated() || 
-            "anonymousUser".equals(authentication.getPrincipal())) {
+        Authentication authentication = getAuthentication();
+        if (authentication == null) {
             return Optional.empty();
         }
         
+        // Prefer the primary key lookup when the token carried the user ID
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal && principal.getUserId() != null) {
+            return userRepository.findById(principal.getUserId());
+        }
+        
         // The principal should be the user's email (username)
         String email = authentication.getName();
         return userRepository.findByEmail(email);
@@ -39,6 +54,10 @@ public class SecurityContextHelper {
      * Get the currently authenticated user ID
      */
     public Optional<String> getCurrentUserId() {
+        Optional<AuthenticatedUser> principal = getCurrentPrincipal();
+        if (principal.isPresent() && principal.get().getUserId() != null) {
+            return Optional.of(principal.get().getUserId());
+        }
         return getCurrentUser().map(User::getId);
     }
     
@@ -46,9 +65,18 @@ public class SecurityContextHelper {
      * Check if user is authenticated
      */
     public boolean isAuthenticated() {
+        return getAuthentication() != null;
+    }
+    
+    /**
+     * Current authentication, or null for anonymous requests
+     */
+    private Authentication getAuthentication() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication != null && 
-               authentication.isAuthenticated() && 
-               !"anonymousUser".equals(authentication.getPrincipal());
+        if (authentication == null || !authentication.isAuthenticated() || 
+            "anonymousUser".equals(authentication.getPrincipal())) {
+            return null;
+        }
+        return authentication;
     }
 }
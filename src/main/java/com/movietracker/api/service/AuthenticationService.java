@@ -5,19 +5,30 @@ import com.movietracker.api.dto.LoginInput;
 import com.movietracker.api.dto.RegisterInput;
 import com.movietracker.api.entity.User;
 import com.movietracker.api.exception.AuthenticationException;
+import com.movietracker.api.exception.ServiceUnavailableException;
 import com.movietracker.api.repository.UserRepository;
+import com.movietracker.api.security.AuthenticatedUser;
+import com.movietracker.api.security.LoginThrottle;
 import com.movietracker.api.security.OAuth2UserInfo;
 import com.movietracker.api.security.OAuth2UserInfoFactory;
 import com.netflix.graphql.types.errors.ErrorType;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service responsible for user authentication operations including registration and login.
@@ -26,11 +37,14 @@ import java.util.Optional;
  * <ul>
  *   <li>User registration with validation of unique email/username</li>
  *   <li>User authentication with credential verification</li>
- *   <li>JWT token generation for authenticated users</li>
+ *   <li>JWT access and refresh token issuance, rotation and revocation</li>
  *   <li>Password security using BCrypt hashing</li>
  * </ul>
  * 
- * <p>All methods are transactional to ensure data consistency.
+ * <p>Methods are transactional to ensure data consistency, except {@link #register} and
+ * {@link #login}: those hash passwords, which can wait on the bounded hashing pool, so they
+ * run their database work in short transactions around the hash instead of holding a
+ * pooled connection for the whole call.
  * 
  * @author Movie Tracker API Team
  * @since 1.0.0
@@ -39,17 +53,32 @@ import java.util.Optional;
 @Transactional
 public class AuthenticationService {
     
+    // Usernames probed per query when picking a free one for a new OAuth2 user
+    private static final int USERNAME_CANDIDATES = 16;
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final UniquenessPrefilter uniquenessPrefilter;
+    private final LoginThrottle loginThrottle;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
     
     @Autowired
     public AuthenticationService(UserRepository userRepository, 
                                PasswordEncoder passwordEncoder,
-                               JwtService jwtService) {
+                               JwtService jwtService,
+                               UniquenessPrefilter uniquenessPrefilter,
+                               LoginThrottle loginThrottle,
+                               PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.uniquenessPrefilter = uniquenessPrefilter;
+        this.loginThrottle = loginThrottle;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
     }
     
     /**
@@ -57,34 +86,43 @@ public class AuthenticationService {
      * 
      * <p>This method:
      * <ul>
-     *   <li>Validates email and username uniqueness</li>
+     *   <li>Validates email and username uniqueness (skipping the database probe when the
+     *       in-memory pre-filter proves the value is free)</li>
      *   <li>Securely hashes the password using BCrypt</li>
      *   <li>Creates a new active user account</li>
-     *   <li>Generates a JWT token for immediate authentication</li>
+     *   <li>Generates access and refresh tokens for immediate authentication</li>
      * </ul>
      * 
+     * <p>The password is hashed with no transaction open; the uniqueness checks and the
+     * insert each run in their own short transaction.
+     * 
      * @param input the registration input containing user details
-     * @return an AuthPayload containing the JWT token and user information
+     * @return an AuthPayload containing the JWT tokens and user information
      * @throws AuthenticationException if email or username already exists
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthPayload register(RegisterInput input) {
-        // Validate email uniqueness
-        if (userRepository.existsByEmail(input.getEmail())) {
-            throw new AuthenticationException(
-                "Email already exists", 
-                ErrorType.BAD_REQUEST
-            );
-        }
-        
-        // Validate username uniqueness
-        if (userRepository.existsByUsername(input.getUsername())) {
-            throw new AuthenticationException(
-                "Username already exists", 
-                ErrorType.BAD_REQUEST
-            );
-        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            // Validate email uniqueness
+            if (uniquenessPrefilter.mightContainEmail(input.getEmail())
+                    && userRepository.existsByEmail(input.getEmail())) {
+                throw new AuthenticationException(
+                    "Email already exists", 
+                    ErrorType.BAD_REQUEST
+                );
+            }
+            
+            // Validate username uniqueness
+            if (uniquenessPrefilter.mightContainUsername(input.getUsername())
+                    && userRepository.existsByUsername(input.getUsername())) {
+                throw new AuthenticationException(
+                    "Username already exists", 
+                    ErrorType.BAD_REQUEST
+                );
+            }
+        });
         
-        // Create new user
+        // Create new user, hashing outside any transaction
         User user = new User();
         user.setEmail(input.getEmail());
         user.setUsername(input.getUsername());
@@ -94,40 +132,141 @@ public class AuthenticationService {
         user.setIsActive(true);
         
         // Save user
-        User savedUser = userRepository.save(user);
+        User savedUser = writeTransaction.execute(status -> userRepository.save(user));
+        uniquenessPrefilter.record(savedUser);
+        loginThrottle.forgetUnknownEmail(savedUser.getEmail());
         
-        // Generate token
-        String token = jwtService.generateToken(savedUser);
-        
-        return new AuthPayload(token, savedUser);
+        return issueTokens(savedUser);
     }
     
     /**
      * Authenticate user login
+     * 
+     * <p>The user is loaded in a short read-only transaction and the password verified with
+     * no transaction open; an outdated hash is replaced in a separate short transaction.
+     * 
+     * <p>An email that recently matched no account is rejected without a lookup while the
+     * uniqueness pre-filter also reports it free. Both are per instance, so for up to
+     * {@code app.auth.throttling.unknown-email-ttl-seconds} after an account is registered
+     * through another instance, logging in to it here can still fail with "Invalid credentials".
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthPayload login(LoginInput input) {
+        // Repeat attempts against an email that recently matched no account skip the lookup,
+        // unless the email may exist after all: a case variant of it or a new registration
+        if (loginThrottle.isKnownUnknownEmail(input.getEmail())
+                && !uniquenessPrefilter.mightContainEmail(input.getEmail())) {
+            throw new AuthenticationException("Invalid credentials");
+        }
+        
         // Find user by email
-        User user = userRepository.findByEmail(input.getEmail())
-            .orElseThrow(() -> new AuthenticationException("Invalid credentials"));
+        User user = readOnlyTransaction.execute(status -> userRepository.findByEmail(input.getEmail()))
+            .orElseThrow(() -> {
+                loginThrottle.recordUnknownEmail(input.getEmail());
+                return new AuthenticationException("Invalid credentials");
+            });
         
         // Check if user is active
         if (!user.getIsActive()) {
             throw new AuthenticationException("Account is inactive");
         }
         
+        // OAuth2-only accounts have no password to verify
+        if (user.getPasswordHash() == null) {
+            throw new AuthenticationException("Invalid credentials");
+        }
+        
         // Verify password
         if (!passwordEncoder.matches(input.getPassword(), user.getPasswordHash())) {
             throw new AuthenticationException("Invalid credentials");
         }
         
+        // Transparently re-hash passwords stored outside the current hashing policy
+        rehashIfNeeded(user, input.getPassword());
+        
         // Update last login (optional for now)
         // user.setLastLogin(LocalDateTime.now());
         // userRepository.save(user);
         
-        // Generate token
+        return issueTokens(user);
+    }
+    
+    /**
+     * Exchange a refresh token for a new access and refresh token pair.
+     * 
+     * <p>The presented refresh token is revoked as part of the exchange (rotation), so a
+     * stolen refresh token stops working as soon as either party uses it.
+     * 
+     * @throws AuthenticationException if the refresh token is invalid, expired, already
+     *         used, or the account is no longer active
+     */
+    public AuthPayload refreshToken(String refreshToken) {
+        Claims claims = jwtService.consumeRefreshToken(refreshToken)
+            .orElseThrow(() -> new AuthenticationException("Invalid refresh token"));
+        
+        User user = userRepository.findById(claims.get("user_id", String.class))
+            .orElseThrow(() -> new AuthenticationException("Invalid refresh token"));
+        
+        if (!user.getIsActive()) {
+            throw new AuthenticationException("Account is inactive");
+        }
+        
+        // The new refresh token continues the consumed token's family
+        String token = jwtService.generateToken(user);
+        String nextRefreshToken = jwtService.generateRefreshToken(user, claims.get(JwtService.FAMILY_CLAIM, String.class));
+        return new AuthPayload(token, nextRefreshToken, user);
+    }
+    
+    /**
+     * Revoke the caller's access token and, if given, the refresh token family of their
+     * sign-in.
+     * 
+     * <p>The refresh token is its own credential: its family is revoked for the user it was
+     * issued to, so logout still ends the sign-in after the access token has expired.
+     * 
+     * @param principal the authenticated caller, if the request carried a valid access token
+     * @param refreshToken the refresh token to revoke, may be null
+     * @return {@code true} if an access token or a refresh token family was revoked
+     */
+    public boolean logout(Optional<AuthenticatedUser> principal, String refreshToken) {
+        boolean revokedAccessToken = principal
+            .filter(p -> p.getTokenId() != null)
+            .map(p -> {
+                jwtService.revoke(p.getTokenId(), p.getExpiresAt());
+                return true;
+            })
+            .orElse(false);
+        boolean revokedRefreshToken = refreshToken != null && !refreshToken.isBlank()
+            && jwtService.revokeRefreshToken(refreshToken);
+        return revokedAccessToken || revokedRefreshToken;
+    }
+    
+    /**
+     * Generate access and refresh tokens for user
+     */
+    public AuthPayload issueTokens(User user) {
         String token = jwtService.generateToken(user);
+        String refreshToken = jwtService.generateRefreshToken(user);
         
-        return new AuthPayload(token, user);
+        return new AuthPayload(token, refreshToken, user);
+    }
+    
+    /**
+     * Re-hash the password with the current algorithm and cost if the stored hash is outdated.
+     * 
+     * <p>Best effort: if the hashing pool is saturated the upgrade is skipped and
+     * retried on a later login.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            return;
+        }
+        try {
+            user.setPasswordHash(passwordEncoder.encode(rawPassword));
+            writeTransaction.executeWithoutResult(status -> userRepository.save(user));
+        } catch (ServiceUnavailableException e) {
+            // Keep the current hash, it still verifies
+        }
     }
     
     /**
@@ -136,11 +275,14 @@ public class AuthenticationService {
      * <p>This method:
      * <ul>
      *   <li>Extracts user information from OAuth2 provider</li>
-     *   <li>Finds existing user or creates new account</li>
-     *   <li>Updates user information from OAuth2 provider</li>
+     *   <li>Looks the user up by provider identity or email in a single query</li>
+     *   <li>Updates the existing account or creates a new one (one write either way)</li>
      *   <li>Returns the user for JWT token generation</li>
      * </ul>
      * 
+     * <p>Social accounts are created without a password hash; they can only sign in
+     * through their provider.
+     * 
      * @param oAuth2User the OAuth2 user from provider
      * @param registrationId the OAuth2 provider ID (google, facebook, apple)
      * @return the User entity (existing or newly created)
@@ -156,12 +298,15 @@ public class AuthenticationService {
             throw new AuthenticationException("Email not found from OAuth2 provider");
         }
         
-        // Find existing user by email
-        Optional<User> existingUser = userRepository.findByEmail(userInfo.getEmail());
+        // Provider identity first, then email, from one round trip
+        User user = selectOAuth2Candidate(
+            userRepository.findOAuth2Candidates(registrationId, userInfo.getId(), userInfo.getEmail()),
+            registrationId,
+            userInfo.getId()
+        );
         
-        User user;
-        if (existingUser.isPresent()) {
-            user = existingUser.get();
+        boolean created = user == null;
+        if (!created) {
             // Update user with OAuth2 info if needed
             user = updateExistingUser(user, userInfo, registrationId);
         } else {
@@ -172,28 +317,40 @@ public class AuthenticationService {
         // Update last login
         user.setLastLogin(LocalDateTime.now());
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (created) {
+            uniquenessPrefilter.record(savedUser);
+        }
+        return savedUser;
+    }
+    
+    /**
+     * Prefer the account linked to the provider identity over an email match.
+     */
+    private User selectOAuth2Candidate(List<User> candidates, String provider, String providerId) {
+        User emailMatch = null;
+        for (User candidate : candidates) {
+            if (provider.equals(candidate.getProvider()) && providerId != null
+                    && providerId.equals(candidate.getProviderId())) {
+                return candidate;
+            }
+            emailMatch = candidate;
+        }
+        return emailMatch;
     }
     
     /**
      * Create a new user from OAuth2 information.
      */
     private User createUserFromOAuth2(OAuth2UserInfo userInfo, String provider) {
-        User user = new User();
-        user.setEmail(userInfo.getEmail());
+        String username = generateUsernameFromEmail(userInfo.getEmail());
+        
+        // OAuth2 users don't have a password, so there is nothing to hash
+        User user = new User(userInfo.getEmail(), username, provider, userInfo.getId());
         user.setFirstName(userInfo.getFirstName());
         user.setLastName(userInfo.getLastName());
-        user.setProvider(provider);
-        user.setProviderId(userInfo.getId());
         user.setIsActive(true);
         
-        // Generate a unique username from email if not provided
-        String username = generateUsernameFromEmail(userInfo.getEmail());
-        user.setUsername(username);
-        
-        // OAuth2 users don't have a password, set a random one
-        user.setPasswordHash(passwordEncoder.encode(java.util.UUID.randomUUID().toString()));
-        
         return user;
     }
     
@@ -220,17 +377,26 @@ public class AuthenticationService {
     
     /**
      * Generate a unique username from email.
+     * 
+     * <p>Checks candidates ({@code base}, {@code base1}, {@code base2}, ...) in windows of
+     * {@value #USERNAME_CANDIDATES} with one {@code IN} query each and picks the first free one,
+     * so a common local part never loads more than a window of usernames. The unique
+     * constraint on {@code username} remains the final arbiter.
      */
     private String generateUsernameFromEmail(String email) {
         String baseUsername = email.substring(0, email.indexOf("@"));
-        String username = baseUsername;
-        int counter = 1;
         
-        while (userRepository.existsByUsername(username)) {
-            username = baseUsername + counter;
-            counter++;
+        for (int start = 0; ; start += USERNAME_CANDIDATES) {
+            List<String> candidates = new ArrayList<>(USERNAME_CANDIDATES);
+            for (int counter = start; counter < start + USERNAME_CANDIDATES; counter++) {
+                candidates.add(counter == 0 ? baseUsername : baseUsername + counter);
+            }
+            Set<String> taken = new HashSet<>(userRepository.findTakenUsernames(candidates));
+            for (String candidate : candidates) {
+                if (!taken.contains(candidate)) {
+                    return candidate;
+                }
+            }
         }
-        
-        return username;
     }
 }
@@ -0,0 +1,219 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.exception.ServiceUnavailableException;
+import com.movietracker.api.service.OAuth2SessionService.OAuth2SessionData;
+import com.movietracker.api.util.HashedTimingWheel;
+import com.netflix.graphql.types.errors.ErrorDetail;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-instance {@link OAuth2SessionStore} backed by a {@link ConcurrentHashMap}.
+ * 
+ * <p>Only suitable when a single instance serves the whole OAuth2 flow. The store holds at
+ * most {@code maxSessions} sessions. Once full, a new session evicts the oldest session
+ * that has not been authenticated yet, so a flood of abandoned sign-ins cannot lock out
+ * new ones for the whole session TTL. Only when every held session is authenticated and
+ * waiting for its exchange is a new session rejected with a retryable
+ * {@link ServiceUnavailableException}. Admission order is tracked in a queue that is
+ * compacted whenever it grows past twice the capacity.
+ * 
+ * <p>Expiry uses a {@link HashedTimingWheel} keyed by session ID: each session is scheduled
+ * once on insert and removed when its tick elapses, so expiring sessions costs work
+ * proportional to the sessions that are due, never a scan of the whole map. The wheel is
+ * advanced on inserts and by {@link #purgeExpired(long)}. Taken and evicted sessions leave
+ * their entry behind, so like the admission queue the wheel is compacted whenever it holds
+ * more than twice the capacity; memory stays bounded by {@code maxSessions} however many
+ * sign-ins are started and abandoned within one TTL.
+ * 
+ * <p>Exported metrics: {@code oauth2.sessions.live}, {@code oauth2.sessions.expired},
+ * {@code oauth2.sessions.evicted} and {@code oauth2.sessions.rejected}.
+ */
+public class InMemoryOAuth2SessionStore implements OAuth2SessionStore, MeterBinder {
+    
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    
+    private static final Duration TICK = Duration.ofSeconds(1);
+    private static final int WHEEL_SIZE = 1024;
+    private static final long RETRY_AFTER_SECONDS = 5;
+    
+    private final Map<String, OAuth2SessionData> sessions = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<String> expiryWheel = new HashedTimingWheel<>(TICK, WHEEL_SIZE);
+    private final int maxSessions;
+    
+    // Session IDs oldest first; may hold IDs of sessions that are already gone
+    private final Queue<String> admissionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock admissionOrderLock = new ReentrantLock();
+    
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    
+    public InMemoryOAuth2SessionStore() {
+        this(DEFAULT_MAX_SESSIONS);
+    }
+    
+    public InMemoryOAuth2SessionStore(int maxSessions) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be positive");
+        }
+        this.maxSessions = maxSessions;
+    }
+    
+    @Override
+    public void insert(OAuth2SessionData session) {
+        if (expiryWheel.isAdvanceDue()) {
+            expireDueSessions();
+        }
+        // Reserve a slot first so concurrent inserts can never exceed the bound
+        while (live.incrementAndGet() > maxSessions) {
+            live.decrementAndGet();
+            if (!evictOldestPending()) {
+                rejected.incrementAndGet();
+                throw new ServiceUnavailableException(
+                    "Too many sign-ins in progress, please try again shortly",
+                    ErrorDetail.Common.THROTTLED_CONCURRENCY,
+                    RETRY_AFTER_SECONDS
+                );
+            }
+        }
+        if (sessions.putIfAbsent(session.getSessionId(), session) != null) {
+            live.decrementAndGet();
+            throw new IllegalStateException("Duplicate OAuth2 session ID");
+        }
+        expiryWheel.schedule(session.getSessionId(), session.getExpiresAt());
+        if (expiryWheel.size() > 2 * maxSessions) {
+            expiryWheel.removeIf(sessionId -> !sessions.containsKey(sessionId));
+        }
+        admissionOrder.add(session.getSessionId());
+        if (queued.incrementAndGet() > 2 * maxSessions) {
+            compactAdmissionOrder();
+        }
+    }
+    
+    @Override
+    public boolean replace(OAuth2SessionData expected, OAuth2SessionData updated) {
+        // Expiry derives from the immutable creation time, so the new state tells us
+        if (updated.isExpired()) {
+            return false;
+        }
+        return sessions.replace(expected.getSessionId(), expected, updated);
+    }
+    
+    @Override
+    public Optional<OAuth2SessionData> find(String sessionId) {
+        return Optional.ofNullable(sessions.get(sessionId))
+            .filter(session -> !session.isExpired());
+    }
+    
+    @Override
+    public Optional<OAuth2SessionData> take(String sessionId) {
+        OAuth2SessionData session = sessions.remove(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        live.decrementAndGet();
+        return Optional.of(session).filter(taken -> !taken.isExpired());
+    }
+    
+    @Override
+    public int purgeExpired(long nowMillis) {
+        return expireDueSessions();
+    }
+    
+    public int size() {
+        return live.get();
+    }
+    
+    int scheduledExpiries() {
+        return expiryWheel.size();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("oauth2.sessions.live", live, AtomicInteger::get)
+            .description("OAuth2 sign-in sessions currently held in memory")
+            .register(registry);
+        FunctionCounter.builder("oauth2.sessions.expired", expired, AtomicLong::get)
+            .description("OAuth2 sessions removed after expiring unused")
+            .register(registry);
+        FunctionCounter.builder("oauth2.sessions.evicted", evicted, AtomicLong::get)
+            .description("Unauthenticated OAuth2 sessions evicted to admit newer ones")
+            .register(registry);
+        FunctionCounter.builder("oauth2.sessions.rejected", rejected, AtomicLong::get)
+            .description("OAuth2 sessions rejected because every held session was authenticated")
+            .register(registry);
+    }
+    
+    /**
+     * Remove the oldest session that has not been authenticated yet
+     * 
+     * @return {@code false} if there was none
+     */
+    private boolean evictOldestPending() {
+        admissionOrderLock.lock();
+        try {
+            String sessionId;
+            while ((sessionId = admissionOrder.poll()) != null) {
+                queued.decrementAndGet();
+                // Taken and expired sessions are gone; authenticated ones are about to be exchanged
+                OAuth2SessionData current = sessions.get(sessionId);
+                if (current != null && !current.isAuthenticated() && sessions.remove(sessionId, current)) {
+                    live.decrementAndGet();
+                    evicted.incrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            admissionOrderLock.unlock();
+        }
+    }
+    
+    /**
+     * Drop IDs of sessions that are gone, so the queue stays within twice the capacity
+     */
+    private void compactAdmissionOrder() {
+        if (!admissionOrderLock.tryLock()) {
+            return;
+        }
+        try {
+            admissionOrder.removeIf(sessionId -> !sessions.containsKey(sessionId));
+            queued.set(admissionOrder.size());
+        } finally {
+            admissionOrderLock.unlock();
+        }
+    }
+    
+    private int expireDueSessions() {
+        int[] removed = {0};
+        expiryWheel.advance(sessionId -> {
+            // Sessions already exchanged are simply gone; replaced ones share the same expiry
+            OAuth2SessionData current = sessions.get(sessionId);
+            while (current != null && current.isExpired()) {
+                if (sessions.remove(sessionId, current)) {
+                    live.decrementAndGet();
+                    expired.incrementAndGet();
+                    removed[0]++;
+                    return;
+                }
+                current = sessions.get(sessionId);
+            }
+        });
+        return removed[0];
+    }
+}
@@ -0,0 +1,178 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.security.AesGcmCipher;
+import com.movietracker.api.service.OAuth2SessionService.OAuth2SessionData;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link OAuth2SessionStore} backed by the {@code oauth2_sessions} table, shared by all
+ * instances that use the same database.
+ * 
+ * <p>The table is mapped by {@link com.movietracker.api.entity.OAuth2Session} and created
+ * with the rest of the JPA schema. {@link #take(String)} is a single delete-returning statement, so only one instance
+ * (and one request) can ever exchange a given session: {@code DELETE ... RETURNING} on
+ * PostgreSQL and {@code SELECT ... FROM OLD TABLE (DELETE ...)} on H2. Other databases
+ * fall back to a read followed by a delete that only the winning caller sees succeed.
+ * 
+ * <p>{@link #replace(OAuth2SessionData, OAuth2SessionData)} is an optimistic update on the
+ * {@code version} column.
+ * 
+ * <p>The access and refresh tokens of authenticated sessions are stored encrypted with
+ * {@link AesGcmCipher}, bound to their session ID and column, so read access to the table
+ * is not enough to replay a sign-in. A value that fails to decrypt (e.g. written under a
+ * different JWT secret) reads as absent.
+ */
+public class JdbcOAuth2SessionStore implements OAuth2SessionStore {
+    
+    private static final String COLUMNS =
+        "session_id, state, code_verifier, provider, created_at, expires_at, version, "
+            + "user_id, token, refresh_token, user_data, authenticated";
+    
+    private static final String KEY_LABEL = "oauth2-session-tokens";
+    
+    private enum Dialect { POSTGRESQL, H2, GENERIC }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+    private final AesGcmCipher cipher;
+    
+    private final RowMapper<OAuth2SessionData> rowMapper = (rs, rowNum) -> {
+        String sessionId = rs.getString("session_id");
+        return new OAuth2SessionData(
+            sessionId,
+            rs.getString("state"),
+            rs.getString("code_verifier"),
+            rs.getString("provider"),
+            rs.getLong("created_at"),
+            rs.getInt("version"),
+            rs.getString("user_id"),
+            decrypt(rs.getString("token"), "token", sessionId),
+            decrypt(rs.getString("refresh_token"), "refresh_token", sessionId),
+            rs.getString("user_data"),
+            rs.getBoolean("authenticated")
+        );
+    };
+    
+    /**
+     * @param secret the JWT signing secret, from which the token column key is derived
+     */
+    public JdbcOAuth2SessionStore(JdbcTemplate jdbcTemplate, String secret) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = detectDialect(jdbcTemplate);
+        this.cipher = new AesGcmCipher(secret, KEY_LABEL);
+    }
+    
+    @Override
+    public void insert(OAuth2SessionData session) {
+        jdbcTemplate.update(
+            "INSERT INTO oauth2_sessions (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            session.getSessionId(),
+            session.getState(),
+            session.getCodeVerifier(),
+            session.getProvider(),
+            session.getCreatedAt(),
+            session.getExpiresAt(),
+            session.getVersion(),
+            session.getUserId(),
+            encrypt(session.getToken(), "token", session.getSessionId()),
+            encrypt(session.getRefreshToken(), "refresh_token", session.getSessionId()),
+            session.getUserData(),
+            session.isAuthenticated()
+        );
+    }
+    
+    @Override
+    public boolean replace(OAuth2SessionData expected, OAuth2SessionData updated) {
+        return jdbcTemplate.update(
+            "UPDATE oauth2_sessions SET version = ?, user_id = ?, token = ?, refresh_token = ?, "
+                + "user_data = ?, authenticated = ? "
+                + "WHERE session_id = ? AND version = ? AND expires_at > ?",
+            updated.getVersion(),
+            updated.getUserId(),
+            encrypt(updated.getToken(), "token", expected.getSessionId()),
+            encrypt(updated.getRefreshToken(), "refresh_token", expected.getSessionId()),
+            updated.getUserData(),
+            updated.isAuthenticated(),
+            expected.getSessionId(),
+            expected.getVersion(),
+            System.currentTimeMillis()
+        ) == 1;
+    }
+    
+    @Override
+    public Optional<OAuth2SessionData> find(String sessionId) {
+        List<OAuth2SessionData> rows = jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM oauth2_sessions WHERE session_id = ? AND expires_at > ?",
+            rowMapper,
+            sessionId,
+            System.currentTimeMillis()
+        );
+        return rows.stream().findFirst();
+    }
+    
+    @Override
+    public Optional<OAuth2SessionData> take(String sessionId) {
+        List<OAuth2SessionData> rows = switch (dialect) {
+            case POSTGRESQL -> jdbcTemplate.query(
+                "DELETE FROM oauth2_sessions WHERE session_id = ? RETURNING " + COLUMNS,
+                rowMapper, sessionId);
+            case H2 -> jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM OLD TABLE (DELETE FROM oauth2_sessions WHERE session_id = ?)",
+                rowMapper, sessionId);
+            case GENERIC -> takeWithSeparateDelete(sessionId);
+        };
+        return rows.stream().findFirst().filter(session -> !session.isExpired());
+    }
+    
+    @Override
+    public int purgeExpired(long nowMillis) {
+        return jdbcTemplate.update("DELETE FROM oauth2_sessions WHERE expires_at <= ?", nowMillis);
+    }
+    
+    private List<OAuth2SessionData> takeWithSeparateDelete(String sessionId) {
+        List<OAuth2SessionData> rows = jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM oauth2_sessions WHERE session_id = ?", rowMapper, sessionId);
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM oauth2_sessions WHERE session_id = ?", sessionId);
+        return deleted == 1 ? rows : List.of();
+    }
+    
+    private String encrypt(String value, String column, String sessionId) {
+        if (value == null) {
+            return null;
+        }
+        return cipher.encrypt(value.getBytes(StandardCharsets.UTF_8), associatedData(column, sessionId));
+    }
+    
+    private String decrypt(String value, String column, String sessionId) {
+        if (value == null) {
+            return null;
+        }
+        byte[] plaintext = cipher.decrypt(value, associatedData(column, sessionId));
+        return plaintext != null ? new String(plaintext, StandardCharsets.UTF_8) : null;
+    }
+    
+    private static byte[] associatedData(String column, String sessionId) {
+        return (column + ":" + sessionId).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static Dialect detectDialect(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equalsIgnoreCase(product)) {
+            return Dialect.POSTGRESQL;
+        }
+        if ("H2".equalsIgnoreCase(product)) {
+            return Dialect.H2;
+        }
+        return Dialect.GENERIC;
+    }
+}
@@ -1,18 +1,30 @@
 package com.movietracker.api.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.movietracker.api.config.AuthConfig;
 import com.movietracker.api.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -20,74 +32,238 @@ import java.util.function.Function;
  * 
  * <p>This service provides:
  * <ul>
- *   <li>Secure JWT token generation with user claims</li>
+ *   <li>Short-lived access tokens and longer-lived refresh tokens with user claims</li>
  *   <li>Token validation using HMAC SHA-256 signature verification</li>
  *   <li>Claim extraction (username, user ID, expiration)</li>
  *   <li>Configurable token expiration based on application settings</li>
+ *   <li>A bounded cache of verified claims so repeated tokens skip signature verification</li>
+ *   <li>Token revocation by token ID, checked in memory on every request</li>
+ *   <li>Single-use refresh tokens with reuse detection, tracked in the database</li>
  * </ul>
  * 
  * <p>Tokens are signed using HS256 algorithm with a configurable secret key.
  * The secret key is automatically converted to the appropriate format for HMAC operations.
  * 
+ * <p>Verified claims are cached under the SHA-256 digest of the token (never the raw token)
+ * and each entry expires together with the token's own {@code exp} claim, so a cache hit
+ * is always as good as a fresh verification. Cache hits, misses and evictions are exported
+ * as {@code cache.*} metrics tagged {@code cache=jwt.claims}.
+ * 
+ * <p>Every token carries a random {@code jti} and a {@code typ} claim. Access tokens
+ * ({@code typ=access}) authenticate requests and live {@code access-token-minutes}; refresh
+ * tokens ({@code typ=refresh}) are only accepted by {@link #consumeRefreshToken(String)} and
+ * live {@code expiration-hours}. Revocation is checked against {@link TokenRevocationList}
+ * after verification, so revoked tokens are rejected even when their claims are cached.
+ * 
+ * <p>Refresh tokens also carry a family ID ({@code fid}) that stays the same across
+ * rotations of one sign-in. Whether a refresh token may still be exchanged is decided by
+ * {@link RefreshTokenFamilyStore}, so a token is accepted only once across all instances and
+ * restarts, and replaying a used token revokes its whole family.
+ * Tokens issued before token types existed carry neither claim and are treated as access
+ * tokens that cannot be revoked individually.
+ * 
  * @author Movie Tracker API Team
  * @since 1.0.0
  */
 @Service
 public class JwtService {
     
+    // Upper bound for cached claims of tokens that carry no expiration
+    private static final long MAX_CACHE_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+    public static final String FAMILY_CLAIM = "fid";
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    });
+    
     private final AuthConfig authConfig;
     private final SecretKey secretKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedClaims;
+    private final TokenRevocationList revocationList;
+    private final RefreshTokenFamilyStore refreshTokenFamilies;
     
     @Autowired
-    public JwtService(AuthConfig authConfig) {
+    public JwtService(AuthConfig authConfig,
+                      TokenRevocationList revocationList,
+                      RefreshTokenFamilyStore refreshTokenFamilies,
+                      MeterRegistry meterRegistry) {
         this.authConfig = authConfig;
+        this.revocationList = revocationList;
+        this.refreshTokenFamilies = refreshTokenFamilies;
         this.secretKey = Keys.hmacShaKeyFor(authConfig.getJwt().getSecret().getBytes());
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(authConfig.getJwt().getClaimsCacheMaxSize())
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaims, "jwt.claims");
+    }
+    
+    public JwtService(AuthConfig authConfig, RefreshTokenFamilyStore refreshTokenFamilies, MeterRegistry meterRegistry) {
+        this(authConfig, new TokenRevocationList(authConfig, meterRegistry), refreshTokenFamilies, meterRegistry);
     }
     
     /**
-     * Generate JWT token for user
+     * Generate a short-lived access token for user
      */
     public String generateToken(User user) {
+        Map<String, Object> claims = userClaims(user);
+        claims.put(TOKEN_TYPE_CLAIM, ACCESS_TOKEN);
+        
+        Date expiresAt = expiresIn(Duration.ofMinutes(authConfig.getJwt().getAccessTokenMinutes()));
+        return createToken(claims, user.getEmail(), UUID.randomUUID().toString(), expiresAt);
+    }
+    
+    /**
+     * Generate a refresh token for user that starts a new family (a new sign-in),
+     * exchangeable once for a new token pair
+     */
+    public String generateRefreshToken(User user) {
+        String familyId = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        Date expiresAt = expiresIn(Duration.ofHours(authConfig.getJwt().getExpirationHours()));
+        
+        refreshTokenFamilies.start(familyId, user.getId(), tokenId, expiresAt);
+        return createToken(refreshClaims(user, familyId), user.getEmail(), tokenId, expiresAt);
+    }
+    
+    /**
+     * Generate the next refresh token of a family whose previous token was just consumed
+     * with {@link #consumeRefreshToken(String)}
+     */
+    public String generateRefreshToken(User user, String familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        Date expiresAt = expiresIn(Duration.ofHours(authConfig.getJwt().getExpirationHours()));
+        
+        refreshTokenFamilies.advance(familyId, tokenId, expiresAt);
+        return createToken(refreshClaims(user, familyId), user.getEmail(), tokenId, expiresAt);
+    }
+    
+    private static Map<String, Object> refreshClaims(User user, String familyId) {
+        Map<String, Object> claims = userClaims(user);
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN);
+        claims.put(FAMILY_CLAIM, familyId);
+        return claims;
+    }
+    
+    private static Map<String, Object> userClaims(User user) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("user_id", user.getId());
         claims.put("email", user.getEmail());
         claims.put("username", user.getUsername());
-        
-        return createToken(claims, user.getEmail());
+        return claims;
     }
     
     /**
-     * Create JWT token with claims and subject
+     * Create JWT token with claims, subject, token ID and expiration
      */
-    private String createToken(Map<String, Object> claims, String subject) {        Date now = new Date();
-        Date expiration = Date.from(
-            LocalDateTime.now()
-                .plusHours(authConfig.getJwt().getExpirationHours())
-                .atZone(ZoneId.systemDefault())
-                .toInstant()
-        );
-        
+    private String createToken(Map<String, Object> claims, String subject, String tokenId, Date expiresAt) {
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(now)
-                .setExpiration(expiration)
-                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .claims(claims)
+                .id(tokenId)
+                .subject(subject)
+                .issuedAt(new Date())
+                .expiration(expiresAt)
+                .signWith(secretKey, Jwts.SIG.HS256)
                 .compact();
     }
     
+    private static Date expiresIn(Duration lifetime) {
+        return Date.from(Instant.now().plus(lifetime));
+    }
+    
     /**
-     * Validate JWT token
+     * Verify the token signature and expiration and return its claims.
+     * 
+     * <p>Claims of previously verified tokens are served from the cache without
+     * re-running the HMAC check.
+     * 
+     * @throws JwtException if the token is malformed, tampered with or expired
+     * @throws IllegalArgumentException if the token is null or blank
      */
-    public boolean validateToken(String token) {
+    public Claims verifyAndParse(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT token must not be empty");
+        }
+        return verifiedClaims.get(digest(token), key -> parser.parseSignedClaims(token).getPayload());
+    }
+    
+    /**
+     * Verify an access token and return its claims, or empty if the token is not valid,
+     * has been revoked or is a refresh token
+     */
+    public Optional<Claims> parseVerifiedClaims(String token) {
+        return parseToken(token)
+            .filter(claims -> !REFRESH_TOKEN.equals(claims.get(TOKEN_TYPE_CLAIM, String.class)));
+    }
+    
+    /**
+     * Verify a refresh token and mark it used in the same step, so that it can be exchanged
+     * only once. Returns empty if the token is not a valid, unused refresh token; a used
+     * token also revokes the rest of its family.
+     */
+    public Optional<Claims> consumeRefreshToken(String token) {
+        return parseRefreshToken(token)
+            .filter(claims -> refreshTokenFamilies.consume(claims.get(FAMILY_CLAIM, String.class), claims.getId()));
+    }
+    
+    /**
+     * Revoke the family of a valid refresh token, for the user the token was issued to
+     * 
+     * @return {@code true} if a family was revoked
+     */
+    public boolean revokeRefreshToken(String token) {
+        return parseRefreshToken(token)
+            .map(claims -> refreshTokenFamilies.revoke(
+                claims.get(FAMILY_CLAIM, String.class), claims.get("user_id", String.class)))
+            .orElse(false);
+    }
+    
+    /**
+     * Revoke a token until its expiration. Tokens without an ID cannot be revoked.
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        revocationList.revoke(tokenId, expiresAt);
+    }
+    
+    /**
+     * Refresh tokens issued before families existed carry no family ID and are rejected
+     */
+    private Optional<Claims> parseRefreshToken(String token) {
+        return parseToken(token)
+            .filter(claims -> REFRESH_TOKEN.equals(claims.get(TOKEN_TYPE_CLAIM, String.class)))
+            .filter(claims -> claims.get(FAMILY_CLAIM, String.class) != null);
+    }
+    
+    private Optional<Claims> parseToken(String token) {
         try {
-            Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token);
-            return true;
+            Claims claims = verifyAndParse(token);
+            if (revocationList.isRevoked(claims.getId())) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
     
+    /**
+     * Validate JWT token
+     */
+    public boolean validateToken(String token) {
+        return parseVerifiedClaims(token).isPresent();
+    }
+    
     /**
      * Extract username (email) from token
      */
@@ -121,11 +297,7 @@ public class JwtService {
      * Extract all claims from token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return verifyAndParse(token);
     }
     
     /**
@@ -134,4 +306,38 @@ public class JwtService {
     public boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
+    
+    /**
+     * Cache key for a token: the URL-safe Base64 SHA-256 digest of the token
+     */
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+    
+    /**
+     * Expires cached claims at the token's own expiration time
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+        
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return MAX_CACHE_TTL_NANOS;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
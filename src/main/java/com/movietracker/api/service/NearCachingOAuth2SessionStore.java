@@ -0,0 +1,74 @@
+package com.movietracker.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.movietracker.api.service.OAuth2SessionService.OAuth2SessionData;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Write-through, per-instance cache in front of a shared {@link OAuth2SessionStore}.
+ * 
+ * <p>Writes go to the delegate first and then to the cache; lookups are served from the
+ * cache when possible. {@link #take(String)} always goes to the delegate so one-shot
+ * exchange stays correct across instances.
+ * 
+ * <p>A cached session may miss an update made by another instance for up to the cache
+ * TTL. Callers only rely on {@link #find(String)} for fields fixed at creation (state,
+ * code verifier, provider), which never change.
+ */
+public class NearCachingOAuth2SessionStore implements OAuth2SessionStore {
+    
+    private final OAuth2SessionStore delegate;
+    private final Cache<String, OAuth2SessionData> cache;
+    
+    public NearCachingOAuth2SessionStore(OAuth2SessionStore delegate, long maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+    
+    @Override
+    public void insert(OAuth2SessionData session) {
+        delegate.insert(session);
+        cache.put(session.getSessionId(), session);
+    }
+    
+    @Override
+    public boolean replace(OAuth2SessionData expected, OAuth2SessionData updated) {
+        boolean replaced = delegate.replace(expected, updated);
+        if (replaced) {
+            cache.put(updated.getSessionId(), updated);
+        } else {
+            // Likely stale; the next lookup goes to the shared store
+            cache.invalidate(updated.getSessionId());
+        }
+        return replaced;
+    }
+    
+    @Override
+    public Optional<OAuth2SessionData> find(String sessionId) {
+        OAuth2SessionData cached = cache.getIfPresent(sessionId);
+        if (cached != null && !cached.isExpired()) {
+            return Optional.of(cached);
+        }
+        Optional<OAuth2SessionData> session = delegate.find(sessionId);
+        session.ifPresent(found -> cache.put(sessionId, found));
+        return session;
+    }
+    
+    @Override
+    public Optional<OAuth2SessionData> take(String sessionId) {
+        cache.invalidate(sessionId);
+        return delegate.take(sessionId);
+    }
+    
+    @Override
+    public int purgeExpired(long nowMillis) {
+        cache.asMap().values().removeIf(session -> session.getExpiresAt() <= nowMillis);
+        return delegate.purgeExpired(nowMillis);
+    }
+}
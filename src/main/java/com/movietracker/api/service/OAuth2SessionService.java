@@ -1,10 +1,12 @@
 package com.movietracker.api.service;
 
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -13,13 +15,27 @@ import java.util.concurrent.TimeUnit;
 @ConditionalOnProperty(name = "app.auth.oauth2-enabled", havingValue = "true", matchIfMissing = false)
 public class OAuth2SessionService {
 
-    private final Map<String, OAuth2SessionData> sessions = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private static final Logger logger = LoggerFactory.getLogger(OAuth2SessionService.class);
+
+    private final OAuth2SessionStore store;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "oauth2-session-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     // Session expires after 10 minutes
     private static final long SESSION_TIMEOUT_MINUTES = 10;
+    
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
 
     public OAuth2SessionService() {
+        this(new InMemoryOAuth2SessionStore());
+    }
+
+    @Autowired
+    public OAuth2SessionService(OAuth2SessionStore store) {
+        this.store = store;
         // Clean up expired sessions every 5 minutes
         scheduler.scheduleAtFixedRate(this::cleanupExpiredSessions, 5, 5, TimeUnit.MINUTES);
     }
@@ -37,7 +53,7 @@ public class OAuth2SessionService {
             System.currentTimeMillis()
         );
         
-        sessions.put(sessionId, sessionData);
+        store.insert(sessionData);
         return sessionId;
     }
 
@@ -45,12 +61,24 @@ public class OAuth2SessionService {
      * Store authentication result in session after OAuth2 callback
      */
     public void storeAuthenticationResult(String sessionId, String userId, String token, String userJson) {
-        OAuth2SessionData session = sessions.get(sessionId);
-        if (session != null && !session.isExpired()) {
-            session.setUserId(userId);
-            session.setToken(token);
-            session.setUserData(userJson);
-            session.setAuthenticated(true);
+        storeAuthenticationResult(sessionId, userId, token, null, userJson);
+    }
+
+    /**
+     * Store authentication result, including a refresh token, in session after OAuth2 callback
+     */
+    public void storeAuthenticationResult(String sessionId, String userId, String token,
+                                          String refreshToken, String userJson) {
+        // Compare-and-swap; a lost race re-reads the current state and tries again
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            OAuth2SessionData current = store.find(sessionId).orElse(null);
+            if (current == null) {
+                return;
+            }
+            OAuth2SessionData updated = current.withAuthenticationResult(userId, token, refreshToken, userJson);
+            if (store.replace(current, updated)) {
+                return;
+            }
         }
     }
 
@@ -58,57 +86,84 @@ public class OAuth2SessionService {
      * Exchange session for authentication data (one-time use)
      */
     public OAuth2SessionData exchangeSession(String sessionId) {
-        OAuth2SessionData session = sessions.remove(sessionId); // Remove on exchange
-        if (session != null && !session.isExpired() && session.isAuthenticated()) {
-            return session;
-        }
-        return null;
+        // Removed on exchange; only one caller across all instances gets the session
+        return store.take(sessionId)
+            .filter(OAuth2SessionData::isAuthenticated)
+            .orElse(null);
     }
 
     /**
      * Validate session for OAuth2 callback
      */
     public OAuth2SessionData getSession(String sessionId) {
-        OAuth2SessionData session = sessions.get(sessionId);
-        if (session != null && !session.isExpired()) {
-            return session;
-        }
-        return null;
+        return store.find(sessionId).orElse(null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
     }
 
     /**
      * Clean up expired sessions
      */
     private void cleanupExpiredSessions() {
-        long now = System.currentTimeMillis();
-        sessions.entrySet().removeIf(entry -> 
-            now - entry.getValue().getCreatedAt() > TimeUnit.MINUTES.toMillis(SESSION_TIMEOUT_MINUTES)
-        );
+        try {
+            store.purgeExpired(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; expired sessions are never returned anyway
+            logger.warn("OAuth2 session cleanup failed", e);
+        }
     }
 
     /**
-     * OAuth2 session data container
+     * Immutable OAuth2 session state. State changes produce a new instance with a higher
+     * {@link #getVersion() version}, which stores swap in atomically.
      */
-    public static class OAuth2SessionData {
+    public static final class OAuth2SessionData {
         private final String sessionId;
         private final String state;
         private final String codeVerifier;
         private final String provider;
         private final long createdAt;
+        private final int version;
         
         // Set after authentication
-        private String userId;
-        private String token;
-        private String userData;
-        private boolean authenticated = false;
+        private final String userId;
+        private final String token;
+        private final String refreshToken;
+        private final String userData;
+        private final boolean authenticated;
 
         public OAuth2SessionData(String sessionId, String state, String codeVerifier, 
                                String provider, long createdAt) {
+            this(sessionId, state, codeVerifier, provider, createdAt, 0, null, null, null, null, false);
+        }
+
+        public OAuth2SessionData(String sessionId, String state, String codeVerifier,
+                               String provider, long createdAt, int version,
+                               String userId, String token, String refreshToken,
+                               String userData, boolean authenticated) {
             this.sessionId = sessionId;
             this.state = state;
             this.codeVerifier = codeVerifier;
             this.provider = provider;
             this.createdAt = createdAt;
+            this.version = version;
+            this.userId = userId;
+            this.token = token;
+            this.refreshToken = refreshToken;
+            this.userData = userData;
+            this.authenticated = authenticated;
+        }
+
+        /**
+         * Copy of this session carrying the authentication result
+         */
+        public OAuth2SessionData withAuthenticationResult(String userId, String token,
+                                                          String refreshToken, String userData) {
+            return new OAuth2SessionData(sessionId, state, codeVerifier, provider, createdAt,
+                version + 1, userId, token, refreshToken, userData, true);
         }
 
         // Getters
@@ -117,19 +172,16 @@ public class OAuth2SessionService {
         public String getCodeVerifier() { return codeVerifier; }
         public String getProvider() { return provider; }
         public long getCreatedAt() { return createdAt; }
+        public long getExpiresAt() { return createdAt + TimeUnit.MINUTES.toMillis(SESSION_TIMEOUT_MINUTES); }
+        public int getVersion() { return version; }
         public String getUserId() { return userId; }
         public String getToken() { return token; }
+        public String getRefreshToken() { return refreshToken; }
         public String getUserData() { return userData; }
         public boolean isAuthenticated() { return authenticated; }
 
-        // Setters
-        public void setUserId(String userId) { this.userId = userId; }
-        public void setToken(String token) { this.token = token; }
-        public void setUserData(String userData) { this.userData = userData; }
-        public void setAuthenticated(boolean authenticated) { this.authenticated = authenticated; }
-
         public boolean isExpired() {
-            return System.currentTimeMillis() - createdAt > TimeUnit.MINUTES.toMillis(SESSION_TIMEOUT_MINUTES);
+            return System.currentTimeMillis() >= getExpiresAt();
         }
     }
-}
\ No newline at end of file
+}
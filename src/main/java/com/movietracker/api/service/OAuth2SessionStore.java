@@ -0,0 +1,53 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.service.OAuth2SessionService.OAuth2SessionData;
+
+import java.util.Optional;
+
+/**
+ * Storage for in-flight OAuth2/PKCE sessions used by {@link OAuth2SessionService}.
+ * 
+ * <p>Implementations must be safe for concurrent use. Stores shared between instances
+ * (such as {@link JdbcOAuth2SessionStore}) let the provider callback and the session
+ * exchange land on a different instance than the one that started the flow.
+ * 
+ * <p>Expired sessions are never returned, even before {@link #purgeExpired(long)} has
+ * removed them.
+ */
+public interface OAuth2SessionStore {
+    
+    /**
+     * Store a newly created session
+     * 
+     * @throws com.movietracker.api.exception.ServiceUnavailableException if the store is
+     *         at capacity
+     */
+    void insert(OAuth2SessionData session);
+    
+    /**
+     * Atomically replace a session, provided its stored version still matches
+     * {@code expected}
+     * 
+     * @return {@code false} if the session was changed concurrently, does not exist or
+     *         has expired
+     */
+    boolean replace(OAuth2SessionData expected, OAuth2SessionData updated);
+    
+    /**
+     * Look up an unexpired session
+     */
+    Optional<OAuth2SessionData> find(String sessionId);
+    
+    /**
+     * Atomically remove and return a session. When called concurrently for the same
+     * session, at most one caller receives it.
+     */
+    Optional<OAuth2SessionData> take(String sessionId);
+    
+    /**
+     * Remove sessions that expired before the given time
+     * 
+     * @return the number of sessions removed
+     */
+    int purgeExpired(long nowMillis);
+}
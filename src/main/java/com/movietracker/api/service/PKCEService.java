@@ -1,29 +1,44 @@
 package com.movietracker.api.service;
 
+import com.movietracker.api.util.Base64Url;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
-import java.util.Base64;
+import java.util.Arrays;
 
+/**
+ * Generates PKCE verifiers/challenges and OAuth2 state values.
+ *
+ * <p>Each thread owns its generator state, so logins on different request threads never
+ * contend on a shared {@link SecureRandom} or digest:
+ * <ul>
+ *   <li>random bytes come from a per-thread buffer refilled in bulk from a per-thread
+ *       {@link SecureRandom}; handed-out bytes are wiped from the buffer</li>
+ *   <li>the SHA-256 {@link MessageDigest} is created once per thread and reused</li>
+ *   <li>values are encoded with {@link Base64Url}, and the challenge is hashed from the
+ *       verifier's ASCII bytes without a round trip through {@link String}</li>
+ * </ul>
+ */
 @Service
 @ConditionalOnProperty(name = "app.auth.oauth2-enabled", havingValue = "true", matchIfMissing = false)
 public class PKCEService {
 
-    private final SecureRandom secureRandom = new SecureRandom();
+    private static final int VERIFIER_BYTES = 32; // 256 bits
+    private static final int STATE_BYTES = 16; // 128 bits
+    // Enough entropy for 16 logins per refill
+    private static final int ENTROPY_BUFFER_BYTES = 16 * (VERIFIER_BYTES + STATE_BYTES);
+
+    private final ThreadLocal<Generator> generators = ThreadLocal.withInitial(Generator::new);
 
     /**
      * Generate a cryptographically secure code verifier for PKCE
      * @return Base64-URL encoded random string (43-128 characters)
      */
     public String generateCodeVerifier() {
-        byte[] randomBytes = new byte[32]; // 32 bytes = 256 bits
-        secureRandom.nextBytes(randomBytes);
-        return Base64.getUrlEncoder()
-            .withoutPadding()
-            .encodeToString(randomBytes);
+        return generators.get().randomBase64Url(VERIFIER_BYTES);
     }
 
     /**
@@ -32,15 +47,7 @@ public class PKCEService {
      * @return Base64-URL encoded SHA256 hash of the code verifier
      */
     public String generateCodeChallenge(String codeVerifier) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(codeVerifier.getBytes(StandardCharsets.UTF_8));
-            return Base64.getUrlEncoder()
-                .withoutPadding()
-                .encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
-        }
+        return generators.get().challenge(codeVerifier.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -48,11 +55,7 @@ public class PKCEService {
      * @return Base64-URL encoded random string
      */
     public String generateState() {
-        byte[] randomBytes = new byte[16]; // 16 bytes = 128 bits
-        secureRandom.nextBytes(randomBytes);
-        return Base64.getUrlEncoder()
-            .withoutPadding()
-            .encodeToString(randomBytes);
+        return generators.get().randomBase64Url(STATE_BYTES);
     }
 
     /**
@@ -78,10 +81,50 @@ public class PKCEService {
      * Generate complete PKCE parameters
      */
     public PKCEParams generatePKCEParams() {
-        String codeVerifier = generateCodeVerifier();
-        String codeChallenge = generateCodeChallenge(codeVerifier);
-        String state = generateState();
-        
-        return new PKCEParams(codeVerifier, codeChallenge, state);
+        Generator generator = generators.get();
+        byte[] verifier = generator.randomAscii(VERIFIER_BYTES);
+        String codeChallenge = generator.challenge(verifier);
+        String state = generator.randomBase64Url(STATE_BYTES);
+
+        return new PKCEParams(new String(verifier, StandardCharsets.ISO_8859_1), codeChallenge, state);
+    }
+
+    /**
+     * Per-thread entropy buffer and digest
+     */
+    private static final class Generator {
+
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] entropy = new byte[ENTROPY_BUFFER_BYTES];
+        private final MessageDigest sha256;
+        private int position = entropy.length;
+
+        Generator() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("SHA-256 algorithm not available", e);
+            }
+        }
+
+        String randomBase64Url(int length) {
+            return new String(randomAscii(length), StandardCharsets.ISO_8859_1);
+        }
+
+        byte[] randomAscii(int length) {
+            if (entropy.length - position < length) {
+                random.nextBytes(entropy);
+                position = 0;
+            }
+            byte[] encoded = Base64Url.encodeToAscii(entropy, position, length);
+            // Never hand out the same bytes twice, and don't keep used secrets around
+            Arrays.fill(entropy, position, position + length, (byte) 0);
+            position += length;
+            return encoded;
+        }
+
+        String challenge(byte[] verifierAscii) {
+            return Base64Url.encode(sha256.digest(verifierAscii));
+        }
     }
-}
\ No newline at end of file
+}
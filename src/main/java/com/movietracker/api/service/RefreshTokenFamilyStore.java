@@ -0,0 +1,124 @@
+package com.movietracker.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh-token families in the {@code refresh_token_families} table, shared by all instances
+ * that use the same database.
+ *
+ * <p>A family starts at sign-in and follows every rotation of that sign-in's refresh token.
+ * Its row records the one token ID ({@code jti}) that may still be exchanged.
+ * {@link #consume(String, String)} clears it with a single conditional update, so across all
+ * instances and restarts a refresh token is accepted at most once. Presenting a token that
+ * is no longer current means it was replayed, and the whole family is revoked. The
+ * legitimate client and the attacker then both have to sign in again.
+ *
+ * <p>The table is mapped by {@link com.movietracker.api.entity.RefreshTokenFamily} and created
+ * with the rest of the JPA schema. Expired families are purged every 10 minutes. Detected reuse is counted as
+ * {@code auth.refresh-token.reuse}.
+ */
+@Service
+public class RefreshTokenFamilyStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenFamilyStore.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter reuseDetected;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "refresh-token-family-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @Autowired
+    public RefreshTokenFamilyStore(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reuseDetected = Counter.builder("auth.refresh-token.reuse").register(meterRegistry);
+        scheduler.scheduleAtFixedRate(this::cleanupExpiredFamilies, 10, 10, TimeUnit.MINUTES);
+    }
+    
+    /**
+     * Start a family whose only exchangeable token is {@code tokenId}
+     */
+    public void start(String familyId, String userId, String tokenId, Date expiresAt) {
+        jdbcTemplate.update(
+            "INSERT INTO refresh_token_families (family_id, user_id, current_token_id, expires_at, revoked) "
+                + "VALUES (?, ?, ?, ?, FALSE)",
+            familyId, userId, tokenId, expiresAt.getTime());
+    }
+    
+    /**
+     * Accept {@code tokenId} if it is the family's current token and mark it used.
+     * Any other token of a known family is a replay and revokes the family.
+     *
+     * @return {@code true} if the caller may rotate the family to a new token
+     */
+    public boolean consume(String familyId, String tokenId) {
+        int updated = jdbcTemplate.update(
+            "UPDATE refresh_token_families SET current_token_id = NULL "
+                + "WHERE family_id = ? AND current_token_id = ? AND revoked = FALSE AND expires_at > ?",
+            familyId, tokenId, System.currentTimeMillis());
+        if (updated == 1) {
+            return true;
+        }
+        if (jdbcTemplate.update(
+                "UPDATE refresh_token_families SET revoked = TRUE WHERE family_id = ? AND revoked = FALSE",
+                familyId) == 1) {
+            reuseDetected.increment();
+        }
+        return false;
+    }
+    
+    /**
+     * Make {@code tokenId} the family's current token after a successful {@link #consume}.
+     * Has no effect if the family was revoked in between; the new token is then rejected.
+     */
+    public void advance(String familyId, String tokenId, Date expiresAt) {
+        jdbcTemplate.update(
+            "UPDATE refresh_token_families SET current_token_id = ?, expires_at = ? "
+                + "WHERE family_id = ? AND current_token_id IS NULL AND revoked = FALSE",
+            tokenId, expiresAt.getTime(), familyId);
+    }
+    
+    /**
+     * Revoke a family owned by {@code userId}
+     *
+     * @return {@code true} if the family existed, belonged to the user and was still active
+     */
+    public boolean revoke(String familyId, String userId) {
+        return jdbcTemplate.update(
+            "UPDATE refresh_token_families SET revoked = TRUE "
+                + "WHERE family_id = ? AND user_id = ? AND revoked = FALSE",
+            familyId, userId) == 1;
+    }
+    
+    public int purgeExpired(long nowMillis) {
+        return jdbcTemplate.update("DELETE FROM refresh_token_families WHERE expires_at <= ?", nowMillis);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    private void cleanupExpiredFamilies() {
+        try {
+            purgeExpired(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; expired families never accept a token anyway
+            logger.warn("Refresh token family cleanup failed", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.config.AuthConfig;
+import com.movietracker.api.util.TimeBucketedBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * In-memory list of revoked token IDs ({@code jti}), checked on every authenticated request.
+ * 
+ * <p>Backed by a {@link TimeBucketedBloomFilter}: a revoked ID only has to be remembered
+ * until the token itself expires, so entries are grouped by expiry and whole buckets are
+ * dropped once their tokens can no longer be presented. Lookups are lock-free and need no
+ * database round trip.
+ * 
+ * <p>A false positive makes a valid token look revoked; the client then has to refresh
+ * or sign in again. The rate is configured through
+ * {@code app.auth.jwt.revocation-false-positive-rate}.
+ * 
+ * <p>Revocations are held per instance and are lost on restart. Access tokens are
+ * short-lived, so the exposure after a restart is bounded by their lifetime. Single use of
+ * refresh tokens is enforced by {@link RefreshTokenFamilyStore}, which all instances share.
+ */
+@Service
+public class TokenRevocationList {
+    
+    static final int BUCKETS = 24;
+    
+    private final TimeBucketedBloomFilter revoked;
+    private final Counter revocations;
+    
+    @Autowired
+    public TokenRevocationList(AuthConfig authConfig, MeterRegistry meterRegistry) {
+        AuthConfig.Jwt jwt = authConfig.getJwt();
+        Duration horizon = Duration.ofHours(jwt.getExpirationHours())
+            .plusMinutes(jwt.getAccessTokenMinutes());
+        this.revoked = new TimeBucketedBloomFilter(
+            horizon,
+            BUCKETS,
+            jwt.getRevocationCapacity(),
+            jwt.getRevocationFalsePositiveRate()
+        );
+        this.revocations = Counter.builder("auth.token.revocations").register(meterRegistry);
+    }
+    
+    /**
+     * Revoke a token until its expiration
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null) {
+            return;
+        }
+        revoked.put(tokenId, expiresAt.getTime());
+        revocations.increment();
+    }
+    
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.mightContain(tokenId);
+    }
+}
@@ -0,0 +1,165 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.config.AuthConfig;
+import com.movietracker.api.entity.User;
+import com.movietracker.api.repository.UserRepository;
+import com.movietracker.api.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * In-memory pre-filter for "is this email / username already taken?" checks.
+ * 
+ * <p>Keeps one {@link BloomFilter} over taken emails and one over taken usernames. A
+ * definite-negative answer lets callers skip the {@code existsBy*} database probe; a
+ * positive answer (possibly false) still goes to the database, and the unique constraints
+ * on {@code users} remain the final arbiter.
+ * 
+ * <p>The filters are warmed from {@link UserRepository} in the background once the
+ * application is ready and updated on every insert. Until warming completes every check
+ * answers "maybe", so correctness never depends on the warm-up.
+ * 
+ * <p>Exports {@code auth.uniqueness.prefilter} counters tagged with the checked field and
+ * whether the database probe was {@code skipped} or {@code probed}.
+ */
+@Service
+public class UniquenessPrefilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UniquenessPrefilter.class);
+    
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final BloomFilter emails;
+    private final BloomFilter usernames;
+    private volatile boolean ready;
+    
+    private final Counter emailSkipped;
+    private final Counter emailProbed;
+    private final Counter usernameSkipped;
+    private final Counter usernameProbed;
+    
+    @Autowired
+    public UniquenessPrefilter(UserRepository userRepository,
+                               PlatformTransactionManager transactionManager,
+                               AuthConfig authConfig,
+                               MeterRegistry meterRegistry) {
+        AuthConfig.UniquenessFilter config = authConfig.getUniquenessFilter();
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = config.isEnabled();
+        this.emails = BloomFilter.create(config.getExpectedUsers(), config.getFalsePositiveRate());
+        this.usernames = BloomFilter.create(config.getExpectedUsers(), config.getFalsePositiveRate());
+        
+        this.emailSkipped = counter(meterRegistry, "email", "skipped");
+        this.emailProbed = counter(meterRegistry, "email", "probed");
+        this.usernameSkipped = counter(meterRegistry, "username", "skipped");
+        this.usernameProbed = counter(meterRegistry, "username", "probed");
+    }
+    
+    /**
+     * Whether the email may already be taken; {@code false} means it is definitely free
+     */
+    public boolean mightContainEmail(String email) {
+        return check(emails, email, emailSkipped, emailProbed);
+    }
+    
+    /**
+     * Whether the username may already be taken; {@code false} means it is definitely free
+     */
+    public boolean mightContainUsername(String username) {
+        return check(usernames, username, usernameSkipped, usernameProbed);
+    }
+    
+    /**
+     * Record a newly inserted user
+     */
+    public void record(User user) {
+        if (user.getEmail() != null) {
+            emails.put(user.getEmail());
+        }
+        if (user.getUsername() != null) {
+            usernames.put(user.getUsername());
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Warm the filters from the users table without delaying startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread warmer = new Thread(this::warmUp, "uniqueness-prefilter-warmup");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+    
+    private void warmUp() {
+        try {
+            long started = System.nanoTime();
+            long loaded = readOnlyTransaction.execute(status -> {
+                try (Stream<Object[]> identities = userRepository.streamAllIdentities()) {
+                    return loadExisting(identities);
+                }
+            });
+            logger.info("Uniqueness pre-filter warmed with {} users in {} ms",
+                loaded, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Stay in "maybe" mode; every check falls through to the database
+            logger.warn("Uniqueness pre-filter warm-up failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Load existing {@code [email, username]} rows and start answering definite negatives
+     * 
+     * @return the number of rows loaded
+     */
+    public long loadExisting(Stream<Object[]> identities) {
+        long[] count = {0};
+        identities.forEach(row -> {
+            if (row[0] != null) {
+                emails.put((String) row[0]);
+            }
+            if (row[1] != null) {
+                usernames.put((String) row[1]);
+            }
+            count[0]++;
+        });
+        ready = true;
+        return count[0];
+    }
+    
+    private boolean check(BloomFilter filter, String value, Counter skipped, Counter probed) {
+        if (!enabled || !ready || value == null || filter.mightContain(value)) {
+            probed.increment();
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+    
+    private static Counter counter(MeterRegistry registry, String field, String result) {
+        return Counter.builder("auth.uniqueness.prefilter")
+            .tag("field", field)
+            .tag("result", result)
+            .register(registry);
+    }
+}
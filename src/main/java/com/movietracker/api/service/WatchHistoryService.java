@@ -0,0 +1,254 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.dto.SortDirection;
+import com.movietracker.api.dto.UserMovieFilter;
+import com.movietracker.api.dto.UserMovieSort;
+import com.movietracker.api.dto.UserMovieSortField;
+import com.movietracker.api.dto.WatchHistoryCursor;
+import com.movietracker.api.entity.UserMovie;
+import com.movietracker.api.repository.UserMovieRepository;
+import com.movietracker.api.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Filtered and sorted watch-history lookups.
+ *
+ * <p>Any combination of filters compiles into a single parameterized query that always
+ * leads with {@code user_id = ?}, so one of the {@code user_movies} composite indexes
+ * ({@code (user_id, date_watched, id)}, {@code (user_id, theater)},
+ * {@code (user_id, personal_rating)}, {@code (user_id, ticket_price)}) bounds the scan to the
+ * caller's rows. The {@code movies} join is only added when genre is filtered or title sorted.
+ *
+ * <p>Rows are read as projections: besides the keys, only the columns named in {@code fields}
+ * (typically the GraphQL selection) are selected, and the returned entities are detached.
+ *
+ * <p>{@link #validator} answers "has anything changed" for pollers from the user's change
+ * version alone, without reading any rows.
+ *
+ * <p>Every query is timed as {@code watch.history.query}, tagged with its shape: the filters
+ * present, the sort field, the index the query is shaped for and whether that index also
+ * yields the requested order ({@code order=index}) or the rows need sorting
+ * ({@code order=sort}). The shape is logged at debug level as well.
+ */
+@Service
+public class WatchHistoryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WatchHistoryService.class);
+    
+    static final String INDEX_WATCHED = "idx_user_movies_user_watched";
+    static final String INDEX_THEATER = "idx_user_movies_user_theater";
+    static final String INDEX_RATING = "idx_user_movies_user_rating";
+    static final String INDEX_PRICE = "idx_user_movies_user_price";
+    
+    private final UserMovieRepository userMovieRepository;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Autowired
+    public WatchHistoryService(UserMovieRepository userMovieRepository, UserRepository userRepository,
+                               MeterRegistry meterRegistry) {
+        this.userMovieRepository = userMovieRepository;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public List<UserMovie> find(String userId, UserMovieFilter filter, UserMovieSort sort, Set<String> fields) {
+        UserMovieFilter criteria = filter != null ? filter : new UserMovieFilter();
+        UserMovieSortField sortField = sort != null && sort.getField() != null
+            ? sort.getField() : UserMovieSortField.DATE_WATCHED;
+        Sort.Direction direction = sort != null && sort.getDirection() == SortDirection.ASC
+            ? Sort.Direction.ASC : Sort.Direction.DESC;
+        
+        Shape shape = Shape.of(criteria, sortField);
+        logger.debug("Watch history query shape: {}", shape);
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return userMovieRepository.findAllProjected(
+                specification(userId, criteria), sort(sortField, direction), Limit.unlimited(), fields);
+        } finally {
+            sample.stop(Timer.builder("watch.history.query")
+                .tag("filters", shape.filters())
+                .tag("sort", shape.sort())
+                .tag("index", shape.index())
+                .tag("order", shape.orderedByIndex() ? "index" : "sort")
+                .register(meterRegistry));
+        }
+    }
+    
+    /**
+     * Up to {@code limit} rows in {@code (dateWatched DESC, id DESC)} order, starting right
+     * after {@code after} (or from the most recent row when it is {@code null})
+     */
+    public List<UserMovie> page(String userId, WatchHistoryCursor after, int limit, Set<String> fields) {
+        Specification<UserMovie> specification = specification(userId, new UserMovieFilter());
+        if (after != null) {
+            specification = specification.and(after(after));
+        }
+        return userMovieRepository.findAllProjected(
+            specification, sort(UserMovieSortField.DATE_WATCHED, Sort.Direction.DESC), Limit.of(limit), fields);
+    }
+    
+    /**
+     * Strong validator for the user's watch history as read with {@code arguments}.
+     *
+     * <p>Built from the user's change version, which every write to their rows bumps, and a
+     * hash of the user and arguments, so validators of different queries never match. Costs a
+     * single primary key lookup; read it before the rows so that a concurrent write can only
+     * make the validator older than the data, never newer.
+     */
+    public String validator(String userId, Map<String, Object> arguments) {
+        long version = userRepository.findWatchHistoryVersion(userId).orElse(0L);
+        byte[] digest = sha256(userId + "|" + new TreeMap<>(arguments));
+        return "\"" + version + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+    }
+    
+    static Specification<UserMovie> specification(String userId, UserMovieFilter filter) {
+        LocalDate watchedFrom = localDate(filter.getWatchedFrom());
+        LocalDate watchedTo = localDate(filter.getWatchedTo());
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("userId"), userId));
+            if (watchedFrom != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<LocalDate>get("dateWatched"), watchedFrom));
+            }
+            if (watchedTo != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<LocalDate>get("dateWatched"), watchedTo));
+            }
+            if (hasText(filter.getTheater())) {
+                predicates.add(cb.equal(root.get("theater"), filter.getTheater()));
+            }
+            if (filter.getMinRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Integer>get("personalRating"), filter.getMinRating()));
+            }
+            if (filter.getMaxRating() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<Integer>get("personalRating"), filter.getMaxRating()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<BigDecimal>get("ticketPrice"),
+                    BigDecimal.valueOf(filter.getMinPrice())));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<BigDecimal>get("ticketPrice"),
+                    BigDecimal.valueOf(filter.getMaxPrice())));
+            }
+            if (hasText(filter.getGenre())) {
+                predicates.add(cb.equal(root.join("movie").get("genre"), filter.getGenre()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+    
+    static Specification<UserMovie> after(WatchHistoryCursor cursor) {
+        return (root, query, cb) -> {
+            Path<LocalDate> dateWatched = root.get("dateWatched");
+            // (dateWatched, id) < cursor, spelled so that dateWatched <= ? bounds the index range scan
+            return cb.and(
+                cb.lessThanOrEqualTo(dateWatched, cursor.dateWatched()),
+                cb.or(
+                    cb.lessThan(dateWatched, cursor.dateWatched()),
+                    cb.lessThan(root.<String>get("id"), cursor.id())
+                )
+            );
+        };
+    }
+    
+    static Sort sort(UserMovieSortField field, Sort.Direction direction) {
+        String property = switch (field) {
+            case DATE_WATCHED -> "dateWatched";
+            case PERSONAL_RATING -> "personalRating";
+            case TICKET_PRICE -> "ticketPrice";
+            case TITLE -> "movie.title";
+        };
+        // The id tiebreak keeps the order stable across equal sort keys
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+    
+    private static LocalDate localDate(OffsetDateTime dateTime) {
+        // Watch dates are rendered as midnight in the server zone, so read them back the same way
+        return dateTime == null ? null : dateTime.atZoneSameInstant(ZoneId.systemDefault()).toLocalDate();
+    }
+    
+    private static byte[] sha256(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+    
+    /**
+     * Query shape as reported in metrics; all parts have a small fixed set of values
+     */
+    record Shape(String filters, String sort, String index, boolean orderedByIndex) {
+        
+        static Shape of(UserMovieFilter filter, UserMovieSortField sortField) {
+            boolean date = filter.getWatchedFrom() != null || filter.getWatchedTo() != null;
+            boolean theater = hasText(filter.getTheater());
+            boolean rating = filter.getMinRating() != null || filter.getMaxRating() != null;
+            boolean price = filter.getMinPrice() != null || filter.getMaxPrice() != null;
+            boolean genre = hasText(filter.getGenre());
+            
+            StringJoiner filters = new StringJoiner("+");
+            filters.setEmptyValue("none");
+            if (date) filters.add("date");
+            if (theater) filters.add("theater");
+            if (rating) filters.add("rating");
+            if (price) filters.add("price");
+            if (genre) filters.add("genre");
+            
+            String sortIndex = switch (sortField) {
+                case DATE_WATCHED -> INDEX_WATCHED;
+                case PERSONAL_RATING -> INDEX_RATING;
+                case TICKET_PRICE -> INDEX_PRICE;
+                case TITLE -> null;
+            };
+            // An equality match narrows furthest; otherwise prefer the index that also
+            // delivers the order, then one that bounds a range filter
+            String index;
+            if (theater) {
+                index = INDEX_THEATER;
+            } else if (sortIndex != null) {
+                index = sortIndex;
+            } else if (date) {
+                index = INDEX_WATCHED;
+            } else if (rating) {
+                index = INDEX_RATING;
+            } else if (price) {
+                index = INDEX_PRICE;
+            } else {
+                index = INDEX_WATCHED;
+            }
+            return new Shape(filters.toString(), sortField.name().toLowerCase(), index, index.equals(sortIndex));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.movietracker.api.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unpadded base64url encoding (RFC 4648 section 5) straight from bytes to a {@link String}.
+ * 
+ * <p>Unlike {@code Base64.getUrlEncoder().withoutPadding().encodeToString(...)} this needs
+ * no encoder instance and no intermediate encoder buffers: the ASCII result is written into
+ * one byte array and turned into a Latin-1 string, which compact strings store at one byte
+ * per character without re-encoding.
+ */
+public final class Base64Url {
+    
+    private static final byte[] ALPHABET =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    
+    private Base64Url() {
+    }
+    
+    public static String encode(byte[] source) {
+        return encode(source, 0, source.length);
+    }
+    
+    public static String encode(byte[] source, int offset, int length) {
+        return new String(encodeToAscii(source, offset, length), StandardCharsets.ISO_8859_1);
+    }
+    
+    /**
+     * Encode into ASCII bytes, e.g. to feed a digest without going through a {@link String}
+     */
+    public static byte[] encodeToAscii(byte[] source, int offset, int length) {
+        byte[] out = new byte[encodedLength(length)];
+        int in = offset;
+        int end = offset + length - length % 3;
+        int o = 0;
+        while (in < end) {
+            int bits = (source[in++] & 0xff) << 16 | (source[in++] & 0xff) << 8 | (source[in++] & 0xff);
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 6) & 0x3f];
+            out[o++] = ALPHABET[bits & 0x3f];
+        }
+        int remaining = length % 3;
+        if (remaining == 1) {
+            int bits = (source[in] & 0xff) << 16;
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o] = ALPHABET[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (source[in] & 0xff) << 16 | (source[in + 1] & 0xff) << 8;
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o] = ALPHABET[(bits >>> 6) & 0x3f];
+        }
+        return out;
+    }
+    
+    public static int encodedLength(int length) {
+        return length / 3 * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.movietracker.api.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe, fixed-size Bloom filter over strings.
+ * 
+ * <p>A negative answer from {@link #mightContain(CharSequence)} is definite; a positive
+ * answer may be a false positive with roughly the configured probability once the filter
+ * holds its expected number of elements. Elements cannot be removed.
+ * 
+ * <p>Bits live in an {@link AtomicLongArray} and are set with lock-free CAS, so readers
+ * and writers never block each other. Bit positions use double hashing
+ * ({@code h1 + i * h2}) over two 64-bit hashes of the UTF-8 bytes.
+ */
+public final class BloomFilter {
+    
+    private static final long SEED_1 = 0xcbf29ce484222325L;
+    private static final long SEED_2 = 0x9e3779b97f4a7c15L;
+    
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    
+    private BloomFilter(long bitCount, int hashFunctions) {
+        long wordCount = (bitCount + 63) >>> 6;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large: " + bitCount + " bits");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitCount = wordCount << 6;
+        this.hashFunctions = hashFunctions;
+    }
+    
+    /**
+     * Create a filter sized for the expected number of elements and false positive rate
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * ln2));
+        return new BloomFilter(Math.max(64, bits), hashes);
+    }
+    
+    /**
+     * Add an element to the filter
+     */
+    public void put(CharSequence value) {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        long h1 = hash(bytes, SEED_1);
+        long h2 = hash(bytes, SEED_2) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.accumulateAndGet(word, mask, BloomFilter::or);
+            }
+        }
+    }
+    
+    /**
+     * Whether the element may have been added; {@code false} is definite
+     */
+    public boolean mightContain(CharSequence value) {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        long h1 = hash(bytes, SEED_1);
+        long h2 = hash(bytes, SEED_2) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public long bitSize() {
+        return bitCount;
+    }
+    
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+    
+    private static long or(long left, long right) {
+        return left | right;
+    }
+    
+    /**
+     * FNV-1a over the bytes followed by the MurmurHash3 64-bit finalizer
+     */
+    private static long hash(byte[] bytes, long seed) {
+        long h = seed;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
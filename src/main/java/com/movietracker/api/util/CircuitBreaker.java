@@ -0,0 +1,79 @@
+package com.movietracker.api.util;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker guarding calls to one remote dependency.
+ *
+ * <p>The breaker starts {@link State#CLOSED}. After {@code failureThreshold} failures in a
+ * row it opens and rejects every call for {@code openDuration}. The first call after that
+ * is let through as a probe ({@link State#HALF_OPEN}) while all others are still rejected;
+ * the probe's outcome either closes the breaker or opens it for another period.
+ *
+ * <p>Every call admitted by {@link #tryAcquire()} must be followed by exactly one
+ * {@link #onSuccess()} or {@link #onFailure()}.
+ */
+public final class CircuitBreaker {
+    
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+    
+    public CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+    
+    /**
+     * Admit a call
+     *
+     * @return {@code false} if the call must be rejected without reaching the dependency
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // A probe is already in flight
+                return false;
+        }
+    }
+    
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+    
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+    
+    public synchronized State state() {
+        return state;
+    }
+}
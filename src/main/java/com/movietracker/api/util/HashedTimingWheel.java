@@ -0,0 +1,161 @@
+package com.movietracker.api.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timing wheel for expiring many items with O(1) scheduling.
+ * 
+ * <p>Time is divided into ticks of fixed width and each item is placed in the bucket of the
+ * tick containing its deadline ({@code tick mod wheelSize}). {@link #advance(Consumer)}
+ * only visits the buckets of ticks that have fully elapsed since the previous call, so
+ * the cost of expiry is proportional to the number of due items rather than to the total
+ * number of scheduled items. Items more than one revolution away are re-queued into the
+ * same bucket when it is visited early.
+ * 
+ * <p>{@link #schedule(Object, long)} is lock-free and may be called from any thread;
+ * {@link #advance(Consumer)} is serialized internally and returns immediately if another
+ * thread is already advancing. Items are handed to the callback no earlier than their
+ * deadline and, under a race with a concurrent advance, at most one revolution late.
+ * Items cannot be cancelled one by one; callers should ignore items that are no longer live
+ * and can drop them in bulk with {@link #removeIf(Predicate)}, e.g. once {@link #size()}
+ * grows past a bound.
+ */
+public final class HashedTimingWheel<T> {
+    
+    private final Queue<Entry<T>>[] buckets;
+    private final int mask;
+    private final long tickMillis;
+    private final LongSupplier clock;
+    private final ReentrantLock advanceLock = new ReentrantLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile long processedTick;
+    
+    public HashedTimingWheel(Duration tick, int wheelSize) {
+        this(tick, wheelSize, System::currentTimeMillis);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(Duration tick, int wheelSize, LongSupplier clock) {
+        if (tick.toMillis() < 1) {
+            throw new IllegalArgumentException("tick must be at least 1 ms");
+        }
+        if (wheelSize < 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        this.buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = wheelSize - 1;
+        this.tickMillis = tick.toMillis();
+        this.clock = clock;
+        this.processedTick = clock.getAsLong() / tickMillis - 1;
+    }
+    
+    /**
+     * Schedule an item to be handed to {@link #advance(Consumer)} once its deadline has passed
+     */
+    public void schedule(T item, long deadlineMillis) {
+        // A tick is processed once it has fully elapsed, so its items are always due
+        long tick = Math.max(deadlineMillis / tickMillis, processedTick + 1);
+        buckets[(int) (tick & mask)].add(new Entry<>(item, tick));
+        size.incrementAndGet();
+    }
+    
+    /**
+     * Hand every item whose tick has elapsed to {@code onExpire}
+     * 
+     * @return the number of items handed over
+     */
+    public int advance(Consumer<T> onExpire) {
+        if (!advanceLock.tryLock()) {
+            return 0;
+        }
+        try {
+            long currentTick = clock.getAsLong() / tickMillis;
+            // After a long pause every bucket needs visiting only once
+            long first = Math.max(processedTick + 1, currentTick - buckets.length);
+            int expired = 0;
+            for (long tick = first; tick < currentTick; tick++) {
+                expired += drain(tick, onExpire);
+                processedTick = tick;
+            }
+            return expired;
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+    
+    /**
+     * Drop every scheduled item matching {@code filter} without handing it to a callback.
+     * Visits every scheduled item, so callers should only do this when {@link #size()} has
+     * grown well past the number of items they expect to be live.
+     * 
+     * @return the number of items dropped, or 0 if another thread is advancing or compacting
+     */
+    public int removeIf(Predicate<T> filter) {
+        if (!advanceLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int removed = 0;
+            for (Queue<Entry<T>> bucket : buckets) {
+                for (Iterator<Entry<T>> entries = bucket.iterator(); entries.hasNext(); ) {
+                    if (filter.test(entries.next().item)) {
+                        entries.remove();
+                        removed++;
+                    }
+                }
+            }
+            size.addAndGet(-removed);
+            return removed;
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+    
+    /**
+     * Number of scheduled items not yet handed over or removed
+     */
+    public int size() {
+        return size.get();
+    }
+    
+    /**
+     * Whether at least one tick has elapsed since the last {@link #advance(Consumer)}
+     */
+    public boolean isAdvanceDue() {
+        return clock.getAsLong() / tickMillis > processedTick + 1;
+    }
+    
+    private int drain(long tick, Consumer<T> onExpire) {
+        Queue<Entry<T>> bucket = buckets[(int) (tick & mask)];
+        int expired = 0;
+        // Only look at entries present now; re-queued entries wait for the next revolution
+        for (int remaining = bucket.size(); remaining > 0; remaining--) {
+            Entry<T> entry = bucket.poll();
+            if (entry == null) {
+                break;
+            }
+            if (entry.tick <= tick) {
+                size.decrementAndGet();
+                onExpire.accept(entry.item);
+                expired++;
+            } else {
+                bucket.add(entry);
+            }
+        }
+        return expired;
+    }
+    
+    private record Entry<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.movietracker.api.util;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-memory set of token buckets addressed by key hash, guarded by striped locks.
+ * 
+ * <p>Each key hashes to one of {@code slots} buckets; keys that collide share a bucket,
+ * which can only make throttling stricter, never looser. Memory is one {@code long} per
+ * slot regardless of how many distinct keys are seen, so an attacker rotating keys cannot
+ * grow the structure.
+ * 
+ * <p>Buckets use the generic cell rate algorithm: each slot stores the theoretical arrival
+ * time of the next permit, which is equivalent to a token bucket of {@code capacity}
+ * tokens refilled at one token per {@code refillInterval}, without per-slot refill
+ * bookkeeping. Slots are grouped into {@code stripes} lock stripes, so contention is
+ * limited to keys that land on the same stripe.
+ */
+public final class StripedTokenBucket {
+    
+    private final long[] arrivals;
+    private final long capacity;
+    private final Object[] locks;
+    private final int slotMask;
+    private final int stripeMask;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+    
+    public StripedTokenBucket(int slots, int stripes, long capacity, Duration refillInterval) {
+        this(slots, stripes, capacity, refillInterval, System::nanoTime);
+    }
+    
+    public StripedTokenBucket(int slots, int stripes, long capacity, Duration refillInterval,
+                              LongSupplier nanoClock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        if (refillInterval.isNegative() || refillInterval.isZero()) {
+            throw new IllegalArgumentException("refillInterval must be positive");
+        }
+        int slotCount = powerOfTwoAtLeast(slots);
+        int stripeCount = Math.min(powerOfTwoAtLeast(stripes), slotCount);
+        
+        this.arrivals = new long[slotCount];
+        this.capacity = capacity;
+        this.locks = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            locks[i] = new Object();
+        }
+        this.slotMask = slotCount - 1;
+        this.stripeMask = stripeCount - 1;
+        this.intervalNanos = refillInterval.toNanos();
+        this.toleranceNanos = Math.multiplyExact(capacity - 1, intervalNanos);
+        this.nanoClock = nanoClock;
+        // Keep timestamps non-negative so an untouched slot (0) always reads as a full bucket
+        this.origin = nanoClock.getAsLong() - toleranceNanos - intervalNanos;
+    }
+    
+    /**
+     * Take one token from the key's bucket
+     * 
+     * @return {@code 0} if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(CharSequence key) {
+        return tryAcquire(key, 1);
+    }
+    
+    /**
+     * Take {@code permits} tokens from the key's bucket, all or none
+     * 
+     * @return {@code 0} if the tokens were taken, otherwise the nanoseconds until they are available
+     * @throws IllegalArgumentException if {@code permits} is not between 1 and the capacity
+     */
+    public long tryAcquire(CharSequence key, long permits) {
+        if (permits < 1 || permits > capacity) {
+            throw new IllegalArgumentException("permits must be between 1 and " + capacity);
+        }
+        int slot = spread(key.hashCode()) & slotMask;
+        long now = nanoClock.getAsLong() - origin;
+        long cost = (permits - 1) * intervalNanos;
+        synchronized (locks[slot & stripeMask]) {
+            long arrival = Math.max(arrivals[slot], now);
+            long wait = arrival + cost - toleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            arrivals[slot] = arrival + cost + intervalNanos;
+            return 0;
+        }
+    }
+    
+    /**
+     * Give back {@code permits} tokens taken from the key's bucket, e.g. when the work they
+     * paid for did not run. The bucket never holds more than its capacity.
+     * 
+     * @throws IllegalArgumentException if {@code permits} is not between 1 and the capacity
+     */
+    public void release(CharSequence key, long permits) {
+        if (permits < 1 || permits > capacity) {
+            throw new IllegalArgumentException("permits must be between 1 and " + capacity);
+        }
+        int slot = spread(key.hashCode()) & slotMask;
+        synchronized (locks[slot & stripeMask]) {
+            // An arrival time in the past already reads as a full bucket
+            arrivals[slot] = Math.max(0, arrivals[slot] - permits * intervalNanos);
+        }
+    }
+    
+    /**
+     * Tokens currently left in the key's bucket
+     */
+    public long available(CharSequence key) {
+        int slot = spread(key.hashCode()) & slotMask;
+        long now = nanoClock.getAsLong() - origin;
+        long arrival;
+        synchronized (locks[slot & stripeMask]) {
+            arrival = Math.max(arrivals[slot], now);
+        }
+        return (now + toleranceNanos + intervalNanos - arrival) / intervalNanos;
+    }
+    
+    public long capacity() {
+        return capacity;
+    }
+    
+    public int slots() {
+        return arrivals.length;
+    }
+    
+    private static int spread(int hash) {
+        // Murmur3 fmix32: String.hashCode clusters for similar keys such as IP addresses
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+    
+    private static int powerOfTwoAtLeast(int n) {
+        if (n < 1 || n > (1 << 30)) {
+            throw new IllegalArgumentException("size out of range: " + n);
+        }
+        return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+}
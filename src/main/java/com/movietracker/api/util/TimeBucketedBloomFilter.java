@@ -0,0 +1,103 @@
+package com.movietracker.api.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Bloom filter whose elements expire, organised as a ring of per-time-window filters.
+ * 
+ * <p>Each element is added together with the instant after which it no longer needs to be
+ * remembered and lands in the bucket covering that instant. A bucket is dropped as a whole
+ * once its window has passed and its slot is reused for a later window, so memory stays
+ * bounded by {@code bucketCount} filters no matter how many elements were ever added.
+ * 
+ * <p>Elements are remembered at least until their expiry and at most one bucket width
+ * longer. Expiries beyond the horizon ({@code maxLifetime} from now) are clamped to it.
+ * Like {@link BloomFilter}, a negative answer is definite and a positive answer may be a
+ * false positive.
+ */
+public final class TimeBucketedBloomFilter {
+    
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final long bucketMillis;
+    private final long expectedInsertionsPerBucket;
+    private final double falsePositiveRate;
+    private final LongSupplier clock;
+    
+    public TimeBucketedBloomFilter(Duration maxLifetime, int bucketCount,
+                                   long expectedInsertionsPerBucket, double falsePositiveRate) {
+        this(maxLifetime, bucketCount, expectedInsertionsPerBucket, falsePositiveRate, System::currentTimeMillis);
+    }
+    
+    public TimeBucketedBloomFilter(Duration maxLifetime, int bucketCount,
+                                   long expectedInsertionsPerBucket, double falsePositiveRate,
+                                   LongSupplier clock) {
+        if (bucketCount < 2) {
+            throw new IllegalArgumentException("bucketCount must be at least 2");
+        }
+        if (maxLifetime.isNegative() || maxLifetime.isZero()) {
+            throw new IllegalArgumentException("maxLifetime must be positive");
+        }
+        // One spare bucket so the window that is currently passing never shares a slot
+        // with the furthest window still inside the horizon
+        long lifetimeMillis = maxLifetime.toMillis();
+        this.bucketMillis = Math.max(1, (lifetimeMillis + bucketCount - 2) / (bucketCount - 1));
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+        this.expectedInsertionsPerBucket = expectedInsertionsPerBucket;
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+        
+        // Fail fast on invalid sizing rather than on the first insertion
+        BloomFilter.create(expectedInsertionsPerBucket, falsePositiveRate);
+    }
+    
+    /**
+     * Add an element that must be remembered until {@code expiresAtMillis}
+     */
+    public void put(CharSequence value, long expiresAtMillis) {
+        long now = clock.getAsLong();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+        long window = Math.min(expiresAtMillis / bucketMillis, now / bucketMillis + buckets.length() - 1);
+        bucketFor(window).filter.put(value);
+    }
+    
+    /**
+     * Whether the element may have been added and not yet expired; {@code false} is definite
+     */
+    public boolean mightContain(CharSequence value) {
+        long currentWindow = clock.getAsLong() / bucketMillis;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.window >= currentWindow && bucket.filter.mightContain(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public Duration bucketWidth() {
+        return Duration.ofMillis(bucketMillis);
+    }
+    
+    private Bucket bucketFor(long window) {
+        int slot = (int) Math.floorMod(window, (long) buckets.length());
+        while (true) {
+            Bucket current = buckets.get(slot);
+            // A later window in the same slot can only come from clock skew; keeping
+            // the element longer than needed is always safe
+            if (current != null && current.window >= window) {
+                return current;
+            }
+            Bucket fresh = new Bucket(window, BloomFilter.create(expectedInsertionsPerBucket, falsePositiveRate));
+            if (buckets.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+    
+    private record Bucket(long window, BloomFilter filter) {
+    }
+}
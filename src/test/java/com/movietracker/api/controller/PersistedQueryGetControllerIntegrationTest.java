@@ -0,0 +1,127 @@
+package com.movietracker.api.controller;
+
+import com.movietracker.api.entity.Movie;
+import com.movietracker.api.graphql.PersistedQueryManifest;
+import com.movietracker.api.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.graphql.persisted-queries.manifest=classpath:persisted-query-manifest.json")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PersistedQueryGetControllerIntegrationTest {
+    
+    // Bodies as listed in src/test/resources/persisted-query-manifest.json
+    private static final String MOVIE = "query Movie($id: ID!) { movie(id: $id) { id title director } }";
+    private static final String SEARCH = "query Search($q: String!) { searchMovies(query: $q) { id title } }";
+    private static final String MY_MOVIES = "query Mine { myMovies { id } }";
+    private static final String LOGOUT = "mutation Logout { logout }";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    private Movie movie;
+    
+    @BeforeEach
+    void setUp() {
+        movie = new Movie("Heat");
+        movie.setDirector("Michael Mann");
+        movie = movieRepository.save(movie);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        movieRepository.deleteAll();
+    }
+    
+    @Test
+    void get_CatalogQuery_ShouldBeCacheable() throws Exception {
+        mockMvc.perform(persisted(MOVIE, "{\"id\":\"" + movie.getId() + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.data.movie.title").value("Heat"))
+                .andExpect(jsonPath("$.extensions").doesNotExist());
+    }
+    
+    @Test
+    void get_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        // Given
+        String etag = mockMvc.perform(persisted(MOVIE, "{\"id\":\"" + movie.getId() + "\"}"))
+                .andReturn().getResponse().getHeader("ETag");
+        
+        // When & Then
+        mockMvc.perform(persisted(MOVIE, "{\"id\":\"" + movie.getId() + "\"}").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+    
+    @Test
+    void get_AfterMovieUpdate_ShouldChangeETag() throws Exception {
+        // Given
+        String before = mockMvc.perform(persisted(MOVIE, "{\"id\":\"" + movie.getId() + "\"}"))
+                .andReturn().getResponse().getHeader("ETag");
+        
+        // When
+        movie.setTitle("Heat (1995)");
+        movieRepository.save(movie);
+        
+        // Then
+        String after = mockMvc.perform(persisted(MOVIE, "{\"id\":\"" + movie.getId() + "\"}").header("If-None-Match", before))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.movie.title").value("Heat (1995)"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(before, after);
+    }
+    
+    @Test
+    void get_Search_ShouldUseLowestMaxAge() throws Exception {
+        mockMvc.perform(persisted(SEARCH, "{\"q\":\"mann\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, public"))
+                .andExpect(jsonPath("$.data.searchMovies[0].title").value("Heat"));
+    }
+    
+    @Test
+    void get_UnhintedOrFailingQuery_ShouldNotBeStored() throws Exception {
+        mockMvc.perform(persisted(MY_MOVIES, null))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.errors").exists());
+    }
+    
+    @Test
+    void get_Mutation_ShouldBeRejected() throws Exception {
+        mockMvc.perform(persisted(LOGOUT, null))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(header().string("Allow", "POST"));
+    }
+    
+    @Test
+    void get_UnknownOperation_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(persisted("{ health }", null))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+    }
+    
+    private static MockHttpServletRequestBuilder persisted(String query, String variables) {
+        String extensions = "{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\""
+                + PersistedQueryManifest.sha256Hex(query) + "\"}}";
+        MockHttpServletRequestBuilder request = get("/graphql").param("extensions", extensions);
+        return variables != null ? request.param("variables", variables) : request;
+    }
+}
@@ -0,0 +1,323 @@
+package com.movietracker.api.datafetcher;
+
+import com.movietracker.api.entity.Movie;
+import com.movietracker.api.entity.User;
+import com.movietracker.api.entity.UserMovie;
+import com.movietracker.api.repository.MovieRepository;
+import com.movietracker.api.repository.UserMovieRepository;
+import com.movietracker.api.repository.UserRepository;
+import com.movietracker.api.security.AuthenticatedUser;
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import graphql.ExecutionResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@SuppressWarnings("unchecked")
+class MovieDataFetcherIntegrationTest {
+    
+    private static final String MY_MOVIES = """
+        {
+          myMovies {
+            id
+            dateWatched
+            movie { id title }
+            user { id username }
+          }
+        }
+        """;
+    
+    @Autowired
+    private DgsQueryExecutor queryExecutor;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private UserMovieRepository userMovieRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private User user;
+    private List<Movie> movies;
+    
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("viewer@example.com", "viewer", "hash"));
+        movies = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            movies.add(movieRepository.save(new Movie("Movie " + i)));
+        }
+        for (int i = 0; i < movies.size(); i++) {
+            userMovieRepository.save(new UserMovie(user, movies.get(i), LocalDate.of(2024, 1, 1).plusDays(i)));
+        }
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            new AuthenticatedUser(user.getId(), user.getEmail(), user.getUsername()), null, List.of()));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userMovieRepository.deleteAll();
+        movieRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+    
+    @Test
+    void myMovies_ShouldBatchMovieAndUserLoads() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        // When
+        ExecutionResult result = queryExecutor.execute(MY_MOVIES);
+        
+        // Then - one query for the log, one for the movies, one for the user
+        assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        Map<String, List<?>> data = result.getData();
+        assertEquals(50, data.get("myMovies").size());
+    }
+    
+    @Test
+    void myMovies_ShouldRecordStatementsAndBatchSizes() {
+        // When
+        ExecutionResult result = queryExecutor.execute("query WatchLog " + MY_MOVIES.strip());
+        
+        // Then
+        assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+        DistributionSummary statements = meterRegistry.get("graphql.operation.sql.statements")
+            .tag("operation", "WatchLog").summary();
+        assertEquals(1, statements.count());
+        assertEquals(3.0, statements.totalAmount());
+        assertEquals(50.0, meterRegistry.get("graphql.dataloader.batch.size")
+            .tag("loader", "movieSummaries").summary().max());
+        assertNotNull(meterRegistry.find("graphql.field").tag("field", "UserMovie.movie").timer());
+    }
+    
+    @Test
+    void myMovies_ShouldReturnMostRecentFirst() {
+        // When
+        String firstTitle = queryExecutor.executeAndExtractJsonPath(MY_MOVIES, "data.myMovies[0].movie.title");
+        String firstUser = queryExecutor.executeAndExtractJsonPath(MY_MOVIES, "data.myMovies[0].user.username");
+        
+        // Then
+        assertEquals("Movie 49", firstTitle);
+        assertEquals("viewer", firstUser);
+    }
+    
+    @Test
+    void myMovies_WithoutAuthentication_ShouldReturnError() {
+        // Given
+        SecurityContextHolder.clearContext();
+        
+        // When
+        ExecutionResult result = queryExecutor.execute(MY_MOVIES);
+        
+        // Then
+        assertFalse(result.getErrors().isEmpty());
+    }
+    
+    @Test
+    void myMoviesConnection_ShouldWalkHistoryPageByPage() {
+        // Given - two logs on the same day exercise the id tiebreak
+        userMovieRepository.save(new UserMovie(user, movies.get(0), LocalDate.of(2024, 1, 1)));
+        List<String> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        
+        // When
+        while (true) {
+            String query = after == null
+                ? "{ myMoviesConnection(first: 20) { edges { cursor node { id dateWatched } } pageInfo { hasNextPage endCursor } } }"
+                : String.format("{ myMoviesConnection(first: 20, after: \"%s\") { edges { cursor node { id dateWatched } } pageInfo { hasNextPage endCursor } } }", after);
+            Map<String, Object> connection = queryExecutor.executeAndExtractJsonPath(query, "data.myMoviesConnection");
+            List<Map<String, Map<String, Object>>> edges = (List<Map<String, Map<String, Object>>>) connection.get("edges");
+            edges.forEach(edge -> seen.add((String) edge.get("node").get("id")));
+            pages++;
+            Map<String, Object> pageInfo = (Map<String, Object>) connection.get("pageInfo");
+            if (!(Boolean) pageInfo.get("hasNextPage")) {
+                break;
+            }
+            after = (String) pageInfo.get("endCursor");
+        }
+        
+        // Then
+        assertEquals(3, pages);
+        assertEquals(51, seen.size());
+        assertEquals(51, seen.stream().distinct().count());
+    }
+    
+    @Test
+    void myMoviesConnection_WithInvalidCursor_ShouldReturnBadRequest() {
+        // When
+        ExecutionResult result = queryExecutor.execute(
+            "{ myMoviesConnection(first: 5, after: \"bogus\") { edges { cursor } } }");
+        
+        // Then
+        assertEquals(1, result.getErrors().size());
+        assertEquals("Invalid cursor", result.getErrors().get(0).getMessage());
+    }
+    
+    @Test
+    void myMovies_WithFilterAndSort_ShouldApplyAllCriteria() {
+        // Given - ratings cycle 1..10, every other showing at the Odeon, prices 8.00..12.90
+        List<UserMovie> logs = userMovieRepository.findAll();
+        for (UserMovie log : logs) {
+            int day = log.getDateWatched().getDayOfYear() - 1;
+            log.setPersonalRating(day % 10 + 1);
+            log.setTheater(day % 2 == 0 ? "Odeon" : "Rex");
+            log.setTicketPrice(BigDecimal.valueOf(800 + day * 10, 2));
+        }
+        userMovieRepository.saveAll(logs);
+        String query = """
+            {
+              myMovies(
+                filter: { theater: "Odeon", minRating: 5, maxRating: 9, maxPrice: 11.0,
+                          watchedFrom: "2024-01-05T00:00:00Z" }
+                sort: { field: PERSONAL_RATING, direction: DESC }
+              ) { personalRating theater ticketPrice movie { title } }
+            }
+            """;
+        
+        // When
+        List<Map<String, Object>> result = queryExecutor.executeAndExtractJsonPath(query, "data.myMovies");
+        
+        // Then - days 4..30, even, rating 5..9: days 4, 6, 8, 14, 16, 18, 24, 26, 28
+        assertEquals(9, result.size());
+        assertEquals(List.of(9, 9, 9, 7, 7, 7, 5, 5, 5),
+            result.stream().map(row -> row.get("personalRating")).toList());
+        assertTrue(result.stream().allMatch(row -> "Odeon".equals(row.get("theater"))));
+        assertTrue(result.stream().allMatch(row -> ((Number) row.get("ticketPrice")).doubleValue() <= 11.0));
+    }
+    
+    @Test
+    void myMoviesIfChanged_WithCurrentETag_ShouldSkipTheListQuery() {
+        // Given
+        String query = "query Poll($etag: String) { myMoviesIfChanged(ifNoneMatch: $etag) { etag unchanged movies { id } } }";
+        Map<String, Object> first = queryExecutor.executeAndExtractJsonPath(query, "data.myMoviesIfChanged");
+        String etag = (String) first.get("etag");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        
+        // When
+        Map<String, Object> second = queryExecutor.executeAndExtractJsonPath(
+            query, "data.myMoviesIfChanged", Map.of("etag", etag));
+        
+        // Then - only the version lookup ran
+        assertFalse((Boolean) first.get("unchanged"));
+        assertEquals(50, ((List<?>) first.get("movies")).size());
+        assertTrue((Boolean) second.get("unchanged"));
+        assertNull(second.get("movies"));
+        assertEquals(etag, second.get("etag"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void myMoviesIfChanged_WithIfNoneMatchHeader_ShouldReturnUnchanged() {
+        // Given
+        String query = "{ myMoviesIfChanged { etag unchanged } }";
+        String etag = queryExecutor.executeAndExtractJsonPath(query, "data.myMoviesIfChanged.etag");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        
+        // When
+        ExecutionResult result = queryExecutor.execute(
+            query, Map.of(), Map.of(), headers, null, new ServletWebRequest(new MockHttpServletRequest()));
+        
+        // Then
+        assertTrue(result.getErrors().isEmpty());
+        Map<String, Object> snapshot = (Map<String, Object>) ((Map<String, Object>) result.getData()).get("myMoviesIfChanged");
+        assertTrue((Boolean) snapshot.get("unchanged"));
+    }
+    
+    @Test
+    void myMoviesIfChanged_AfterWrite_ShouldReturnRows() {
+        // Given
+        String query = "query Poll($etag: String) { myMoviesIfChanged(ifNoneMatch: $etag) { etag unchanged movies { id } } }";
+        String etag = queryExecutor.executeAndExtractJsonPath(query, "data.myMoviesIfChanged.etag");
+        
+        // When
+        UserMovie log = userMovieRepository.findAll().get(0);
+        log.setPersonalRating(10);
+        userMovieRepository.save(log);
+        Map<String, Object> result = queryExecutor.executeAndExtractJsonPath(
+            query, "data.myMoviesIfChanged", Map.of("etag", etag));
+        
+        // Then
+        assertFalse((Boolean) result.get("unchanged"));
+        assertNotEquals(etag, result.get("etag"));
+        assertEquals(50, ((List<?>) result.get("movies")).size());
+    }
+    
+    @Test
+    void myMoviesIfChanged_ShouldBindETagToArguments() {
+        // Given
+        String all = queryExecutor.executeAndExtractJsonPath(
+            "{ myMoviesIfChanged { etag } }", "data.myMoviesIfChanged.etag");
+        
+        // When
+        Map<String, Object> filtered = queryExecutor.executeAndExtractJsonPath(
+            "query Poll($etag: String) { myMoviesIfChanged(ifNoneMatch: $etag, filter: { theater: \"Odeon\" }) { etag unchanged } }",
+            "data.myMoviesIfChanged", Map.of("etag", all));
+        
+        // Then
+        assertFalse((Boolean) filtered.get("unchanged"));
+        assertNotEquals(all, filtered.get("etag"));
+    }
+    
+    @Test
+    void matches_ShouldFollowIfNoneMatchRules() {
+        assertTrue(MovieDataFetcher.matches("\"3-ab\"", "\"3-ab\""));
+        assertTrue(MovieDataFetcher.matches("\"1-ff\", W/\"3-ab\"", "\"3-ab\""));
+        assertTrue(MovieDataFetcher.matches("*", "\"3-ab\""));
+        assertFalse(MovieDataFetcher.matches("\"2-ab\"", "\"3-ab\""));
+        assertFalse(MovieDataFetcher.matches(null, "\"3-ab\""));
+    }
+    
+    @Test
+    void movies_ShouldResolveIdsInOrderWithNullForUnknown() {
+        // Given
+        String query = String.format("{ movies(ids: [\"%s\", \"missing\", \"%s\"]) { id title } }",
+            movies.get(2).getId(), movies.get(0).getId());
+        
+        // When
+        List<Map<String, Object>> result = queryExecutor.executeAndExtractJsonPath(query, "data.movies");
+        
+        // Then
+        assertEquals(3, result.size());
+        assertEquals("Movie 2", result.get(0).get("title"));
+        assertNull(result.get(1));
+        assertEquals("Movie 0", result.get(2).get("title"));
+    }
+}
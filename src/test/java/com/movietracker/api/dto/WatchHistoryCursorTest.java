@@ -0,0 +1,40 @@
+package com.movietracker.api.dto;
+
+import com.movietracker.api.exception.InvalidInputException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchHistoryCursorTest {
+    
+    @Test
+    void decode_ShouldRoundTripEncodedCursor() {
+        // Given
+        WatchHistoryCursor cursor = new WatchHistoryCursor(LocalDate.of(2024, 3, 9), "0b6c1a9e-5f1e-4c1a-9a2d-7d3b5f0e8c11");
+        
+        // When
+        WatchHistoryCursor decoded = WatchHistoryCursor.decode(cursor.encode());
+        
+        // Then
+        assertEquals(cursor, decoded);
+    }
+    
+    @Test
+    void encode_ShouldBeOpaqueAndUrlSafe() {
+        // When
+        String encoded = new WatchHistoryCursor(LocalDate.of(2024, 3, 9), "abc").encode();
+        
+        // Then
+        assertFalse(encoded.contains("2024"));
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+    
+    @Test
+    void decode_WithGarbage_ShouldThrowInvalidInput() {
+        assertThrows(InvalidInputException.class, () -> WatchHistoryCursor.decode("not a cursor!"));
+        assertThrows(InvalidInputException.class, () -> WatchHistoryCursor.decode("djE6eHl6OmFiYw"));
+        assertThrows(InvalidInputException.class, () -> WatchHistoryCursor.decode(""));
+    }
+}
@@ -0,0 +1,212 @@
+package com.movietracker.api.graphql;
+
+import com.movietracker.api.security.AuthenticatedUser;
+import com.movietracker.api.security.SecurityContextHelper;
+import com.movietracker.api.util.StripedTokenBucket;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationBudgetInstrumentationTest {
+    
+    private static final String SDL = """
+        type Query { myMovies: [UserMovie!]! }
+        type UserMovie { id: ID! theater: String }
+        """;
+    
+    // Two fields over a hinted list of 10: 1 + 10 * 2 = 21 units
+    private static final String MY_MOVIES = "{ myMovies { id theater } }";
+    
+    private AtomicLong clock;
+    private AtomicInteger fetches;
+    private AtomicInteger costedFields;
+    private MeterRegistry meterRegistry;
+    private StripedTokenBucket tokenBuckets;
+    private GraphQL graphQL;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        fetches = new AtomicInteger();
+        costedFields = new AtomicInteger();
+        meterRegistry = new SimpleMeterRegistry();
+        // User: 100 units, token: 50 units, both refilled at one unit per second
+        StripedTokenBucket userBuckets = new StripedTokenBucket(1024, 16, 100, Duration.ofSeconds(1), clock::get);
+        tokenBuckets = new StripedTokenBucket(1024, 16, 50, Duration.ofSeconds(1), clock::get);
+        ListSizeComplexityCalculator listSizes = new ListSizeComplexityCalculator(Map.of("Query.myMovies", 10), 10);
+        FieldComplexityCalculator calculator = (environment, childComplexity) -> {
+            costedFields.incrementAndGet();
+            return listSizes.calculate(environment, childComplexity);
+        };
+        // Same order as in the application: the cost ceiling, then the budgets
+        ChainedInstrumentation instrumentation = new ChainedInstrumentation(List.of(
+            new QueryCostLimitInstrumentation(1000, calculator, meterRegistry),
+            new OperationBudgetInstrumentation(
+                new SecurityContextHelper(null), calculator, userBuckets, tokenBuckets, meterRegistry)));
+        
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+            .type("Query", type -> type.dataFetcher("myMovies", env -> {
+                fetches.incrementAndGet();
+                return List.of();
+            }))
+            .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SDL), wiring);
+        graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void execute_WithinBudget_ShouldChargeCostAndReportRemaining() {
+        // Given
+        authenticate("user-1", "token-1");
+        ExecutionInput input = ExecutionInput.newExecutionInput(MY_MOVIES).build();
+        
+        // When
+        ExecutionResult result = graphQL.execute(input);
+        
+        // Then - the token budget is the tighter one
+        assertTrue(result.getErrors().isEmpty());
+        RateLimitStatus status = RateLimitStatus.get(input.getGraphQLContext()).orElseThrow();
+        assertEquals("token", status.budget());
+        assertEquals(50, status.limit());
+        assertEquals(29, status.remaining());
+        assertEquals(21, status.cost());
+        assertFalse(status.exceeded());
+    }
+    
+    @Test
+    void execute_OverTokenBudget_ShouldAbortBeforeFetching() {
+        // Given
+        authenticate("user-1", "token-1");
+        graphQL.execute(MY_MOVIES);
+        graphQL.execute(MY_MOVIES);
+        
+        // When - 8 units left, 21 needed
+        ExecutionResult result = graphQL.execute(MY_MOVIES);
+        
+        // Then
+        assertEquals(2, fetches.get());
+        assertEquals(1, result.getErrors().size());
+        GraphQLError error = result.getErrors().get(0);
+        assertEquals("TOO_MANY_REQUESTS", error.getExtensions().get("errorDetail"));
+        assertEquals(true, error.getExtensions().get("retryable"));
+        assertEquals(13L, error.getExtensions().get("retryAfterSeconds"));
+        assertEquals("token", ((Map<?, ?>) error.getExtensions().get("rateLimit")).get("budget"));
+        assertEquals(1.0, meterRegistry.get("graphql.budget.rejected").tag("budget", "token").counter().count());
+    }
+    
+    @Test
+    void execute_ShouldShareUserBudgetAcrossTokens() {
+        // Given - four tokens of one user spend 84 of the 100 user units
+        for (int i = 0; i < 4; i++) {
+            authenticate("user-1", "token-" + i);
+            assertTrue(graphQL.execute(MY_MOVIES).getErrors().isEmpty());
+        }
+        
+        // When
+        authenticate("user-1", "token-4");
+        ExecutionResult rejected = graphQL.execute(MY_MOVIES);
+        authenticate("user-2", "token-5");
+        ExecutionResult otherUser = graphQL.execute(MY_MOVIES);
+        
+        // Then
+        assertEquals(1, rejected.getErrors().size());
+        assertEquals("user", ((Map<?, ?>) rejected.getErrors().get(0).getExtensions().get("rateLimit")).get("budget"));
+        assertTrue(otherUser.getErrors().isEmpty());
+    }
+    
+    @Test
+    void execute_RejectedByUserBudget_ShouldRefundTokenBudget() {
+        // Given - four tokens of one user spend 84 of the 100 user units
+        for (int i = 0; i < 4; i++) {
+            authenticate("user-1", "token-" + i);
+            graphQL.execute(MY_MOVIES);
+        }
+        authenticate("user-1", "token-4");
+        
+        // When
+        ExecutionResult rejected = graphQL.execute(MY_MOVIES);
+        
+        // Then - the token budget still holds all 50 units
+        assertEquals(1, rejected.getErrors().size());
+        assertEquals(50, tokenBuckets.available("t:token-4"));
+        assertEquals(0.0, meterRegistry.get("graphql.budget.rejected").tag("budget", "token").counter().count());
+    }
+    
+    @Test
+    void execute_ShouldCalculateCostOnce() {
+        // Given
+        authenticate("user-1", "token-1");
+        
+        // When
+        graphQL.execute(MY_MOVIES);
+        
+        // Then - myMovies, id and theater, each costed by one instrumentation only
+        assertEquals(3, costedFields.get());
+    }
+    
+    @Test
+    void execute_ShouldRefillOverTime() {
+        // Given
+        authenticate("user-1", "token-1");
+        graphQL.execute(MY_MOVIES);
+        graphQL.execute(MY_MOVIES);
+        assertFalse(graphQL.execute(MY_MOVIES).getErrors().isEmpty());
+        
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(13));
+        
+        // Then
+        assertTrue(graphQL.execute(MY_MOVIES).getErrors().isEmpty());
+    }
+    
+    @Test
+    void execute_Anonymous_ShouldNotBeMetered() {
+        // Given
+        ExecutionInput input = ExecutionInput.newExecutionInput(MY_MOVIES).build();
+        
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertTrue(graphQL.execute(MY_MOVIES).getErrors().isEmpty());
+        }
+        graphQL.execute(input);
+        
+        // Then
+        assertTrue(RateLimitStatus.get(input.getGraphQLContext()).isEmpty());
+    }
+    
+    private static void authenticate(String userId, String tokenId) {
+        AuthenticatedUser principal = new AuthenticatedUser(
+            userId, userId + "@example.com", userId, tokenId, new Date(System.currentTimeMillis() + 60_000));
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
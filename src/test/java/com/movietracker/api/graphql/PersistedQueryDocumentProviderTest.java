@@ -0,0 +1,146 @@
+package com.movietracker.api.graphql;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistedQueryDocumentProviderTest {
+    
+    private static final String QUERY = "{ health }";
+    private static final String HASH = PersistedQueryManifest.sha256Hex(QUERY);
+    
+    private MeterRegistry meterRegistry;
+    private AtomicInteger parses;
+    private Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        parses = new AtomicInteger();
+        parseAndValidate = input -> {
+            parses.incrementAndGet();
+            return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+        };
+    }
+    
+    @Test
+    void getDocument_WithUnknownHash_ShouldAskForRegistrationThenServeFromCache() {
+        // Given
+        PersistedQueryDocumentProvider provider = provider(PersistedQueryManifest.empty(), false);
+        
+        // When - hash only, then registration, then hash only again
+        PreparsedDocumentEntry miss = provider.getDocumentAsync(hashOnly(), parseAndValidate).join();
+        PreparsedDocumentEntry registered = provider.getDocumentAsync(withText(QUERY, HASH), parseAndValidate).join();
+        PreparsedDocumentEntry hit = provider.getDocumentAsync(hashOnly(), parseAndValidate).join();
+        
+        // Then
+        assertTrue(miss.hasErrors());
+        assertEquals("PersistedQueryNotFound", miss.getErrors().get(0).getMessage());
+        assertFalse(registered.hasErrors());
+        assertSame(registered.getDocument(), hit.getDocument());
+        assertEquals(1, parses.get());
+    }
+    
+    @Test
+    void getDocument_WithMismatchedHash_ShouldRejectRegistration() {
+        // Given
+        PersistedQueryDocumentProvider provider = provider(PersistedQueryManifest.empty(), false);
+        
+        // When
+        PreparsedDocumentEntry entry = provider.getDocumentAsync(withText("{ me { id } }", HASH), parseAndValidate).join();
+        
+        // Then
+        assertTrue(entry.hasErrors());
+        assertEquals(0, parses.get());
+    }
+    
+    @Test
+    void getDocument_WithoutHash_ShouldParseAsUsual() {
+        // Given
+        PersistedQueryDocumentProvider provider = provider(PersistedQueryManifest.empty(), false);
+        
+        // When
+        PreparsedDocumentEntry entry = provider.getDocumentAsync(
+            ExecutionInput.newExecutionInput(QUERY).build(), parseAndValidate).join();
+        
+        // Then
+        assertFalse(entry.hasErrors());
+        assertEquals(1, parses.get());
+    }
+    
+    @Test
+    void getDocument_InAllowlistMode_ShouldServeManifestOperationsFromHashAlone() {
+        // Given
+        PersistedQueryDocumentProvider provider = provider(PersistedQueryManifest.of(Map.of(HASH, QUERY)), true);
+        
+        // When
+        PreparsedDocumentEntry entry = provider.getDocumentAsync(hashOnly(), parseAndValidate).join();
+        
+        // Then
+        assertFalse(entry.hasErrors());
+        assertEquals(1, parses.get());
+    }
+    
+    @Test
+    void getDocument_InAllowlistMode_ShouldRejectUnknownHashesAndPlainQueries() {
+        // Given
+        PersistedQueryDocumentProvider provider = provider(PersistedQueryManifest.of(Map.of(HASH, QUERY)), true);
+        String other = "{ me { id } }";
+        
+        // When
+        PreparsedDocumentEntry unknown = provider.getDocumentAsync(
+            withText(other, PersistedQueryManifest.sha256Hex(other)), parseAndValidate).join();
+        PreparsedDocumentEntry plain = provider.getDocumentAsync(
+            ExecutionInput.newExecutionInput(QUERY).build(), parseAndValidate).join();
+        
+        // Then
+        assertEquals("PersistedQueryNotAllowed", unknown.getErrors().get(0).getMessage());
+        assertEquals("PersistedQueryRequired", plain.getErrors().get(0).getMessage());
+        assertEquals(0, parses.get());
+        assertEquals(1.0, meterRegistry.get("graphql.persisted-queries.rejected").tag("reason", "not_allowlisted").counter().count());
+        assertEquals(1.0, meterRegistry.get("graphql.persisted-queries.rejected").tag("reason", "hash_required").counter().count());
+    }
+    
+    @Test
+    void manifest_WithWrongHash_ShouldFailToLoad() {
+        assertThrows(IllegalStateException.class, () -> PersistedQueryManifest.of(Map.of(HASH, "{ me { id } }")));
+    }
+    
+    @Test
+    void manifest_ShouldListOperationNames() {
+        // Given
+        String named = "query Catalog { health } mutation Logout { logout }";
+        PersistedQueryManifest manifest = PersistedQueryManifest.of(Map.of(
+            HASH, QUERY, PersistedQueryManifest.sha256Hex(named), named));
+        
+        // Then
+        assertEquals(Set.of("Catalog", "Logout"), manifest.operationNames());
+    }
+    
+    private PersistedQueryDocumentProvider provider(PersistedQueryManifest manifest, boolean allowlistOnly) {
+        PersistedDocumentCache cache = new PersistedDocumentCache(100, manifest, allowlistOnly, meterRegistry);
+        return new PersistedQueryDocumentProvider(cache, allowlistOnly, meterRegistry);
+    }
+    
+    private static ExecutionInput hashOnly() {
+        return withText(PersistedQuerySupport.PERSISTED_QUERY_MARKER, HASH);
+    }
+    
+    private static ExecutionInput withText(String query, String hash) {
+        return ExecutionInput.newExecutionInput(query)
+            .extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)))
+            .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.movietracker.api.graphql;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryLimitInstrumentationTest {
+    
+    private static final String SDL = """
+        type Query {
+            myMovies: [UserMovie!]!
+            movies(ids: [ID!]!): [Movie]!
+            myMoviesConnection(first: Int = 20): UserMovieConnection!
+        }
+        type UserMovie { id: ID! user: User! movie: Movie! }
+        type User { id: ID! movies: [UserMovie!]! }
+        type Movie { id: ID! title: String! }
+        type UserMovieConnection { edges: [UserMovieEdge!]! }
+        type UserMovieEdge { cursor: String! node: UserMovie! }
+        """;
+    
+    private MeterRegistry meterRegistry;
+    private GraphQL graphQL;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(
+            new SchemaParser().parse(SDL), RuntimeWiring.newRuntimeWiring().build());
+        ListSizeComplexityCalculator calculator = new ListSizeComplexityCalculator(Map.of("Query.myMovies", 100), 10);
+        graphQL = GraphQL.newGraphQL(schema)
+            .instrumentation(new ChainedInstrumentation(List.of(
+                new QueryDepthLimitInstrumentation(5, meterRegistry),
+                new QueryCostLimitInstrumentation(1000, calculator, meterRegistry))))
+            .build();
+    }
+    
+    @Test
+    void execute_WithinLimits_ShouldRun() {
+        // When - myMovies costs 1 + 100 * (1 + (1 + 1)) = 301
+        ExecutionResult result = graphQL.execute("{ myMovies { id movie { title } } }");
+        
+        // Then
+        assertTrue(result.getErrors().isEmpty(), () -> result.getErrors().toString());
+    }
+    
+    @Test
+    void execute_TooDeep_ShouldRejectAndCount() {
+        // When
+        ExecutionResult result = graphQL.execute("{ myMovies { user { movies { user { movies { id } } } } } }");
+        
+        // Then
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).getMessage().contains("depth"));
+        assertEquals(1.0, meterRegistry.get("graphql.query.rejected").tag("reason", "depth").counter().count());
+    }
+    
+    @Test
+    void execute_TooExpensive_ShouldRejectBeforeFetching() {
+        // When - hinted list of 100 rows, each with a default-sized list of 10 nested rows
+        ExecutionResult result = graphQL.execute("{ myMovies { id user { movies { id } } } }");
+        
+        // Then
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).getMessage().contains("cost"));
+        assertNull(result.getData());
+        assertEquals(1.0, meterRegistry.get("graphql.query.rejected").tag("reason", "cost").counter().count());
+    }
+    
+    @Test
+    void execute_ShouldSizeListsFromArguments() {
+        // Given - 300 requested edges exceed the ceiling, 30 don't
+        String large = "{ myMoviesConnection(first: 300) { edges { cursor node { id movie { title } } } } }";
+        String small = "{ myMoviesConnection(first: 30) { edges { cursor node { id movie { title } } } } }";
+        
+        // Then
+        assertFalse(graphQL.execute(large).getErrors().isEmpty());
+        assertTrue(graphQL.execute(small).getErrors().isEmpty());
+        assertTrue(graphQL.execute("{ movies(ids: [\"1\", \"2\"]) { id title } }").getErrors().isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+package com.movietracker.api.graphql;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolverMetricsInstrumentationTest {
+    
+    private static final String SDL = """
+        type Query { movies(ids: [ID!]!): [Movie!]! broken: String }
+        type Movie { id: ID! title: String! }
+        """;
+    
+    private MeterRegistry meterRegistry;
+    private GraphQL graphQL;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+            .type("Query", type -> type
+                .dataFetcher("movies", env -> env.<List<String>>getArgument("ids").stream()
+                    .map(id -> Map.of("id", id, "title", "Movie " + id))
+                    .toList())
+                .dataFetcher("broken", env -> {
+                    throw new IllegalStateException("boom");
+                }))
+            .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SDL), wiring);
+        graphQL = GraphQL.newGraphQL(schema)
+            .instrumentation(new ResolverMetricsInstrumentation(meterRegistry, Duration.ZERO, 1.0))
+            .build();
+    }
+    
+    @Test
+    void execute_ShouldTimeOperationByDocumentName() {
+        // When
+        ExecutionResult result = graphQL.execute("query Catalog { movies(ids: [\"1\", \"2\"]) { id title } }");
+        
+        // Then
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(1, meterRegistry.get("graphql.operation")
+            .tags("operation", "Catalog", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("graphql.operation.sql.statements")
+            .tag("operation", "Catalog").summary().count());
+    }
+    
+    @Test
+    void execute_ShouldTimeOnlyNonTrivialFetchers() {
+        // When
+        graphQL.execute("{ movies(ids: [\"1\", \"2\"]) { id title } }");
+        
+        // Then
+        assertEquals(1, meterRegistry.get("graphql.field").tag("field", "Query.movies").timer().count());
+        assertNull(meterRegistry.find("graphql.field").tag("field", "Movie.title").timer());
+        assertEquals(1, meterRegistry.get("graphql.operation").tag("operation", "anonymous").timer().count());
+    }
+    
+    @Test
+    void execute_WithFailingFetcher_ShouldTagErrors() {
+        // When
+        graphQL.execute("query Broken { broken }");
+        
+        // Then
+        assertEquals(1, meterRegistry.get("graphql.field")
+            .tags("field", "Query.broken", "outcome", "error").timer().count());
+        assertEquals(1, meterRegistry.get("graphql.operation")
+            .tags("operation", "Broken", "outcome", "error").timer().count());
+    }
+    
+    @Test
+    void execute_WithSeveralOperations_ShouldTagSelectedOne() {
+        // When
+        graphQL.execute(ExecutionInput.newExecutionInput("query Named { broken } query Other { broken }")
+            .operationName("Other").build());
+        
+        // Then
+        assertNotNull(meterRegistry.find("graphql.operation").tag("operation", "Other").timer());
+    }
+    
+    @Test
+    void operationNameFilter_ShouldTagUnknownNamesAsOther() {
+        // Given
+        meterRegistry.config().meterFilter(ResolverMetricsInstrumentation.operationNameFilter(Set.of("Catalog")));
+        
+        // When
+        graphQL.execute("query Catalog { movies(ids: [\"1\"]) { id } }");
+        graphQL.execute("query Random1 { movies(ids: [\"1\"]) { id } }");
+        graphQL.execute("query Random2 { movies(ids: [\"1\"]) { id } }");
+        graphQL.execute("{ movies(ids: [\"1\"]) { id } }");
+        
+        // Then
+        assertEquals(1, meterRegistry.get("graphql.operation").tag("operation", "Catalog").timer().count());
+        assertEquals(2, meterRegistry.get("graphql.operation").tag("operation", "other").timer().count());
+        assertEquals(2, meterRegistry.get("graphql.operation.sql.statements").tag("operation", "other").summary().count());
+        assertEquals(1, meterRegistry.get("graphql.operation").tag("operation", "anonymous").timer().count());
+        assertNull(meterRegistry.find("graphql.operation").tag("operation", "Random1").timer());
+    }
+    
+    @Test
+    void shapeOf_ShouldDescribeStructureWithoutValues() {
+        // Given
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("theater", "Odeon");
+        filter.put("minRating", 5);
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("ids", List.of("secret-1", "secret-2", "secret-3"));
+        variables.put("filter", filter);
+        variables.put("after", null);
+        variables.put("tags", List.of());
+        
+        // When
+        String shape = ResolverMetricsInstrumentation.shapeOf(variables);
+        
+        // Then
+        assertEquals("{after: null, filter: {minRating: Integer, theater: String}, ids: [3 x String], tags: [0]}", shape);
+        assertFalse(shape.contains("secret"));
+        assertFalse(shape.contains("Odeon"));
+    }
+    
+    @Test
+    void shapeOf_ShouldStopAtMaxDepth() {
+        // Given
+        Map<String, Object> nested = Map.of("a", Map.of("b", Map.of("c", Map.of("d", Map.of("e", "deep")))));
+        
+        // When
+        String shape = ResolverMetricsInstrumentation.shapeOf(nested);
+        
+        // Then
+        assertEquals("{a: {b: {c: {d: {...}}}}}", shape);
+    }
+}
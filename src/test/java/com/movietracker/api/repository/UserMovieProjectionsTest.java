@@ -0,0 +1,100 @@
+package com.movietracker.api.repository;
+
+import com.movietracker.api.entity.Movie;
+import com.movietracker.api.entity.User;
+import com.movietracker.api.entity.UserMovie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class UserMovieProjectionsTest {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private UserMovieRepository userMovieRepository;
+    
+    private User user;
+    private Movie movie;
+    
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("viewer@example.com", "viewer", "hash"));
+        movie = new Movie("Heat");
+        movie.setDirector("Michael Mann");
+        movie.setPlotSummary("A group of professional bank robbers...");
+        movie = movieRepository.save(movie);
+        UserMovie userMovie = new UserMovie(user, movie, LocalDate.of(2024, 5, 1));
+        userMovie.setTheater("Odeon");
+        userMovie.setNotes("Great shootout");
+        userMovie.setTicketPrice(new BigDecimal("12.50"));
+        userMovie.setExtractionMetadata("{\"ocr\":\"...\"}");
+        userMovieRepository.saveAndFlush(userMovie);
+    }
+    
+    @Test
+    void findAllProjected_ShouldOnlyReadKeysAndSelectedColumns() {
+        // Given
+        Specification<UserMovie> byUser = (root, query, cb) -> cb.equal(root.get("userId"), user.getId());
+        
+        // When
+        List<UserMovie> rows = userMovieRepository.findAllProjected(
+            byUser, Sort.by("dateWatched"), Limit.unlimited(), Set.of("theater", "extractionMetadata", "movie"));
+        
+        // Then
+        assertEquals(1, rows.size());
+        UserMovie row = rows.get(0);
+        assertEquals(user.getId(), row.getUserId());
+        assertEquals(movie.getId(), row.getMovieId());
+        assertEquals(LocalDate.of(2024, 5, 1), row.getDateWatched());
+        assertEquals("Odeon", row.getTheater());
+        assertNull(row.getNotes());
+        assertNull(row.getTicketPrice());
+        assertNull(row.getExtractionMetadata());
+    }
+    
+    @Test
+    void findAllProjected_ShouldApplyLimit() {
+        // Given
+        userMovieRepository.saveAndFlush(new UserMovie(user, movie, LocalDate.of(2024, 6, 1)));
+        Specification<UserMovie> byUser = (root, query, cb) -> cb.equal(root.get("userId"), user.getId());
+        
+        // When
+        List<UserMovie> rows = userMovieRepository.findAllProjected(
+            byUser, Sort.by(Sort.Direction.DESC, "dateWatched"), Limit.of(1), Set.of());
+        
+        // Then
+        assertEquals(1, rows.size());
+        assertEquals(LocalDate.of(2024, 6, 1), rows.get(0).getDateWatched());
+    }
+    
+    @Test
+    void findSummariesByIdIn_ShouldSkipPlotSummary() {
+        // When
+        List<Movie> summaries = movieRepository.findSummariesByIdIn(List.of(movie.getId(), "missing"));
+        
+        // Then
+        assertEquals(1, summaries.size());
+        assertEquals("Heat", summaries.get(0).getTitle());
+        assertEquals("Michael Mann", summaries.get(0).getDirector());
+        assertNull(summaries.get(0).getPlotSummary());
+    }
+}
@@ -0,0 +1,99 @@
+package com.movietracker.api.repository;
+
+import com.movietracker.api.entity.Movie;
+import com.movietracker.api.entity.User;
+import com.movietracker.api.entity.UserMovie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(WatchHistoryVersionListener.class)
+class WatchHistoryVersionListenerTest {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MovieRepository movieRepository;
+    
+    @Autowired
+    private UserMovieRepository userMovieRepository;
+    
+    private User user;
+    private User otherUser;
+    private Movie movie;
+    
+    @BeforeEach
+    void setUp() {
+        user = userRepository.saveAndFlush(new User("viewer@example.com", "viewer", "hash"));
+        otherUser = userRepository.saveAndFlush(new User("other@example.com", "other", "hash"));
+        movie = movieRepository.saveAndFlush(new Movie("Heat"));
+    }
+    
+    @Test
+    void newUser_ShouldStartAtZero() {
+        assertEquals(0L, userRepository.findWatchHistoryVersion(user.getId()).orElseThrow());
+    }
+    
+    @Test
+    void writes_ShouldBumpOwnersVersionOnly() {
+        // When - insert
+        UserMovie log = userMovieRepository.saveAndFlush(new UserMovie(user, movie, LocalDate.of(2024, 1, 1)));
+        
+        // Then
+        assertEquals(1L, version(user));
+        
+        // When - update
+        log.setPersonalRating(8);
+        userMovieRepository.saveAndFlush(log);
+        
+        // Then
+        assertEquals(2L, version(user));
+        
+        // When - delete
+        userMovieRepository.delete(log);
+        userMovieRepository.flush();
+        
+        // Then
+        assertEquals(3L, version(user));
+        assertEquals(0L, version(otherUser));
+    }
+    
+    @Test
+    void unchangedFlush_ShouldNotBump() {
+        // Given
+        UserMovie log = userMovieRepository.saveAndFlush(new UserMovie(user, movie, LocalDate.of(2024, 1, 1)));
+        
+        // When
+        userMovieRepository.saveAndFlush(log);
+        
+        // Then
+        assertEquals(1L, version(user));
+    }
+    
+    @Test
+    void savingUser_ShouldNotOverwriteVersion() {
+        // Given
+        userMovieRepository.saveAndFlush(new UserMovie(user, movie, LocalDate.of(2024, 1, 1)));
+        
+        // When - the managed user still holds the version it was loaded with
+        user.setFirstName("Vincent");
+        userRepository.saveAndFlush(user);
+        
+        // Then
+        assertEquals(1L, version(user));
+    }
+    
+    private long version(User owner) {
+        return userRepository.findWatchHistoryVersion(owner.getId()).orElseThrow();
+    }
+}
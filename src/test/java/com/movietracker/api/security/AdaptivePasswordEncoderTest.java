@@ -0,0 +1,61 @@
+package com.movietracker.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePasswordEncoderTest {
+    
+    private final AdaptivePasswordEncoder encoder = new AdaptivePasswordEncoder(5);
+    
+    @Test
+    void encode_ShouldWritePrefixedHashWithPolicyCost() {
+        // When
+        String hash = encoder.encode("password123");
+        
+        // Then
+        AdaptivePasswordEncoder.HashInfo info = AdaptivePasswordEncoder.describe(hash);
+        assertEquals("bcrypt", info.algorithm());
+        assertEquals(5, info.cost());
+        assertTrue(info.prefixed());
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+    
+    @Test
+    void matches_WithLegacyUnprefixedHash_ShouldVerifyAndRequestUpgrade() {
+        // Given
+        String legacyHash = new BCryptPasswordEncoder(5).encode("password123");
+        
+        // Then
+        assertTrue(encoder.matches("password123", legacyHash));
+        assertFalse(encoder.matches("wrong", legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+    }
+    
+    @Test
+    void upgradeEncoding_ShouldOnlyFlagCostsBelowPolicy() {
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("pw")));
+        assertFalse(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(6).encode("pw")));
+        // Stronger hashes from a replica that calibrated higher are never weakened
+        assertFalse(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(7).encode("pw")));
+        assertFalse(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(8).encode("pw")));
+    }
+    
+    @Test
+    void matches_WithUnknownAlgorithm_ShouldReturnFalse() {
+        assertFalse(encoder.matches("password123", "{noop}password123"));
+        assertTrue(encoder.upgradeEncoding("{noop}password123"));
+    }
+    
+    @Test
+    void calibrator_ShouldPickHighestStrengthWithinTarget() {
+        // 1 ms at the reference strength 8 doubles per step: 9 -> 2 ms, 10 -> 4 ms, 11 -> 8 ms
+        long oneMilli = 1_000_000L;
+        
+        assertEquals(10, BCryptWorkFactorCalibrator.strengthFor(oneMilli, 5 * oneMilli, 4, 16));
+        assertEquals(12, BCryptWorkFactorCalibrator.strengthFor(oneMilli, 5 * oneMilli, 12, 16));
+        assertEquals(9, BCryptWorkFactorCalibrator.strengthFor(oneMilli, 500 * oneMilli, 4, 9));
+    }
+}
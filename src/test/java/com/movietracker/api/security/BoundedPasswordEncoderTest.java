@@ -0,0 +1,100 @@
+package com.movietracker.api.security;
+
+import com.movietracker.api.exception.ServiceUnavailableException;
+import com.netflix.graphql.types.errors.ErrorDetail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+    
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder encoder;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 2, meterRegistry);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+    
+    @Test
+    void encode_ShouldRunOnHashingThread() {
+        // Given
+        release.countDown();
+        
+        // When
+        String hash = encoder.encode("secret");
+        
+        // Then
+        assertTrue(hash.startsWith("hashed:secret@password-hash-"));
+        assertEquals(1, meterRegistry.get("auth.password.hash.duration").tag("operation", "encode").timer().count());
+    }
+    
+    @Test
+    void encode_WhenQueueIsFull_ShouldFailFastWithRetryableError() throws Exception {
+        // Given - one task running and one queued saturate a pool of 1 thread with a queue of 1
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        waitForQueueDepth(1);
+        
+        // When & Then
+        ServiceUnavailableException exception = assertThrows(
+            ServiceUnavailableException.class,
+            () -> encoder.matches("third", "hashed:third")
+        );
+        assertEquals(ErrorDetail.Common.THROTTLED_CPU, exception.getErrorDetail());
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("auth.password.hash.rejected").counter().count());
+        
+        // Queued work still completes once the pool drains
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+    
+    private void waitForQueueDepth(double depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.hash.queue.depth").gauge().value() < depth) {
+            if (System.nanoTime() > deadline) {
+                fail("Hashing queue never reached depth " + depth);
+            }
+            Thread.sleep(5);
+        }
+    }
+    
+    private class BlockingEncoder implements PasswordEncoder {
+        
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword + "@" + Thread.currentThread().getName();
+        }
+        
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.startsWith("hashed:" + rawPassword);
+        }
+    }
+}
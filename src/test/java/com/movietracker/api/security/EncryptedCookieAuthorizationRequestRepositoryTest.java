@@ -0,0 +1,130 @@
+package com.movietracker.api.security;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptedCookieAuthorizationRequestRepositoryTest {
+    
+    private static final String SECRET = "testSecretKeyThatIsLongEnoughForHS256AlgorithmTesting";
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+    
+    private EncryptedCookieAuthorizationRequestRepository repository;
+    private OAuth2AuthorizationRequest authorizationRequest;
+    
+    @BeforeEach
+    void setUp() {
+        repository = new EncryptedCookieAuthorizationRequestRepository(
+            SECRET, Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+        authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+            .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+            .clientId("client-id")
+            .redirectUri("https://api.example.com/login/oauth2/code/google")
+            .scopes(Set.of("openid", "email"))
+            .state("state-123")
+            .attributes(Map.of("registration_id", "google"))
+            .build();
+    }
+    
+    @Test
+    void saveAndLoad_ShouldRoundTripThroughCookie() {
+        // Given
+        Cookie cookie = save(repository);
+        
+        // When
+        OAuth2AuthorizationRequest loaded = repository.loadAuthorizationRequest(callback(cookie, "state-123"));
+        
+        // Then
+        assertNotNull(loaded);
+        assertEquals("client-id", loaded.getClientId());
+        assertEquals("state-123", loaded.getState());
+        assertEquals(Set.of("openid", "email"), loaded.getScopes());
+        assertEquals("google", loaded.getAttribute("registration_id"));
+        assertTrue(cookie.isHttpOnly());
+        assertEquals(300, cookie.getMaxAge());
+        assertEquals("Lax", cookie.getAttribute("SameSite"));
+    }
+    
+    @Test
+    void load_WithMismatchedState_ShouldReturnNull() {
+        Cookie cookie = save(repository);
+        
+        assertNull(repository.loadAuthorizationRequest(callback(cookie, "other-state")));
+    }
+    
+    @Test
+    void load_WithTamperedCookie_ShouldReturnNull() {
+        // Given
+        Cookie cookie = save(repository);
+        char[] value = cookie.getValue().toCharArray();
+        value[value.length / 2] = value[value.length / 2] == 'A' ? 'B' : 'A';
+        
+        // When & Then
+        assertNull(repository.loadAuthorizationRequest(
+            callback(new Cookie(cookie.getName(), new String(value)), "state-123")));
+    }
+    
+    @Test
+    void load_WithCookieFromDifferentSecret_ShouldReturnNull() {
+        // Given
+        EncryptedCookieAuthorizationRequestRepository other = new EncryptedCookieAuthorizationRequestRepository(
+            "anotherSecretKeyThatIsLongEnoughForHS256AlgorithmTesting", Duration.ofMinutes(5),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+        Cookie cookie = save(other);
+        
+        // When & Then
+        assertNull(repository.loadAuthorizationRequest(callback(cookie, "state-123")));
+    }
+    
+    @Test
+    void load_AfterExpiry_ShouldReturnNull() {
+        // Given
+        Cookie cookie = save(repository);
+        EncryptedCookieAuthorizationRequestRepository later = new EncryptedCookieAuthorizationRequestRepository(
+            SECRET, Duration.ofMinutes(5), Clock.fixed(NOW.plus(Duration.ofMinutes(6)), ZoneOffset.UTC));
+        
+        // When & Then
+        assertNull(later.loadAuthorizationRequest(callback(cookie, "state-123")));
+    }
+    
+    @Test
+    void remove_ShouldReturnRequestAndClearCookie() {
+        // Given
+        Cookie cookie = save(repository);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        // When
+        OAuth2AuthorizationRequest removed = repository.removeAuthorizationRequest(callback(cookie, "state-123"), response);
+        
+        // Then
+        assertNotNull(removed);
+        Cookie cleared = response.getCookie(EncryptedCookieAuthorizationRequestRepository.COOKIE_NAME);
+        assertNotNull(cleared);
+        assertEquals(0, cleared.getMaxAge());
+    }
+    
+    private Cookie save(EncryptedCookieAuthorizationRequestRepository target) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        target.saveAuthorizationRequest(authorizationRequest, new MockHttpServletRequest(), response);
+        return response.getCookie(EncryptedCookieAuthorizationRequestRepository.COOKIE_NAME);
+    }
+    
+    private static MockHttpServletRequest callback(Cookie cookie, String state) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/login/oauth2/code/google");
+        request.setCookies(cookie);
+        request.setParameter("state", state);
+        return request;
+    }
+}
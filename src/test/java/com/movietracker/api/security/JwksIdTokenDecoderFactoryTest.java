@@ -0,0 +1,226 @@
+package com.movietracker.api.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwksIdTokenDecoderFactoryTest {
+    
+    private static final String CLIENT_ID = "client-id";
+    private static final String GOOGLE_ISSUER = "https://accounts.google.com";
+    
+    private static RSAKey firstKey;
+    private static RSAKey rotatedKey;
+    
+    private HttpServer server;
+    private URI jwkSetUri;
+    private volatile List<JWK> publishedKeys;
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final RestClient restClient = RestClient.create();
+    private JwksIdTokenDecoderFactory factory;
+    
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        firstKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+    }
+    
+    @BeforeEach
+    void startStubJwksServer() throws IOException {
+        publishedKeys = List.of(firstKey);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/keys", exchange -> {
+            fetches.incrementAndGet();
+            // JWKSet#toString only serializes the public parts
+            byte[] body = new JWKSet(publishedKeys).toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        jwkSetUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/keys");
+        factory = new JwksIdTokenDecoderFactory(restClient, Duration.ofHours(1));
+    }
+    
+    @AfterEach
+    void stopStubJwksServer() {
+        factory.destroy();
+        server.stop(0);
+    }
+    
+    @Test
+    void decode_WithValidGoogleIdToken_ShouldReturnClaims() throws Exception {
+        // Given
+        JwtDecoder decoder = factory.createDecoder(registration("google"));
+        String idToken = sign(firstKey, claims(GOOGLE_ISSUER, CLIENT_ID).claim("email", "user@example.com").build());
+        
+        // When
+        Jwt jwt = decoder.decode(idToken);
+        
+        // Then
+        assertEquals("google-user-123", jwt.getSubject());
+        assertEquals("user@example.com", jwt.getClaimAsString("email"));
+    }
+    
+    @Test
+    void createDecoder_ShouldReuseDecoderPerRegistration() {
+        ClientRegistration registration = registration("google");
+        
+        assertSame(factory.createDecoder(registration), factory.createDecoder(registration));
+    }
+    
+    @Test
+    void decode_WithWrongIssuer_ShouldReject() throws Exception {
+        JwtDecoder decoder = factory.createDecoder(registration("google"));
+        String idToken = sign(firstKey, claims("https://evil.example.com", CLIENT_ID).build());
+        
+        assertThrows(JwtException.class, () -> decoder.decode(idToken));
+    }
+    
+    @Test
+    void decode_WithWrongAudience_ShouldReject() throws Exception {
+        JwtDecoder decoder = factory.createDecoder(registration("google"));
+        String idToken = sign(firstKey, claims(GOOGLE_ISSUER, "someone-else").build());
+        
+        assertThrows(JwtException.class, () -> decoder.decode(idToken));
+    }
+    
+    @Test
+    void decode_WithExpiredToken_ShouldReject() throws Exception {
+        JwtDecoder decoder = factory.createDecoder(registration("google"));
+        Instant issuedAt = Instant.now().minus(Duration.ofHours(2));
+        String idToken = sign(firstKey, claims(GOOGLE_ISSUER, CLIENT_ID)
+            .issueTime(Date.from(issuedAt))
+            .expirationTime(Date.from(issuedAt.plus(Duration.ofHours(1))))
+            .build());
+        
+        assertThrows(JwtException.class, () -> decoder.decode(idToken));
+    }
+    
+    @Test
+    void decode_WithForgedSignature_ShouldReject() throws Exception {
+        // Given - signed by a key that claims the published key ID
+        RSAKey forger = new RSAKeyGenerator(2048).keyID(firstKey.getKeyID()).generate();
+        JwtDecoder decoder = factory.createDecoder(registration("google"));
+        String idToken = sign(forger, claims(GOOGLE_ISSUER, CLIENT_ID).build());
+        
+        // When & Then
+        assertThrows(JwtException.class, () -> decoder.decode(idToken));
+    }
+    
+    @Test
+    void keyCache_ShouldFetchOnceForKnownKey() {
+        // Given
+        JwksKeyCache cache = new JwksKeyCache(jwkSetUri, restClient);
+        
+        // When
+        assertNotNull(cache.verifierFor("key-1"));
+        assertNotNull(cache.verifierFor("key-1"));
+        
+        // Then
+        assertEquals(1, fetches.get());
+    }
+    
+    @Test
+    void keyCache_WithUnknownKeyAfterRotation_ShouldRefetch() {
+        // Given
+        JwksKeyCache cache = new JwksKeyCache(jwkSetUri, restClient, Duration.ZERO);
+        assertNotNull(cache.verifierFor("key-1"));
+        publishedKeys = List.of(firstKey, rotatedKey);
+        
+        // When
+        assertNotNull(cache.verifierFor("key-2"));
+        
+        // Then
+        assertEquals(2, fetches.get());
+        assertEquals(2, cache.size());
+    }
+    
+    @Test
+    void keyCache_WithUnknownKeyWithinMinInterval_ShouldNotRefetch() {
+        // Given
+        JwksKeyCache cache = new JwksKeyCache(jwkSetUri, restClient);
+        assertNotNull(cache.verifierFor("key-1"));
+        
+        // When
+        assertNull(cache.verifierFor("no-such-key"));
+        
+        // Then
+        assertEquals(1, fetches.get());
+    }
+    
+    @Test
+    void keyCache_WhenProviderFails_ShouldKeepPreviousKeys() {
+        // Given
+        JwksKeyCache cache = new JwksKeyCache(jwkSetUri, restClient);
+        cache.refresh();
+        server.stop(0);
+        
+        // When
+        cache.refresh();
+        
+        // Then
+        assertNotNull(cache.verifierFor("key-1"));
+    }
+    
+    private ClientRegistration registration(String registrationId) {
+        return ClientRegistration.withRegistrationId(registrationId)
+            .clientId(CLIENT_ID)
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+            .scope("openid", "email")
+            .authorizationUri("https://accounts.example.com/authorize")
+            .tokenUri("https://accounts.example.com/token")
+            .jwkSetUri(jwkSetUri.toString())
+            .build();
+    }
+    
+    private static JWTClaimsSet.Builder claims(String issuer, String audience) {
+        Instant now = Instant.now();
+        return new JWTClaimsSet.Builder()
+            .issuer(issuer)
+            .subject("google-user-123")
+            .audience(audience)
+            .issueTime(Date.from(now))
+            .expirationTime(Date.from(now.plus(Duration.ofMinutes(5))));
+    }
+    
+    private static String sign(RSAKey key, JWTClaimsSet claims) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -1,6 +1,8 @@
 package com.movietracker.api.security;
 
 import com.movietracker.api.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -12,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -44,9 +48,14 @@ class JwtAuthenticationFilterTest {
         String token = "valid.jwt.token";
         String userEmail = "test@example.com";
         
+        Claims claims = Jwts.claims()
+            .subject(userEmail)
+            .add("user_id", "test-user-id")
+            .add("username", "testuser")
+            .build();
+        
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenReturn(userEmail);
-        when(jwtService.validateToken(token)).thenReturn(true);
+        when(jwtService.parseVerifiedClaims(token)).thenReturn(Optional.of(claims));
         
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -56,10 +65,14 @@ class JwtAuthenticationFilterTest {
         assertNotNull(authentication);
         assertEquals(userEmail, authentication.getName());
         assertTrue(authentication.isAuthenticated());
+        AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class, authentication.getPrincipal());
+        assertEquals("test-user-id", principal.getUserId());
+        assertEquals("testuser", principal.getUsername());
         
         verify(filterChain).doFilter(request, response);
-        verify(jwtService).extractUsername(token);
-        verify(jwtService).validateToken(token);
+        verify(jwtService).parseVerifiedClaims(token);
+        verify(jwtService, never()).extractUsername(anyString());
+        verify(jwtService, never()).validateToken(anyString());
     }
     
     @Test
@@ -68,8 +81,7 @@ class JwtAuthenticationFilterTest {
         String token = "invalid.jwt.token";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenReturn("test@example.com");
-        when(jwtService.validateToken(token)).thenReturn(false);
+        when(jwtService.parseVerifiedClaims(token)).thenReturn(Optional.empty());
         
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -79,8 +91,7 @@ class JwtAuthenticationFilterTest {
         assertNull(authentication);
         
         verify(filterChain).doFilter(request, response);
-        verify(jwtService).extractUsername(token);
-        verify(jwtService).validateToken(token);
+        verify(jwtService).parseVerifiedClaims(token);
     }
     
     @Test
@@ -96,8 +107,7 @@ class JwtAuthenticationFilterTest {
         assertNull(authentication);
         
         verify(filterChain).doFilter(request, response);
-        verify(jwtService, never()).extractUsername(anyString());
-        verify(jwtService, never()).validateToken(anyString());
+        verify(jwtService, never()).parseVerifiedClaims(anyString());
     }
     
     @Test
@@ -113,8 +123,7 @@ class JwtAuthenticationFilterTest {
         assertNull(authentication);
         
         verify(filterChain).doFilter(request, response);
-        verify(jwtService, never()).extractUsername(anyString());
-        verify(jwtService, never()).validateToken(anyString());
+        verify(jwtService, never()).parseVerifiedClaims(anyString());
     }
     
     @Test
@@ -123,7 +132,7 @@ class JwtAuthenticationFilterTest {
         String token = "problematic.jwt.token";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenThrow(new RuntimeException("Token processing error"));
+        when(jwtService.parseVerifiedClaims(token)).thenThrow(new RuntimeException("Token processing error"));
         
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -133,21 +142,19 @@ class JwtAuthenticationFilterTest {
         assertNull(authentication);
         
         verify(filterChain).doFilter(request, response);
-        verify(jwtService).extractUsername(token);
+        verify(jwtService).parseVerifiedClaims(token);
     }
     
     @Test
     void doFilterInternal_WithExistingAuthentication_ShouldNotOverride() throws Exception {
         // Given
         String token = "valid.jwt.token";
-        String userEmail = "test@example.com";
         
         // Set existing authentication
         Authentication existingAuth = mock(Authentication.class);
         SecurityContextHolder.getContext().setAuthentication(existingAuth);
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenReturn(userEmail);
         
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -157,7 +164,6 @@ class JwtAuthenticationFilterTest {
         assertEquals(existingAuth, authentication); // Should remain unchanged
         
         verify(filterChain).doFilter(request, response);
-        verify(jwtService).extractUsername(token);
-        verify(jwtService, never()).validateToken(anyString());
+        verify(jwtService, never()).parseVerifiedClaims(anyString());
     }
 }
@@ -0,0 +1,94 @@
+package com.movietracker.api.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against a real Tomcat so {@code X-Forwarded-For} is resolved by the same valve as in
+ * production. Loopback plays the load balancer, which appends the address it saw.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "server.forward-headers-strategy=native",
+        "server.tomcat.remoteip.internal-proxies=127\\.0\\.0\\.1",
+        "app.auth.throttling.ip-burst=3",
+        "app.auth.throttling.ip-per-minute=1"
+    }
+)
+@ActiveProfiles("test")
+class LoginThrottleForwardedHeadersIntegrationTest {
+    
+    private static final String LOGIN =
+        "mutation Login($input: LoginInput!) { login(input: $input) { token } }";
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Test
+    void login_WithSpoofedForwardedFor_ShouldStillThrottleRealClientIp() {
+        // Given
+        String clientIp = "203.0.113.10";
+        for (int i = 0; i < 3; i++) {
+            assertNotThrottled(login("198.51.100." + i + ", " + clientIp));
+        }
+        
+        // When - a fresh forged hop in front of the address the proxy appended
+        JsonNode response = login("198.51.100.99, " + clientIp);
+        
+        // Then
+        assertThrottled(response);
+    }
+    
+    @Test
+    void login_FromDifferentRealClientIps_ShouldUseSeparateBuckets() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            login("203.0.113.20");
+        }
+        assertThrottled(login("203.0.113.20"));
+        
+        // When
+        JsonNode response = login("203.0.113.21");
+        
+        // Then
+        assertNotThrottled(response);
+    }
+    
+    private JsonNode login(String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        // A distinct email each time so only the IP bucket can run out
+        Map<String, Object> input = Map.of(
+            "email", UUID.randomUUID() + "@example.com",
+            "password", "password123"
+        );
+        Map<String, Object> body = Map.of("query", LOGIN, "variables", Map.of("input", input));
+        return restTemplate.postForObject("/graphql", new HttpEntity<>(body, headers), JsonNode.class);
+    }
+    
+    private static void assertThrottled(JsonNode response) {
+        assertEquals("TOO_MANY_REQUESTS", errorDetail(response));
+    }
+    
+    private static void assertNotThrottled(JsonNode response) {
+        assertNotEquals("TOO_MANY_REQUESTS", errorDetail(response));
+    }
+    
+    private static String errorDetail(JsonNode response) {
+        return response.path("errors").path(0).path("extensions").path("errorDetail").asText(null);
+    }
+}
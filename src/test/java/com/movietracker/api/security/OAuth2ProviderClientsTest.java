@@ -0,0 +1,197 @@
+package com.movietracker.api.security;
+
+import com.movietracker.api.util.CircuitBreaker;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OAuth2ProviderClientsTest {
+    
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(200);
+    
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile int status = 200;
+    private SimpleMeterRegistry meterRegistry;
+    private OAuth2ProviderClients providerClients;
+    private RestClient restClient;
+    
+    @BeforeEach
+    void startStubProvider() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/token", exchange -> {
+            hits.incrementAndGet();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"access_token\":\"abc\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        
+        meterRegistry = new SimpleMeterRegistry();
+        providerClients = new OAuth2ProviderClients(Map.of("127.0.0.1", "google"),
+            new OAuth2ProviderClients.Settings(Duration.ofSeconds(1), READ_TIMEOUT, 2, 3, Duration.ofMinutes(1)),
+            meterRegistry);
+        restClient = RestClient.builder()
+            .requestFactory(providerClients)
+            .requestInterceptor(providerClients)
+            .build();
+    }
+    
+    @AfterEach
+    void stopStubProvider() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+    
+    @Test
+    void call_ShouldRecordLatencyPerProvider() {
+        // When
+        String body = post();
+        
+        // Then
+        assertTrue(body.contains("access_token"));
+        assertEquals(1, meterRegistry.get("oauth2.provider.requests")
+            .tag("provider", "google").tag("outcome", "success").timer().count());
+    }
+    
+    @Test
+    void call_SlowerThanReadTimeout_ShouldFailAtDeadline() {
+        // Given
+        latencyMillis = 2_000;
+        
+        // When
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, this::post);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // Then
+        assertTrue(elapsedMillis < 1_500, "call took " + elapsedMillis + " ms");
+        assertEquals(1, meterRegistry.get("oauth2.provider.requests")
+            .tag("provider", "google").tag("outcome", "failure").timer().count());
+    }
+    
+    @Test
+    void repeatedFailures_ShouldOpenCircuitAndStopCallingProvider() {
+        // Given
+        status = 503;
+        for (int i = 0; i < 3; i++) {
+            assertThrows(Exception.class, this::post);
+        }
+        
+        // When
+        ResourceAccessException rejected = assertThrows(ResourceAccessException.class, this::post);
+        
+        // Then
+        assertInstanceOf(OAuth2ProviderClients.ProviderUnavailableException.class, rejected.getCause());
+        assertEquals(3, hits.get());
+        assertEquals(CircuitBreaker.State.OPEN, providerClients.circuitState("google"));
+        assertEquals(1, meterRegistry.get("oauth2.provider.rejected")
+            .tag("provider", "google").tag("reason", "circuit_open").counter().count());
+    }
+    
+    @Test
+    void clientErrors_ShouldNotOpenCircuit() {
+        // Given
+        status = 400;
+        
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThrows(Exception.class, this::post);
+        }
+        
+        // Then
+        assertEquals(5, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, providerClients.circuitState("google"));
+    }
+    
+    @Test
+    void callsBeyondBulkhead_ShouldFailFast() throws Exception {
+        // Given - two slow calls occupy the provider's bulkhead
+        latencyMillis = 150;
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> slowCalls = List.of(
+                callers.submit(this::post),
+                callers.submit(this::post)
+            );
+            while (hits.get() < 2) {
+                Thread.sleep(5);
+            }
+            
+            // When
+            ResourceAccessException rejected = assertThrows(ResourceAccessException.class, this::post);
+            
+            // Then
+            assertInstanceOf(OAuth2ProviderClients.ProviderUnavailableException.class, rejected.getCause());
+            for (Future<String> call : slowCalls) {
+                assertNotNull(call.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, meterRegistry.get("oauth2.provider.rejected")
+                .tag("provider", "google").tag("reason", "bulkhead_full").counter().count());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+    
+    @Test
+    void providerHosts_ShouldMapEndpointHostsToRegistration() {
+        // Given
+        ClientRegistration google = ClientRegistration.withRegistrationId("google")
+            .clientId("client-id")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+            .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+            .tokenUri("https://oauth2.googleapis.com/token")
+            .userInfoUri("https://www.googleapis.com/oauth2/v3/userinfo")
+            .jwkSetUri("https://www.googleapis.com/oauth2/v3/certs")
+            .build();
+        
+        // When
+        Map<String, String> hosts = OAuth2ProviderClients.providerHosts(List.of(google));
+        
+        // Then
+        assertEquals(Map.of("oauth2.googleapis.com", "google", "www.googleapis.com", "google"), hosts);
+    }
+    
+    private String post() {
+        return restClient.post()
+            .uri(baseUrl + "/token")
+            .body("grant_type=authorization_code")
+            .retrieve()
+            .body(String.class);
+    }
+}
@@ -0,0 +1,94 @@
+package com.movietracker.api.security;
+
+import com.movietracker.api.entity.User;
+import com.movietracker.api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityContextHelperTest {
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    private SecurityContextHelper securityContextHelper;
+    
+    @BeforeEach
+    void setUp() {
+        securityContextHelper = new SecurityContextHelper(userRepository);
+        SecurityContextHolder.clearContext();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void getCurrentUserId_WithTokenPrincipal_ShouldNotQueryDatabase() {
+        // Given
+        authenticate(new AuthenticatedUser("user-1", "test@example.com", "testuser"));
+        
+        // When
+        Optional<String> userId = securityContextHelper.getCurrentUserId();
+        
+        // Then
+        assertEquals(Optional.of("user-1"), userId);
+        verifyNoInteractions(userRepository);
+    }
+    
+    @Test
+    void getCurrentUser_WithTokenPrincipal_ShouldLoadByPrimaryKey() {
+        // Given
+        User user = new User();
+        user.setId("user-1");
+        authenticate(new AuthenticatedUser("user-1", "test@example.com", "testuser"));
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+        
+        // When
+        Optional<User> result = securityContextHelper.getCurrentUser();
+        
+        // Then
+        assertEquals(Optional.of(user), result);
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+    
+    @Test
+    void getCurrentUserId_WithPlainPrincipal_ShouldFallBackToEmailLookup() {
+        // Given
+        User user = new User();
+        user.setId("user-2");
+        authenticate("legacy@example.com");
+        when(userRepository.findByEmail("legacy@example.com")).thenReturn(Optional.of(user));
+        
+        // When
+        Optional<String> userId = securityContextHelper.getCurrentUserId();
+        
+        // Then
+        assertEquals(Optional.of("user-2"), userId);
+    }
+    
+    @Test
+    void getCurrentPrincipal_WithoutAuthentication_ShouldReturnEmpty() {
+        assertTrue(securityContextHelper.getCurrentPrincipal().isEmpty());
+        assertFalse(securityContextHelper.isAuthenticated());
+    }
+    
+    private void authenticate(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>())
+        );
+    }
+}
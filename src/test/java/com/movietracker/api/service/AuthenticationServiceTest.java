@@ -1,19 +1,35 @@
 package com.movietracker.api.service;
 
+import com.movietracker.api.config.AuthConfig;
 import com.movietracker.api.dto.AuthPayload;
 import com.movietracker.api.dto.LoginInput;
 import com.movietracker.api.dto.RegisterInput;
 import com.movietracker.api.entity.User;
 import com.movietracker.api.exception.AuthenticationException;
 import com.movietracker.api.repository.UserRepository;
+import com.movietracker.api.security.AuthenticatedUser;
+import com.movietracker.api.security.LoginThrottle;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -31,14 +47,30 @@ class AuthenticationServiceTest {
     @Mock
     private JwtService jwtService;
     
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private UniquenessPrefilter uniquenessPrefilter;
+    private LoginThrottle loginThrottle;
     private AuthenticationService authenticationService;
     
     @BeforeEach
     void setUp() {
+        // Not warmed up: answers "maybe" so every uniqueness check reaches the repository
+        uniquenessPrefilter = new UniquenessPrefilter(
+            userRepository,
+            transactionManager,
+            new AuthConfig(),
+            new SimpleMeterRegistry()
+        );
+        loginThrottle = new LoginThrottle(new AuthConfig(), new SimpleMeterRegistry());
         authenticationService = new AuthenticationService(
             userRepository,
             passwordEncoder,
-            jwtService
+            jwtService,
+            uniquenessPrefilter,
+            loginThrottle,
+            transactionManager
         );
     }
     
@@ -75,6 +107,34 @@ class AuthenticationServiceTest {
         verify(jwtService).generateToken(savedUser);
     }
     
+    @Test
+    void register_WithWarmPrefilter_ShouldSkipProbesForUnseenValues() {
+        // Given
+        uniquenessPrefilter.loadExisting(Stream.<Object[]>of(new Object[] {"other@example.com", "otheruser"}));
+        
+        RegisterInput input = new RegisterInput();
+        input.setEmail("fresh@example.com");
+        input.setUsername("freshuser");
+        input.setPassword("password123");
+        
+        User savedUser = createTestUser();
+        savedUser.setEmail("fresh@example.com");
+        savedUser.setUsername("freshuser");
+        
+        when(passwordEncoder.encode(input.getPassword())).thenReturn("hashedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(jwtService.generateToken(savedUser)).thenReturn("test.jwt.token");
+        
+        // When
+        authenticationService.register(input);
+        
+        // Then
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository, never()).existsByUsername(anyString());
+        assertTrue(uniquenessPrefilter.mightContainEmail("fresh@example.com"));
+        assertTrue(uniquenessPrefilter.mightContainUsername("freshuser"));
+    }
+    
     @Test
     void register_WithDuplicateEmail_ShouldThrowException() {
         // Given
@@ -146,6 +206,119 @@ class AuthenticationServiceTest {
         verify(jwtService).generateToken(existingUser);
     }
     
+    @Test
+    void login_WithOutdatedHash_ShouldRehashPassword() {
+        // Given
+        LoginInput input = new LoginInput();
+        input.setEmail("test@example.com");
+        input.setPassword("password123");
+        
+        User existingUser = createTestUser();
+        
+        when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.of(existingUser));
+        when(passwordEncoder.matches(input.getPassword(), "hashedPassword")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hashedPassword")).thenReturn(true);
+        when(passwordEncoder.encode(input.getPassword())).thenReturn("{bcrypt}rehashedPassword");
+        when(jwtService.generateToken(existingUser)).thenReturn("test.jwt.token");
+        
+        // When
+        authenticationService.login(input);
+        
+        // Then
+        assertEquals("{bcrypt}rehashedPassword", existingUser.getPasswordHash());
+        verify(userRepository).save(existingUser);
+    }
+    
+    @Test
+    void login_WithCurrentHash_ShouldNotRehashPassword() {
+        // Given
+        LoginInput input = new LoginInput();
+        input.setEmail("test@example.com");
+        input.setPassword("password123");
+        
+        User existingUser = createTestUser();
+        
+        when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.of(existingUser));
+        when(passwordEncoder.matches(input.getPassword(), existingUser.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(existingUser.getPasswordHash())).thenReturn(false);
+        when(jwtService.generateToken(existingUser)).thenReturn("test.jwt.token");
+        
+        // When
+        authenticationService.login(input);
+        
+        // Then
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).save(any(User.class));
+    }
+    
+    @Test
+    void login_ShouldHashWithoutOpenTransaction() {
+        // Given
+        AtomicInteger openTransactions = trackTransactions();
+        
+        LoginInput input = new LoginInput();
+        input.setEmail("test@example.com");
+        input.setPassword("password123");
+        
+        User existingUser = createTestUser();
+        
+        when(userRepository.findByEmail(input.getEmail())).thenAnswer(invocation -> {
+            assertEquals(1, openTransactions.get());
+            return Optional.of(existingUser);
+        });
+        when(passwordEncoder.matches(input.getPassword(), "hashedPassword")).thenAnswer(invocation -> {
+            assertEquals(0, openTransactions.get());
+            return true;
+        });
+        when(passwordEncoder.upgradeEncoding("hashedPassword")).thenReturn(true);
+        when(passwordEncoder.encode(input.getPassword())).thenAnswer(invocation -> {
+            assertEquals(0, openTransactions.get());
+            return "{bcrypt}rehashedPassword";
+        });
+        when(userRepository.save(existingUser)).thenAnswer(invocation -> {
+            assertEquals(1, openTransactions.get());
+            return existingUser;
+        });
+        
+        // When
+        authenticationService.login(input);
+        
+        // Then - one read and one write transaction, both committed
+        verify(transactionManager, times(2)).getTransaction(any());
+        assertEquals(0, openTransactions.get());
+    }
+    
+    @Test
+    void register_ShouldHashWithoutOpenTransaction() {
+        // Given
+        AtomicInteger openTransactions = trackTransactions();
+        
+        RegisterInput input = new RegisterInput();
+        input.setEmail("test@example.com");
+        input.setUsername("testuser");
+        input.setPassword("password123");
+        
+        User savedUser = createTestUser();
+        
+        when(userRepository.existsByEmail(input.getEmail())).thenReturn(false);
+        when(userRepository.existsByUsername(input.getUsername())).thenReturn(false);
+        when(passwordEncoder.encode(input.getPassword())).thenAnswer(invocation -> {
+            assertEquals(0, openTransactions.get());
+            return "hashedPassword";
+        });
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            assertEquals(1, openTransactions.get());
+            return savedUser;
+        });
+        
+        // When
+        authenticationService.register(input);
+        
+        // Then
+        verify(transactionManager, times(2)).getTransaction(any());
+        assertEquals(0, openTransactions.get());
+    }
+    
     @Test
     void login_WithNonExistentEmail_ShouldThrowException() {
         // Given
@@ -166,6 +339,71 @@ class AuthenticationServiceTest {
         verify(passwordEncoder, never()).matches(anyString(), anyString());
     }
     
+    @Test
+    void login_RepeatedWithUnknownEmail_ShouldSkipLookup() {
+        // Given
+        uniquenessPrefilter.loadExisting(Stream.empty());
+        LoginInput input = new LoginInput();
+        input.setEmail("nonexistent@example.com");
+        input.setPassword("password123");
+        
+        when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.empty());
+        
+        // When
+        assertThrows(AuthenticationException.class, () -> authenticationService.login(input));
+        AuthenticationException exception = assertThrows(
+            AuthenticationException.class,
+            () -> authenticationService.login(input)
+        );
+        
+        // Then
+        assertEquals("Invalid credentials", exception.getMessage());
+        verify(userRepository, times(1)).findByEmail(input.getEmail());
+    }
+    
+    @Test
+    void login_WithCaseVariantOfCachedUnknownEmail_ShouldSkipLookup() {
+        // Given
+        uniquenessPrefilter.loadExisting(Stream.empty());
+        LoginInput input = new LoginInput();
+        input.setEmail("nonexistent@example.com");
+        input.setPassword("password123");
+        LoginInput variant = new LoginInput();
+        variant.setEmail(" NonExistent@Example.com ");
+        variant.setPassword("password123");
+        
+        when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.empty());
+        
+        // When
+        assertThrows(AuthenticationException.class, () -> authenticationService.login(input));
+        assertThrows(AuthenticationException.class, () -> authenticationService.login(variant));
+        
+        // Then
+        verify(userRepository, times(1)).findByEmail(anyString());
+    }
+    
+    @Test
+    void login_WithCachedUnknownVariantOfExistingEmail_ShouldStillLookUp() {
+        // Given - the account is stored with different case than a failed attempt
+        uniquenessPrefilter.loadExisting(Stream.<Object[]>of(new Object[] {"Real@example.com", "realuser"}));
+        LoginInput wrongCase = new LoginInput();
+        wrongCase.setEmail("real@example.com");
+        wrongCase.setPassword("password123");
+        LoginInput exact = new LoginInput();
+        exact.setEmail("Real@example.com");
+        exact.setPassword("password123");
+        
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        
+        // When
+        assertThrows(AuthenticationException.class, () -> authenticationService.login(wrongCase));
+        assertThrows(AuthenticationException.class, () -> authenticationService.login(exact));
+        
+        // Then
+        verify(userRepository).findByEmail("real@example.com");
+        verify(userRepository).findByEmail("Real@example.com");
+    }
+    
     @Test
     void login_WithInvalidPassword_ShouldThrowException() {
         // Given
@@ -213,6 +451,206 @@ class AuthenticationServiceTest {
         verify(passwordEncoder, never()).matches(anyString(), anyString());
     }
     
+    @Test
+    void login_WithOAuth2OnlyAccount_ShouldThrowException() {
+        // Given
+        LoginInput input = new LoginInput();
+        input.setEmail("test@example.com");
+        input.setPassword("password123");
+        
+        User oauthUser = createTestUser();
+        oauthUser.setPasswordHash(null);
+        
+        when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.of(oauthUser));
+        
+        // When & Then
+        AuthenticationException exception = assertThrows(
+            AuthenticationException.class,
+            () -> authenticationService.login(input)
+        );
+        
+        assertEquals("Invalid credentials", exception.getMessage());
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+    }
+    
+    @Test
+    void processOAuth2User_WithNewUser_ShouldAllocateFreeUsernameWithoutHashing() {
+        // Given
+        OAuth2User oAuth2User = googleUser("google-123", "john@example.com");
+        
+        when(userRepository.findOAuth2Candidates("google", "google-123", "john@example.com"))
+            .thenReturn(List.of());
+        when(userRepository.findTakenUsernames(anyCollection())).thenReturn(List.of("john", "john1"));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        User user = authenticationService.processOAuth2User(oAuth2User, "google");
+        
+        // Then
+        assertEquals("john2", user.getUsername());
+        assertEquals("google", user.getProvider());
+        assertEquals("google-123", user.getProviderId());
+        assertNull(user.getPasswordHash());
+        assertNotNull(user.getLastLogin());
+        verifyNoInteractions(passwordEncoder);
+        verify(userRepository, never()).existsByUsername(anyString());
+    }
+    
+    @Test
+    void processOAuth2User_WithCommonBaseName_ShouldProbeBoundedWindows() {
+        // Given - the first window of candidates is taken
+        OAuth2User oAuth2User = googleUser("google-123", "john@example.com");
+        
+        when(userRepository.findOAuth2Candidates("google", "google-123", "john@example.com"))
+            .thenReturn(List.of());
+        when(userRepository.findTakenUsernames(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> candidates = invocation.getArgument(0);
+            assertEquals(16, candidates.size());
+            return candidates.contains("john") ? List.copyOf(candidates) : List.of();
+        });
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        User user = authenticationService.processOAuth2User(oAuth2User, "google");
+        
+        // Then
+        assertEquals("john16", user.getUsername());
+        verify(userRepository, times(2)).findTakenUsernames(anyCollection());
+    }
+    
+    @Test
+    void processOAuth2User_ShouldPreferProviderIdentityOverEmailMatch() {
+        // Given
+        OAuth2User oAuth2User = googleUser("google-123", "new@example.com");
+        
+        User emailMatch = createTestUser();
+        emailMatch.setEmail("new@example.com");
+        User linkedAccount = createTestUser();
+        linkedAccount.setId("linked-user-id");
+        linkedAccount.setProvider("google");
+        linkedAccount.setProviderId("google-123");
+        
+        when(userRepository.findOAuth2Candidates("google", "google-123", "new@example.com"))
+            .thenReturn(List.of(emailMatch, linkedAccount));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        User user = authenticationService.processOAuth2User(oAuth2User, "google");
+        
+        // Then
+        assertSame(linkedAccount, user);
+        assertEquals("John", user.getFirstName());
+        verify(userRepository, never()).findTakenUsernames(anyCollection());
+    }
+    
+    private OAuth2User googleUser(String sub, String email) {
+        return new DefaultOAuth2User(
+            List.of(),
+            Map.of("sub", sub, "email", email, "given_name", "John"),
+            "sub"
+        );
+    }
+    
+    @Test
+    void refreshToken_WithValidToken_ShouldRotateTokens() {
+        // Given
+        User existingUser = createTestUser();
+        Claims claims = Jwts.claims()
+            .subject(existingUser.getEmail())
+            .add("user_id", existingUser.getId())
+            .add(JwtService.FAMILY_CLAIM, "family-id")
+            .build();
+        
+        when(jwtService.consumeRefreshToken("refresh.jwt.token")).thenReturn(Optional.of(claims));
+        when(userRepository.findById(existingUser.getId())).thenReturn(Optional.of(existingUser));
+        when(jwtService.generateToken(existingUser)).thenReturn("new.jwt.token");
+        when(jwtService.generateRefreshToken(existingUser, "family-id")).thenReturn("new.refresh.token");
+        
+        // When
+        AuthPayload result = authenticationService.refreshToken("refresh.jwt.token");
+        
+        // Then
+        assertEquals("new.jwt.token", result.getToken());
+        assertEquals("new.refresh.token", result.getRefreshToken());
+        assertEquals(existingUser, result.getUser());
+    }
+    
+    @Test
+    void refreshToken_WithUsedOrInvalidToken_ShouldThrowException() {
+        // Given
+        when(jwtService.consumeRefreshToken("used.refresh.token")).thenReturn(Optional.empty());
+        
+        // When & Then
+        AuthenticationException exception = assertThrows(
+            AuthenticationException.class,
+            () -> authenticationService.refreshToken("used.refresh.token")
+        );
+        
+        assertEquals("Invalid refresh token", exception.getMessage());
+        verify(userRepository, never()).findById(anyString());
+        verify(jwtService, never()).generateToken(any(User.class));
+    }
+    
+    @Test
+    void logout_ShouldRevokeAccessAndRefreshTokens() {
+        // Given
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+        AuthenticatedUser principal = new AuthenticatedUser(
+            "test-user-id", "test@example.com", "testuser", "token-id", expiresAt);
+        when(jwtService.revokeRefreshToken("refresh.jwt.token")).thenReturn(true);
+        
+        // When
+        boolean result = authenticationService.logout(Optional.of(principal), "refresh.jwt.token");
+        
+        // Then
+        assertTrue(result);
+        verify(jwtService).revoke("token-id", expiresAt);
+        verify(jwtService).revokeRefreshToken("refresh.jwt.token");
+        verify(jwtService, never()).consumeRefreshToken(anyString());
+    }
+    
+    @Test
+    void logout_WithExpiredAccessToken_ShouldRevokeRefreshTokenFamily() {
+        // Given - the expired access token authenticates no principal
+        when(jwtService.revokeRefreshToken("refresh.jwt.token")).thenReturn(true);
+        
+        // When
+        boolean result = authenticationService.logout(Optional.empty(), "refresh.jwt.token");
+        
+        // Then
+        assertTrue(result);
+        verify(jwtService).revokeRefreshToken("refresh.jwt.token");
+        verify(jwtService, never()).revoke(anyString(), any(Date.class));
+    }
+    
+    @Test
+    void logout_WithInvalidRefreshTokenAndNoPrincipal_ShouldReturnFalse() {
+        // Given
+        when(jwtService.revokeRefreshToken("used.refresh.token")).thenReturn(false);
+        
+        // When
+        boolean result = authenticationService.logout(Optional.empty(), "used.refresh.token");
+        
+        // Then
+        assertFalse(result);
+    }
+    
+    /**
+     * Count transactions begun but not yet committed through the mocked transaction manager
+     */
+    private AtomicInteger trackTransactions() {
+        AtomicInteger open = new AtomicInteger();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            open.incrementAndGet();
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> {
+            open.decrementAndGet();
+            return null;
+        }).when(transactionManager).commit(any());
+        return open;
+    }
+    
     private User createTestUser() {
         User user = new User();
         user.setId("test-user-id");
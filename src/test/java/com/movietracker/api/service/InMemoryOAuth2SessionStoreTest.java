@@ -0,0 +1,151 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.exception.ServiceUnavailableException;
+import com.movietracker.api.service.OAuth2SessionService.OAuth2SessionData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryOAuth2SessionStoreTest {
+    
+    @Test
+    void insert_AtCapacity_ShouldEvictOldestPendingSession() {
+        // Given
+        InMemoryOAuth2SessionStore store = new InMemoryOAuth2SessionStore(2);
+        OAuth2SessionData oldest = newSession();
+        OAuth2SessionData older = newSession();
+        store.insert(oldest);
+        store.insert(older);
+        
+        // When
+        OAuth2SessionData newest = newSession();
+        store.insert(newest);
+        
+        // Then
+        assertTrue(store.find(oldest.getSessionId()).isEmpty());
+        assertTrue(store.find(older.getSessionId()).isPresent());
+        assertTrue(store.find(newest.getSessionId()).isPresent());
+        assertEquals(2, store.size());
+    }
+    
+    @Test
+    void insert_AtCapacity_ShouldKeepAuthenticatedSessions() {
+        // Given
+        InMemoryOAuth2SessionStore store = new InMemoryOAuth2SessionStore(2);
+        OAuth2SessionData authenticated = authenticate(store, newSession());
+        OAuth2SessionData pending = newSession();
+        store.insert(pending);
+        
+        // When
+        store.insert(newSession());
+        
+        // Then
+        assertTrue(store.find(authenticated.getSessionId()).isPresent());
+        assertTrue(store.find(pending.getSessionId()).isEmpty());
+    }
+    
+    @Test
+    void insert_WhenAllSessionsAreAuthenticated_ShouldRejectNewSessions() {
+        // Given
+        InMemoryOAuth2SessionStore store = new InMemoryOAuth2SessionStore(2);
+        authenticate(store, newSession());
+        authenticate(store, newSession());
+        
+        // When & Then
+        ServiceUnavailableException exception = assertThrows(
+            ServiceUnavailableException.class,
+            () -> store.insert(newSession())
+        );
+        assertTrue(exception.getRetryAfterSeconds() > 0);
+        assertEquals(2, store.size());
+    }
+    
+    @Test
+    void take_ShouldFreeCapacity() {
+        // Given
+        InMemoryOAuth2SessionStore store = new InMemoryOAuth2SessionStore(1);
+        OAuth2SessionData session = newSession();
+        store.insert(session);
+        
+        // When
+        store.take(session.getSessionId());
+        
+        // Then
+        assertDoesNotThrow(() -> store.insert(newSession()));
+    }
+    
+    @Test
+    void insert_ManySessionsTakenInTurn_ShouldKeepEvictingOldest() {
+        // Given - admission order compaction runs repeatedly
+        InMemoryOAuth2SessionStore store = new InMemoryOAuth2SessionStore(4);
+        for (int i = 0; i < 100; i++) {
+            OAuth2SessionData session = newSession();
+            store.insert(session);
+            store.take(session.getSessionId());
+        }
+        OAuth2SessionData oldest = newSession();
+        store.insert(oldest);
+        for (int i = 0; i < 4; i++) {
+            store.insert(newSession());
+        }
+        
+        // When & Then
+        assertTrue(store.find(oldest.getSessionId()).isEmpty());
+        assertEquals(4, store.size());
+    }
+    
+    @Test
+    void insert_ManyTakenAndEvictedSessions_ShouldKeepExpiryWheelBounded() {
+        // Given
+        InMemoryOAuth2SessionStore store = new InMemoryOAuth2SessionStore(4);
+        
+        // When - exchanged sign-ins, then abandoned ones far past the capacity
+        for (int i = 0; i < 1_000; i++) {
+            OAuth2SessionData session = newSession();
+            store.insert(session);
+            store.take(session.getSessionId());
+            assertTrue(store.scheduledExpiries() <= 8);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            store.insert(newSession());
+            assertTrue(store.scheduledExpiries() <= 8);
+        }
+        
+        // Then
+        assertEquals(4, store.size());
+    }
+    
+    @Test
+    void bindTo_ShouldExportLiveEvictedAndRejectedCounts() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InMemoryOAuth2SessionStore store = new InMemoryOAuth2SessionStore(1);
+        store.bindTo(registry);
+        
+        // When
+        store.insert(newSession());
+        authenticate(store, newSession());
+        assertThrows(ServiceUnavailableException.class, () -> store.insert(newSession()));
+        
+        // Then
+        assertEquals(1.0, registry.get("oauth2.sessions.live").gauge().value());
+        assertEquals(1.0, registry.get("oauth2.sessions.evicted").functionCounter().count());
+        assertEquals(1.0, registry.get("oauth2.sessions.rejected").functionCounter().count());
+        assertEquals(0.0, registry.get("oauth2.sessions.expired").functionCounter().count());
+    }
+    
+    private static OAuth2SessionData authenticate(InMemoryOAuth2SessionStore store, OAuth2SessionData session) {
+        store.insert(session);
+        OAuth2SessionData authenticated = session.withAuthenticationResult("user123", "token", "refresh", "{}");
+        assertTrue(store.replace(session, authenticated));
+        return authenticated;
+    }
+    
+    private static OAuth2SessionData newSession() {
+        return new OAuth2SessionData(UUID.randomUUID().toString(), "state", "verifier", "google",
+            System.currentTimeMillis());
+    }
+}
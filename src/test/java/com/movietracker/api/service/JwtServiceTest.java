@@ -2,12 +2,17 @@ package com.movietracker.api.service;
 
 import com.movietracker.api.config.AuthConfig;
 import com.movietracker.api.entity.User;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,6 +21,8 @@ class JwtServiceTest {
     
     private JwtService jwtService;
     private AuthConfig authConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenFamilyStore refreshTokenFamilies;
     private User testUser;
     
     @BeforeEach
@@ -28,7 +35,9 @@ class JwtServiceTest {
         jwtConfig.setExpirationHours(1);
         authConfig.setJwt(jwtConfig);
         
-        jwtService = new JwtService(authConfig);
+        meterRegistry = new SimpleMeterRegistry();
+        refreshTokenFamilies = new RefreshTokenFamilyStore(h2(), meterRegistry);
+        jwtService = new JwtService(authConfig, refreshTokenFamilies, meterRegistry);
         
         // Set up test user
         testUser = new User();
@@ -139,4 +148,191 @@ class JwtServiceTest {
         assertEquals(testUser.getId(), jwtService.extractUserId(token));
         assertFalse(jwtService.isTokenExpired(token));
     }
+    
+    @Test
+    void verifyAndParse_ShouldReturnClaimsOfValidToken() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        
+        // When
+        Claims claims = jwtService.verifyAndParse(token);
+        
+        // Then
+        assertEquals(testUser.getEmail(), claims.getSubject());
+        assertEquals(testUser.getId(), claims.get("user_id", String.class));
+        assertEquals(testUser.getUsername(), claims.get("username", String.class));
+    }
+    
+    @Test
+    void verifyAndParse_RepeatedToken_ShouldBeServedFromCache() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        
+        // When
+        Claims first = jwtService.verifyAndParse(token);
+        Claims second = jwtService.verifyAndParse(token);
+        
+        // Then
+        assertSame(first, second);
+        assertEquals(1.0, cacheGets("hit"));
+        assertEquals(1.0, cacheGets("miss"));
+    }
+    
+    @Test
+    void parseVerifiedClaims_WithTamperedToken_ShouldReturnEmptyEvenWhenOriginalIsCached() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        jwtService.verifyAndParse(token);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+        
+        // When & Then
+        assertTrue(jwtService.parseVerifiedClaims(token).isPresent());
+        assertTrue(jwtService.parseVerifiedClaims(tampered).isEmpty());
+    }
+    
+    @Test
+    void parseVerifiedClaims_WithNullToken_ShouldReturnEmpty() {
+        assertTrue(jwtService.parseVerifiedClaims(null).isEmpty());
+    }
+    
+    @Test
+    void generateToken_ShouldIssueShortLivedAccessToken() {
+        // When
+        Claims claims = jwtService.verifyAndParse(jwtService.generateToken(testUser));
+        
+        // Then
+        assertEquals(JwtService.ACCESS_TOKEN, claims.get(JwtService.TOKEN_TYPE_CLAIM, String.class));
+        assertNotNull(claims.getId());
+        long lifetimeMillis = claims.getExpiration().getTime() - claims.getIssuedAt().getTime();
+        assertEquals(15 * 60 * 1000L, lifetimeMillis);
+    }
+    
+    @Test
+    void parseVerifiedClaims_WithRefreshToken_ShouldReturnEmpty() {
+        // Given
+        String refreshToken = jwtService.generateRefreshToken(testUser);
+        
+        // When & Then
+        assertTrue(jwtService.parseVerifiedClaims(refreshToken).isEmpty());
+    }
+    
+    @Test
+    void parseVerifiedClaims_WithRevokedToken_ShouldReturnEmpty() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        Claims claims = jwtService.parseVerifiedClaims(token).orElseThrow();
+        
+        // When
+        jwtService.revoke(claims.getId(), claims.getExpiration());
+        
+        // Then
+        assertTrue(jwtService.parseVerifiedClaims(token).isEmpty());
+        assertTrue(jwtService.parseVerifiedClaims(jwtService.generateToken(testUser)).isPresent());
+    }
+    
+    @Test
+    void consumeRefreshToken_ShouldSucceedOnlyOnce() {
+        // Given
+        String refreshToken = jwtService.generateRefreshToken(testUser);
+        
+        // When & Then
+        assertTrue(jwtService.consumeRefreshToken(refreshToken).isPresent());
+        assertTrue(jwtService.consumeRefreshToken(refreshToken).isEmpty());
+    }
+    
+    @Test
+    void consumeRefreshToken_OnAnotherInstance_ShouldRejectUsedToken() {
+        // Given - a second instance (or a restart) sharing only the database
+        JwtService otherInstance = new JwtService(authConfig, refreshTokenFamilies, new SimpleMeterRegistry());
+        String refreshToken = jwtService.generateRefreshToken(testUser);
+        assertTrue(jwtService.consumeRefreshToken(refreshToken).isPresent());
+        
+        // When & Then
+        assertTrue(otherInstance.consumeRefreshToken(refreshToken).isEmpty());
+    }
+    
+    @Test
+    void consumeRefreshToken_WithRotatedToken_ShouldContinueFamily() {
+        // Given
+        String first = jwtService.generateRefreshToken(testUser);
+        Claims claims = jwtService.consumeRefreshToken(first).orElseThrow();
+        
+        // When
+        String second = jwtService.generateRefreshToken(testUser, claims.get(JwtService.FAMILY_CLAIM, String.class));
+        
+        // Then
+        Claims rotated = jwtService.consumeRefreshToken(second).orElseThrow();
+        assertEquals(claims.get(JwtService.FAMILY_CLAIM), rotated.get(JwtService.FAMILY_CLAIM));
+    }
+    
+    @Test
+    void consumeRefreshToken_WithReplayedToken_ShouldRevokeFamily() {
+        // Given
+        String first = jwtService.generateRefreshToken(testUser);
+        Claims claims = jwtService.consumeRefreshToken(first).orElseThrow();
+        String second = jwtService.generateRefreshToken(testUser, claims.get(JwtService.FAMILY_CLAIM, String.class));
+        
+        // When
+        assertTrue(jwtService.consumeRefreshToken(first).isEmpty());
+        
+        // Then
+        assertTrue(jwtService.consumeRefreshToken(second).isEmpty());
+        assertEquals(1.0, meterRegistry.get("auth.refresh-token.reuse").counter().count());
+        assertTrue(jwtService.consumeRefreshToken(jwtService.generateRefreshToken(testUser)).isPresent());
+    }
+    
+    @Test
+    void revokeRefreshToken_ShouldRevokeFamilyOnce() {
+        // Given
+        String refreshToken = jwtService.generateRefreshToken(testUser);
+        
+        // When & Then
+        assertTrue(jwtService.revokeRefreshToken(refreshToken));
+        assertFalse(jwtService.revokeRefreshToken(refreshToken));
+        assertTrue(jwtService.consumeRefreshToken(refreshToken).isEmpty());
+    }
+    
+    @Test
+    void revokeRefreshToken_WithAccessToken_ShouldRevokeNothing() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        
+        // When & Then
+        assertFalse(jwtService.revokeRefreshToken(token));
+        assertFalse(jwtService.revokeRefreshToken("not-a-jwt"));
+    }
+    
+    @Test
+    void consumeRefreshToken_WithAccessToken_ShouldReturnEmpty() {
+        // Given
+        String token = jwtService.generateToken(testUser);
+        
+        // When & Then
+        assertTrue(jwtService.consumeRefreshToken(token).isEmpty());
+        assertTrue(jwtService.parseVerifiedClaims(token).isPresent());
+    }
+    
+    private static JdbcTemplate h2() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:refresh-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // As mapped by RefreshTokenFamily; the application gets it from the JPA schema
+        jdbcTemplate.execute(
+            "CREATE TABLE refresh_token_families ("
+                + "family_id VARCHAR(64) PRIMARY KEY, "
+                + "user_id VARCHAR(64) NOT NULL, "
+                + "current_token_id VARCHAR(64), "
+                + "expires_at BIGINT NOT NULL, "
+                + "revoked BOOLEAN NOT NULL)");
+        return jdbcTemplate;
+    }
+    
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "jwt.claims")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
 }
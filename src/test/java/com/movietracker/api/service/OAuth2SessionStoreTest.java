@@ -0,0 +1,198 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.service.OAuth2SessionService.OAuth2SessionData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contract tests run against every {@link OAuth2SessionStore} implementation; the JDBC
+ * variants use an in-memory H2 database in PostgreSQL mode.
+ */
+class OAuth2SessionStoreTest {
+    
+    private static final String SECRET = "testSecretKeyThatIsLongEnoughForHS256AlgorithmTesting";
+    
+    static Stream<Arguments> stores() {
+        return Stream.of(
+            Arguments.of("memory", (Supplier<OAuth2SessionStore>) InMemoryOAuth2SessionStore::new),
+            Arguments.of("jdbc", (Supplier<OAuth2SessionStore>) () -> new JdbcOAuth2SessionStore(h2(), SECRET)),
+            Arguments.of("jdbc+near-cache", (Supplier<OAuth2SessionStore>) () ->
+                new NearCachingOAuth2SessionStore(new JdbcOAuth2SessionStore(h2(), SECRET), 100, Duration.ofSeconds(30)))
+        );
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void find_ShouldReturnInsertedSession(String name, Supplier<OAuth2SessionStore> factory) {
+        // Given
+        OAuth2SessionStore store = factory.get();
+        OAuth2SessionData session = newSession(System.currentTimeMillis());
+        
+        // When
+        store.insert(session);
+        
+        // Then
+        OAuth2SessionData found = store.find(session.getSessionId()).orElseThrow();
+        assertEquals("state", found.getState());
+        assertEquals("verifier", found.getCodeVerifier());
+        assertEquals("google", found.getProvider());
+        assertFalse(found.isAuthenticated());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void replace_ShouldPersistAuthenticationResult(String name, Supplier<OAuth2SessionStore> factory) {
+        // Given
+        OAuth2SessionStore store = factory.get();
+        OAuth2SessionData session = newSession(System.currentTimeMillis());
+        store.insert(session);
+        
+        // When
+        OAuth2SessionData authenticated = session.withAuthenticationResult(
+            "user123", "jwt-token", "refresh-token", "{}");
+        boolean replaced = store.replace(session, authenticated);
+        
+        // Then
+        assertTrue(replaced);
+        assertFalse(store.replace(session, authenticated), "stale version must not win");
+        OAuth2SessionData taken = store.take(session.getSessionId()).orElseThrow();
+        assertEquals("user123", taken.getUserId());
+        assertEquals("jwt-token", taken.getToken());
+        assertEquals("refresh-token", taken.getRefreshToken());
+        assertTrue(taken.isAuthenticated());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void take_ShouldSucceedOnlyOnce(String name, Supplier<OAuth2SessionStore> factory) {
+        // Given
+        OAuth2SessionStore store = factory.get();
+        OAuth2SessionData session = newSession(System.currentTimeMillis());
+        store.insert(session);
+        
+        // When
+        Optional<OAuth2SessionData> first = store.take(session.getSessionId());
+        Optional<OAuth2SessionData> second = store.take(session.getSessionId());
+        
+        // Then
+        assertTrue(first.isPresent());
+        assertTrue(second.isEmpty());
+        assertTrue(store.find(session.getSessionId()).isEmpty());
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void expiredSessions_ShouldBeHiddenAndPurged(String name, Supplier<OAuth2SessionStore> factory) {
+        // Given
+        OAuth2SessionStore store = factory.get();
+        OAuth2SessionData expired = newSession(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(11));
+        OAuth2SessionData live = newSession(System.currentTimeMillis());
+        store.insert(expired);
+        store.insert(live);
+        
+        // When & Then
+        assertTrue(store.find(expired.getSessionId()).isEmpty());
+        assertFalse(store.replace(expired, expired.withAuthenticationResult("user123", "token", null, "{}")));
+        store.purgeExpired(System.currentTimeMillis() + 2_000);
+        assertTrue(store.take(expired.getSessionId()).isEmpty());
+        assertTrue(store.find(live.getSessionId()).isPresent());
+    }
+    
+    @Test
+    void jdbcStore_ShouldStoreTokensEncrypted() {
+        // Given
+        JdbcTemplate jdbcTemplate = h2();
+        OAuth2SessionStore store = new JdbcOAuth2SessionStore(jdbcTemplate, SECRET);
+        OAuth2SessionData session = newSession(System.currentTimeMillis());
+        store.insert(session);
+        
+        // When
+        store.replace(session, session.withAuthenticationResult("user123", "jwt-token", "refresh-token", "{}"));
+        
+        // Then
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT token, refresh_token FROM oauth2_sessions WHERE session_id = ?", session.getSessionId());
+        assertFalse(row.get("token").toString().contains("jwt-token"));
+        assertFalse(row.get("refresh_token").toString().contains("refresh-token"));
+        assertEquals("jwt-token", store.find(session.getSessionId()).orElseThrow().getToken());
+    }
+    
+    @Test
+    void jdbcStore_WithTokensCopiedFromAnotherSession_ShouldNotDecrypt() {
+        // Given
+        JdbcTemplate jdbcTemplate = h2();
+        OAuth2SessionStore store = new JdbcOAuth2SessionStore(jdbcTemplate, SECRET);
+        OAuth2SessionData victim = newSession(System.currentTimeMillis());
+        OAuth2SessionData attacker = newSession(System.currentTimeMillis());
+        store.insert(victim);
+        store.insert(attacker);
+        store.replace(victim, victim.withAuthenticationResult("user123", "jwt-token", "refresh-token", "{}"));
+        
+        // When
+        jdbcTemplate.update(
+            "UPDATE oauth2_sessions SET token = (SELECT token FROM oauth2_sessions WHERE session_id = ?) "
+                + "WHERE session_id = ?",
+            victim.getSessionId(), attacker.getSessionId());
+        
+        // Then
+        assertNull(store.find(attacker.getSessionId()).orElseThrow().getToken());
+    }
+    
+    @Test
+    void jdbcStore_WithOtherSecret_ShouldNotReadTokens() {
+        // Given
+        JdbcTemplate jdbcTemplate = h2();
+        OAuth2SessionData session = newSession(System.currentTimeMillis());
+        OAuth2SessionStore store = new JdbcOAuth2SessionStore(jdbcTemplate, SECRET);
+        store.insert(session);
+        store.replace(session, session.withAuthenticationResult("user123", "jwt-token", "refresh-token", "{}"));
+        
+        // When
+        OAuth2SessionStore other = new JdbcOAuth2SessionStore(jdbcTemplate, "anotherSecretKeyThatIsLongEnoughForHS256Algorithm");
+        
+        // Then
+        OAuth2SessionData found = other.find(session.getSessionId()).orElseThrow();
+        assertNull(found.getToken());
+        assertNull(found.getRefreshToken());
+    }
+    
+    private static OAuth2SessionData newSession(long createdAt) {
+        return new OAuth2SessionData(UUID.randomUUID().toString(), "state", "verifier", "google", createdAt);
+    }
+    
+    private static JdbcTemplate h2() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:sessions-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // As mapped by OAuth2Session; the application gets it from the JPA schema
+        jdbcTemplate.execute(
+            "CREATE TABLE oauth2_sessions ("
+                + "session_id VARCHAR(64) PRIMARY KEY, "
+                + "state VARCHAR(512) NOT NULL, "
+                + "code_verifier VARCHAR(256), "
+                + "provider VARCHAR(32), "
+                + "created_at BIGINT NOT NULL, "
+                + "expires_at BIGINT NOT NULL, "
+                + "version INT NOT NULL, "
+                + "user_id VARCHAR(64), "
+                + "token VARCHAR(4096), "
+                + "refresh_token VARCHAR(4096), "
+                + "user_data VARCHAR(2048), "
+                + "authenticated BOOLEAN NOT NULL)");
+        return jdbcTemplate;
+    }
+}
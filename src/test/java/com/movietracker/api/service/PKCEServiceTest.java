@@ -0,0 +1,68 @@
+package com.movietracker.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PKCEServiceTest {
+    
+    private final PKCEService pkceService = new PKCEService();
+    
+    @Test
+    void generateCodeChallenge_ShouldMatchRfc7636Example() {
+        // RFC 7636 Appendix B
+        assertEquals("E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM",
+            pkceService.generateCodeChallenge("dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk"));
+    }
+    
+    @Test
+    void generatePKCEParams_ShouldReturnMatchingChallenge() {
+        // When
+        PKCEService.PKCEParams params = pkceService.generatePKCEParams();
+        
+        // Then
+        assertEquals(43, params.getCodeVerifier().length());
+        assertTrue(params.getCodeVerifier().matches("[A-Za-z0-9_-]+"));
+        assertEquals(pkceService.generateCodeChallenge(params.getCodeVerifier()), params.getCodeChallenge());
+        assertEquals(22, params.getState().length());
+    }
+    
+    @Test
+    void generatePKCEParams_ShouldNotRepeatAcrossBufferRefills() {
+        // Given
+        Set<String> seen = new HashSet<>();
+        
+        // When - many times the per-thread buffer size
+        for (int i = 0; i < 1_000; i++) {
+            PKCEService.PKCEParams params = pkceService.generatePKCEParams();
+            
+            // Then
+            assertTrue(seen.add(params.getCodeVerifier()));
+            assertTrue(seen.add(params.getState()));
+        }
+    }
+    
+    @Test
+    void generatePKCEParams_ShouldBeUniqueAcrossThreads() throws Exception {
+        // Given
+        Set<String> verifiers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        
+        // When
+        for (int i = 0; i < 4_000; i++) {
+            executor.execute(() -> verifiers.add(pkceService.generatePKCEParams().getCodeVerifier()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        
+        // Then
+        assertEquals(4_000, verifiers.size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.movietracker.api.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Register and login through the GraphQL endpoint (open-in-view included) must not hold a
+ * pooled connection while the password is hashed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PasswordHashingConnectionIntegrationTest {
+    
+    private static final String REGISTER = """
+        {"query": "mutation { register(input: {email: \\"pool@example.com\\", username: \\"pooluser\\", password: \\"password123\\"}) { token } }"}
+        """;
+    private static final String LOGIN = """
+        {"query": "mutation { login(input: {email: \\"pool@example.com\\", password: \\"password123\\"}) { token } }"}
+        """;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ConnectionProbingPasswordEncoder passwordEncoder;
+    
+    @BeforeEach
+    void setUp() {
+        passwordEncoder.activeConnections.clear();
+    }
+    
+    @Test
+    void registerAndLogin_ShouldHoldNoConnectionWhileHashing() throws Exception {
+        // When
+        mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON).content(REGISTER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.register.token").exists());
+        mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.login.token").exists());
+        
+        // Then - one encode for register, one matches for login
+        assertEquals(List.of(0, 0), passwordEncoder.activeConnections);
+    }
+    
+    @TestConfiguration
+    static class ProbeConfig {
+        
+        @Bean
+        @Primary
+        ConnectionProbingPasswordEncoder connectionProbingPasswordEncoder(DataSource dataSource) throws SQLException {
+            return new ConnectionProbingPasswordEncoder(dataSource.unwrap(HikariDataSource.class));
+        }
+    }
+    
+    /**
+     * Records the number of checked-out pool connections each time a hash is computed
+     */
+    static class ConnectionProbingPasswordEncoder implements PasswordEncoder {
+        
+        private final BCryptPasswordEncoder delegate = new BCryptPasswordEncoder(4);
+        private final HikariDataSource dataSource;
+        private final List<Integer> activeConnections = new CopyOnWriteArrayList<>();
+        
+        ConnectionProbingPasswordEncoder(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+        
+        @Override
+        public String encode(CharSequence rawPassword) {
+            activeConnections.add(dataSource.getHikariPoolMXBean().getActiveConnections());
+            return delegate.encode(rawPassword);
+        }
+        
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            activeConnections.add(dataSource.getHikariPoolMXBean().getActiveConnections());
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+    }
+}
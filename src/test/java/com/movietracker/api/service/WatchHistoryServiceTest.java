@@ -0,0 +1,67 @@
+package com.movietracker.api.service;
+
+import com.movietracker.api.dto.UserMovieFilter;
+import com.movietracker.api.dto.UserMovieSortField;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchHistoryServiceTest {
+    
+    @Test
+    void shape_WithoutFilters_ShouldScanWatchedIndexInOrder() {
+        // When
+        WatchHistoryService.Shape shape = WatchHistoryService.Shape.of(new UserMovieFilter(), UserMovieSortField.DATE_WATCHED);
+        
+        // Then
+        assertEquals("none", shape.filters());
+        assertEquals("date_watched", shape.sort());
+        assertEquals(WatchHistoryService.INDEX_WATCHED, shape.index());
+        assertTrue(shape.orderedByIndex());
+    }
+    
+    @Test
+    void shape_WithTheater_ShouldPreferEqualityIndexAndSort() {
+        // Given
+        UserMovieFilter filter = new UserMovieFilter();
+        filter.setTheater("Odeon");
+        filter.setMinRating(7);
+        filter.setWatchedFrom(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        
+        // When
+        WatchHistoryService.Shape shape = WatchHistoryService.Shape.of(filter, UserMovieSortField.DATE_WATCHED);
+        
+        // Then
+        assertEquals("date+theater+rating", shape.filters());
+        assertEquals(WatchHistoryService.INDEX_THEATER, shape.index());
+        assertFalse(shape.orderedByIndex());
+    }
+    
+    @Test
+    void shape_WithRangeFilterAndTitleSort_ShouldUseRangeIndex() {
+        // Given
+        UserMovieFilter filter = new UserMovieFilter();
+        filter.setMaxPrice(12.5);
+        filter.setGenre("Drama");
+        
+        // When
+        WatchHistoryService.Shape shape = WatchHistoryService.Shape.of(filter, UserMovieSortField.TITLE);
+        
+        // Then
+        assertEquals("price+genre", shape.filters());
+        assertEquals(WatchHistoryService.INDEX_PRICE, shape.index());
+        assertFalse(shape.orderedByIndex());
+    }
+    
+    @Test
+    void sort_ShouldBreakTiesById() {
+        // When
+        Sort sort = WatchHistoryService.sort(UserMovieSortField.PERSONAL_RATING, Sort.Direction.ASC);
+        
+        // Then
+        assertEquals(Sort.by(Sort.Direction.ASC, "personalRating", "id"), sort);
+    }
+}
@@ -0,0 +1,58 @@
+package com.movietracker.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base64UrlTest {
+    
+    @Test
+    void encode_ShouldMatchJdkUnpaddedUrlEncoder() {
+        // Given
+        Random random = new Random(42);
+        Base64.Encoder jdk = Base64.getUrlEncoder().withoutPadding();
+        
+        for (int length = 0; length <= 70; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            
+            // When & Then
+            assertEquals(jdk.encodeToString(bytes), Base64Url.encode(bytes), "length " + length);
+        }
+    }
+    
+    @Test
+    void encode_ShouldUseUrlSafeAlphabet() {
+        byte[] bytes = new byte[] {(byte) 0xfb, (byte) 0xff, (byte) 0xbf};
+        
+        assertEquals("-_-_", Base64Url.encode(bytes));
+    }
+    
+    @Test
+    void encodeToAscii_ShouldEncodeSlice() {
+        // Given
+        byte[] bytes = "xxhello worldxx".getBytes(StandardCharsets.US_ASCII);
+        
+        // When
+        byte[] encoded = Base64Url.encodeToAscii(bytes, 2, 11);
+        
+        // Then
+        assertEquals("aGVsbG8gd29ybGQ", new String(encoded, StandardCharsets.US_ASCII));
+        assertEquals(Base64Url.encodedLength(11), encoded.length);
+    }
+    
+    @Test
+    void encodedLength_ShouldMatchUnpaddedLength() {
+        for (int length = 0; length <= 70; length++) {
+            byte[] bytes = new byte[length];
+            Arrays.fill(bytes, (byte) 1);
+            assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes).length(),
+                Base64Url.encodedLength(length));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.movietracker.api.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    
+    private AtomicLong clock;
+    private CircuitBreaker breaker;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(5));
+        breaker = new CircuitBreaker(3, Duration.ofSeconds(30), clock::get);
+    }
+    
+    @Test
+    void onFailure_ShouldOpenAfterConsecutiveFailures() {
+        // When
+        failCalls(2);
+        
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+        
+        // When
+        breaker.onFailure();
+        
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+    
+    @Test
+    void onSuccess_ShouldResetFailureCount() {
+        // Given
+        failCalls(2);
+        breaker.onSuccess();
+        
+        // When
+        failCalls(2);
+        
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+    
+    @Test
+    void tryAcquire_AfterOpenDuration_ShouldAdmitSingleProbe() {
+        // Given
+        failCalls(3);
+        
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        
+        // Then
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+    
+    @Test
+    void probeSuccess_ShouldCloseCircuit() {
+        // Given
+        failCalls(3);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        breaker.tryAcquire();
+        
+        // When
+        breaker.onSuccess();
+        
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+    
+    @Test
+    void probeFailure_ShouldReopenForAnotherPeriod() {
+        // Given
+        failCalls(3);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        breaker.tryAcquire();
+        
+        // When
+        breaker.onFailure();
+        
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertFalse(breaker.tryAcquire());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(breaker.tryAcquire());
+    }
+    
+    @Test
+    void constructor_WithZeroThreshold_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, Duration.ofSeconds(30)));
+    }
+    
+    private void failCalls(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.movietracker.api.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+    
+    private AtomicLong clock;
+    private HashedTimingWheel<String> wheel;
+    private List<String> expired;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000);
+        // 8 ticks of 1 second: one revolution is 8 seconds
+        wheel = new HashedTimingWheel<>(Duration.ofSeconds(1), 8, clock::get);
+        expired = new ArrayList<>();
+    }
+    
+    @Test
+    void advance_ShouldExpireItemsOnlyAfterTheirDeadline() {
+        // Given
+        wheel.schedule("a", clock.get() + 2_500);
+        
+        // When & Then
+        clock.addAndGet(2_400);
+        assertEquals(0, wheel.advance(expired::add));
+        clock.addAndGet(1_000);
+        assertEquals(1, wheel.advance(expired::add));
+        assertEquals(List.of("a"), expired);
+    }
+    
+    @Test
+    void advance_ShouldKeepItemsScheduledBeyondOneRevolution() {
+        // Given
+        wheel.schedule("far", clock.get() + 20_000);
+        
+        // When
+        clock.addAndGet(10_000);
+        wheel.advance(expired::add);
+        
+        // Then
+        assertTrue(expired.isEmpty());
+        clock.addAndGet(11_000);
+        wheel.advance(expired::add);
+        assertEquals(List.of("far"), expired);
+    }
+    
+    @Test
+    void advance_AfterLongPause_ShouldExpireEverythingDue() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule("item" + i, clock.get() + i * 100L);
+        }
+        
+        // When
+        clock.addAndGet(60_000);
+        int count = wheel.advance(expired::add);
+        
+        // Then
+        assertEquals(100, count);
+    }
+    
+    @Test
+    void schedule_WithPastDeadline_ShouldExpireOnNextTick() {
+        // Given
+        wheel.schedule("late", clock.get() - 5_000);
+        
+        // When
+        clock.addAndGet(1_000);
+        wheel.advance(expired::add);
+        
+        // Then
+        assertEquals(List.of("late"), expired);
+    }
+    
+    @Test
+    void removeIf_ShouldDropMatchingItemsWithoutExpiringThem() {
+        // Given
+        wheel.schedule("keep", clock.get() + 2_000);
+        wheel.schedule("drop", clock.get() + 2_000);
+        wheel.schedule("far", clock.get() + 20_000);
+        
+        // When
+        int removed = wheel.removeIf(item -> !item.equals("keep"));
+        
+        // Then
+        assertEquals(2, removed);
+        assertEquals(1, wheel.size());
+        clock.addAndGet(30_000);
+        wheel.advance(expired::add);
+        assertEquals(List.of("keep"), expired);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.movietracker.api.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedTokenBucketTest {
+    
+    private AtomicLong clock;
+    private StripedTokenBucket buckets;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(5));
+        // Burst of 3, one token every 10 seconds
+        buckets = new StripedTokenBucket(1024, 16, 3, Duration.ofSeconds(10), clock::get);
+    }
+    
+    @Test
+    void tryAcquire_ShouldAllowBurstUpToCapacity() {
+        // When & Then
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertEquals(TimeUnit.SECONDS.toNanos(10), buckets.tryAcquire("10.0.0.1"));
+    }
+    
+    @Test
+    void tryAcquire_ShouldRefillOverTime() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("10.0.0.1");
+        }
+        
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        
+        // Then
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertTrue(buckets.tryAcquire("10.0.0.1") > 0);
+    }
+    
+    @Test
+    void tryAcquire_ShouldKeepKeysIndependent() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            buckets.tryAcquire("10.0.0.1");
+        }
+        
+        // When & Then
+        assertTrue(buckets.tryAcquire("10.0.0.1") > 0);
+        assertEquals(0, buckets.tryAcquire("10.0.0.2"));
+    }
+    
+    @Test
+    void tryAcquire_WithPermits_ShouldTakeAllOrNone() {
+        // When & Then
+        assertEquals(0, buckets.tryAcquire("user-1", 2));
+        assertEquals(1, buckets.available("user-1"));
+        assertEquals(TimeUnit.SECONDS.toNanos(10), buckets.tryAcquire("user-1", 2));
+        assertEquals(1, buckets.available("user-1"));
+        assertEquals(0, buckets.tryAcquire("user-1", 1));
+    }
+    
+    @Test
+    void tryAcquire_WithPermits_ShouldWaitForEnoughRefill() {
+        // Given
+        buckets.tryAcquire("user-1", 3);
+        
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        
+        // Then - one token back, the other two take another 20 seconds
+        assertEquals(1, buckets.available("user-1"));
+        assertEquals(TimeUnit.SECONDS.toNanos(20), buckets.tryAcquire("user-1", 3));
+    }
+    
+    @Test
+    void tryAcquire_WithPermitsAboveCapacity_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> buckets.tryAcquire("user-1", 4));
+        assertThrows(IllegalArgumentException.class, () -> buckets.tryAcquire("user-1", 0));
+    }
+    
+    @Test
+    void release_ShouldReturnTokensUpToCapacity() {
+        // Given
+        buckets.tryAcquire("user-1", 3);
+        
+        // When
+        buckets.release("user-1", 2);
+        
+        // Then
+        assertEquals(2, buckets.available("user-1"));
+        buckets.release("user-1", 3);
+        assertEquals(3, buckets.available("user-1"));
+    }
+    
+    @Test
+    void available_ShouldStartFull() {
+        assertEquals(3, buckets.available("10.0.0.9"));
+    }
+    
+    @Test
+    void constructor_ShouldRoundSlotsUpToPowerOfTwo() {
+        assertEquals(1024, new StripedTokenBucket(1000, 16, 1, Duration.ofSeconds(1)).slots());
+    }
+}
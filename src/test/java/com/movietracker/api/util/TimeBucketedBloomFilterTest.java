@@ -0,0 +1,76 @@
+package com.movietracker.api.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeBucketedBloomFilterTest {
+    
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    
+    private AtomicLong clock;
+    private TimeBucketedBloomFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000 * HOUR);
+        // 24 hour horizon over 25 buckets: one hour per bucket
+        filter = new TimeBucketedBloomFilter(Duration.ofHours(24), 25, 1_000, 0.001, clock::get);
+    }
+    
+    @Test
+    void mightContain_ShouldRememberElementUntilItExpires() {
+        // Given
+        filter.put("token-id", clock.get() + 3 * HOUR);
+        
+        // When & Then
+        assertTrue(filter.mightContain("token-id"));
+        clock.addAndGet(3 * HOUR - 1);
+        assertTrue(filter.mightContain("token-id"));
+        assertFalse(filter.mightContain("other-id"));
+    }
+    
+    @Test
+    void mightContain_ShouldForgetElementOnceItsBucketHasPassed() {
+        // Given
+        filter.put("token-id", clock.get() + 3 * HOUR);
+        
+        // When
+        clock.addAndGet(4 * HOUR);
+        
+        // Then
+        assertFalse(filter.mightContain("token-id"));
+    }
+    
+    @Test
+    void put_ShouldReuseSlotsOfExpiredBuckets() {
+        // Given
+        filter.put("old-id", clock.get() + HOUR / 2);
+        
+        // When - a full ring later the same slot is taken by a new window
+        clock.addAndGet(25 * HOUR);
+        filter.put("new-id", clock.get() + HOUR / 2);
+        
+        // Then
+        assertTrue(filter.mightContain("new-id"));
+        assertFalse(filter.mightContain("old-id"));
+    }
+    
+    @Test
+    void put_WithAlreadyExpiredElement_ShouldIgnoreIt() {
+        // When
+        filter.put("token-id", clock.get() - 1);
+        
+        // Then
+        assertFalse(filter.mightContain("token-id"));
+    }
+    
+    @Test
+    void bucketWidth_ShouldSplitHorizonAcrossAllButOneBucket() {
+        assertEquals(Duration.ofHours(1), filter.bucketWidth());
+    }
+}